@@ -0,0 +1,89 @@
+package com.crossborder.shop.common;
+
+import com.crossborder.shop.exception.BusinessException;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页令牌
+ * 编码上一页最后一行的（排序字段值, id），下一页从该位置起按索引定位，无需OFFSET
+ * 令牌对客户端不透明，格式：Base64Url("排序字段|id|排序值")
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Getter
+public class PageCursor {
+
+    /**
+     * 排序字段：创建时间
+     */
+    public static final String SORT_CREATE_TIME = "time";
+
+    /**
+     * 排序字段：价格
+     */
+    public static final String SORT_PRICE = "price";
+
+    /**
+     * 排序字段：名称
+     */
+    public static final String SORT_NAME = "name";
+
+    private final String sortBy;
+
+    private final Long id;
+
+    /**
+     * 排序值：LocalDateTime / BigDecimal / String
+     */
+    private final Object value;
+
+    private PageCursor(String sortBy, Long id, Object value) {
+        this.sortBy = sortBy;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * 生成游标令牌
+     */
+    public static String encode(String sortBy, Long id, Object value) {
+        String raw = sortBy + "|" + id + "|" + (value instanceof BigDecimal decimal ? decimal.toPlainString() : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标令牌
+     *
+     * @param token  令牌，为空表示第一页
+     * @param sortBy 当前请求的排序字段，必须与令牌一致
+     * @return 游标，第一页返回null
+     */
+    public static PageCursor decode(String token, String sortBy) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || !parts[0].equals(sortBy)) {
+                throw new BusinessException(ResultCode.BAD_REQUEST, "分页游标与排序条件不匹配");
+            }
+            Long id = Long.valueOf(parts[1]);
+            Object value = switch (sortBy) {
+                case SORT_CREATE_TIME -> LocalDateTime.parse(parts[2]);
+                case SORT_PRICE -> new BigDecimal(parts[2]);
+                default -> parts[2];
+            };
+            return new PageCursor(sortBy, id, value);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "无效的分页游标");
+        }
+    }
+}
@@ -33,6 +33,9 @@ public class PageResult<T> implements Serializable {
     @Schema(description = "数据列表")
     private List<T> list;
 
+    @Schema(description = "下一页游标（游标分页时返回，没有更多数据时为空）")
+    private String nextCursor;
+
     public PageResult() {
     }
 
@@ -51,6 +54,17 @@ public class PageResult<T> implements Serializable {
         return new PageResult<>(pageNum, pageSize, total, list);
     }
 
+    /**
+     * 构建游标分页结果（不统计总数）
+     */
+    public static <T> PageResult<T> cursor(Integer pageSize, List<T> list, String nextCursor) {
+        PageResult<T> result = new PageResult<>();
+        result.setPageSize(pageSize);
+        result.setList(list);
+        result.setNextCursor(nextCursor);
+        return result;
+    }
+
     /**
      * 空分页结�?
      */
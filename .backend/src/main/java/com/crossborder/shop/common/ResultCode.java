@@ -25,6 +25,7 @@ public enum ResultCode {
     METHOD_NOT_ALLOWED(405, "请求方法不支持"),
     CONFLICT(409, "数据冲突"),
     VALIDATION_ERROR(422, "参数校验失败"),
+    TOO_MANY_REQUESTS(429, "请求过于频繁，请稍后重试"),
 
     /* 服务端错误：500-599 */
     INTERNAL_SERVER_ERROR(500, "服务器内部错误"),
@@ -2,9 +2,11 @@ package com.crossborder.shop.controller;
 
 import com.crossborder.shop.common.Result;
 import com.crossborder.shop.dto.AddCartDTO;
+import com.crossborder.shop.dto.CartBatchDTO;
 import com.crossborder.shop.dto.UpdateCartItemDTO;
 import com.crossborder.shop.security.UserPrincipal;
 import com.crossborder.shop.service.CartService;
+import com.crossborder.shop.vo.CartSummaryVO;
 import com.crossborder.shop.vo.CartVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -59,6 +61,15 @@ public class CartController {
         return Result.success();
     }
 
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('BUYER')")
+    @Operation(summary = "批量操作购物车", description = "一次请求同步多项添加、更新、删除，全部成功或全部回滚")
+    public Result<Void> batchUpdateCart(@AuthenticationPrincipal UserPrincipal principal,
+            @Valid @RequestBody CartBatchDTO dto) {
+        cartService.batchUpdateCart(principal.getUserId(), dto);
+        return Result.success();
+    }
+
     @DeleteMapping("/clear")
     @PreAuthorize("hasRole('BUYER')")
     @Operation(summary = "清空购物车", description = "清空用户购物车所有商品")
@@ -75,6 +86,13 @@ public class CartController {
         return Result.success(cart);
     }
 
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('BUYER')")
+    @Operation(summary = "获取购物车汇总", description = "查询购物车明细条数、商品总数和总价，用于购物车角标")
+    public Result<CartSummaryVO> getCartSummary(@AuthenticationPrincipal UserPrincipal principal) {
+        return Result.success(cartService.getCartSummary(principal.getUserId()));
+    }
+
     @PutMapping("/select/all")
     @PreAuthorize("hasRole('BUYER')")
     @Operation(summary = "全选/取消全选", description = "设置购物车所有商品的选中状态")
@@ -1,12 +1,15 @@
 package com.crossborder.shop.controller;
 
+import com.crossborder.shop.common.PageResult;
 import com.crossborder.shop.common.Result;
 import com.crossborder.shop.dto.CreateOrderDTO;
 import com.crossborder.shop.dto.OrderShipDTO;
 import com.crossborder.shop.security.UserPrincipal;
+import com.crossborder.shop.service.OrderIdempotencyService;
 import com.crossborder.shop.service.OrderService;
 import com.crossborder.shop.vo.OrderVO;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,8 +18,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * 订单控制
  *
@@ -31,13 +32,21 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIdempotencyService orderIdempotencyService;
 
     @PostMapping("/create")
     @PreAuthorize("hasRole('BUYER')")
-    @Operation(summary = "创建订单", description = "买家从购物车创建订单")
+    @Operation(summary = "创建订单", description = "买家从购物车创建订单，携带Idempotency-Key时重复提交返回原订单ID")
     public Result<Long> createOrder(@AuthenticationPrincipal UserPrincipal principal,
+            @Parameter(description = "幂等键，客户端重试时保持不变")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CreateOrderDTO dto) {
-        Long orderId = orderService.createOrder(principal.getUserId(), dto);
+        Long userId = principal.getUserId();
+        if (idempotencyKey == null) {
+            return Result.success(orderService.createOrder(userId, dto));
+        }
+        Long orderId = orderIdempotencyService.submit(userId, idempotencyKey,
+                () -> orderService.createOrder(userId, dto, idempotencyKey));
         return Result.success(orderId);
     }
 
@@ -82,21 +91,33 @@ public class OrderController {
 
     @GetMapping("/buyer/list")
     @PreAuthorize("hasRole('BUYER')")
-    @Operation(summary = "买家订单列表", description = "查询当前买家的订单列表")
-    public Result<List<OrderVO>> getBuyerOrders(
+    @Operation(summary = "买家订单列表", description = "分页查询当前买家的订单列表")
+    public Result<PageResult<OrderVO>> getBuyerOrders(
             @AuthenticationPrincipal UserPrincipal principal,
-            @RequestParam(required = false) Integer orderStatus) {
-        List<OrderVO> orders = orderService.getBuyerOrders(principal.getUserId(), orderStatus);
+            @RequestParam(required = false) Integer orderStatus,
+            @Parameter(description = "页码") @RequestParam(defaultValue = "1") int pageNum,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") int pageSize,
+            @Parameter(description = "游标分页：传入则按游标分页并返回nextCursor，首页传空字符串") @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return Result.success(orderService.getBuyerOrdersByCursor(principal.getUserId(), orderStatus, cursor, pageSize));
+        }
+        PageResult<OrderVO> orders = orderService.getBuyerOrders(principal.getUserId(), orderStatus, pageNum, pageSize);
         return Result.success(orders);
     }
 
     @GetMapping("/seller/list")
     @PreAuthorize("hasRole('SELLER')")
-    @Operation(summary = "卖家订单列表", description = "查询当前卖家的订单列表")
-    public Result<List<OrderVO>> getSellerOrders(
+    @Operation(summary = "卖家订单列表", description = "分页查询当前卖家的订单列表")
+    public Result<PageResult<OrderVO>> getSellerOrders(
             @AuthenticationPrincipal UserPrincipal principal,
-            @RequestParam(required = false) Integer orderStatus) {
-        List<OrderVO> orders = orderService.getSellerOrders(principal.getUserId(), orderStatus);
+            @RequestParam(required = false) Integer orderStatus,
+            @Parameter(description = "页码") @RequestParam(defaultValue = "1") int pageNum,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") int pageSize,
+            @Parameter(description = "游标分页：传入则按游标分页并返回nextCursor，首页传空字符串") @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return Result.success(orderService.getSellerOrdersByCursor(principal.getUserId(), orderStatus, cursor, pageSize));
+        }
+        PageResult<OrderVO> orders = orderService.getSellerOrders(principal.getUserId(), orderStatus, pageNum, pageSize);
         return Result.success(orders);
     }
 
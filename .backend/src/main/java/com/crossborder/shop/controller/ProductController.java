@@ -5,6 +5,8 @@ import com.crossborder.shop.common.Result;
 import com.crossborder.shop.dto.ProductDTO;
 import com.crossborder.shop.security.UserPrincipal;
 import com.crossborder.shop.service.ProductService;
+import com.crossborder.shop.vo.CacheStatsVO;
+import com.crossborder.shop.vo.ProductFacetPageVO;
 import com.crossborder.shop.vo.ProductVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -95,13 +97,35 @@ public class ProductController {
             @Parameter(description = "页码") @RequestParam(defaultValue = "1") int pageNum,
             @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") int pageSize,
             @Parameter(description = "排序字段：price, name") @RequestParam(required = false) String sortBy,
-            @Parameter(description = "排序顺序：asc, desc") @RequestParam(required = false) String sortOrder) {
+            @Parameter(description = "排序顺序：asc, desc") @RequestParam(required = false) String sortOrder,
+            @Parameter(description = "游标分页：传入则按游标分页并返回nextCursor，首页传空字符串") @RequestParam(required = false) String cursor) {
 
+        if (cursor != null) {
+            return Result.success(productService.getProductCursorPage(
+                    categoryId, status, sellerId, keyword, cursor, pageSize, sortBy, sortOrder));
+        }
         PageResult<ProductVO> pageResult = productService.getProductPage(
                 categoryId, status, sellerId, keyword, pageNum, pageSize, sortBy, sortOrder);
         return Result.success(pageResult);
     }
 
+    @GetMapping("/facet-page")
+    @Operation(summary = "商品分面查询", description = "上架商品分页查询，同时返回分类、品牌、价格区间、币种的分面计数")
+    public Result<ProductFacetPageVO> getProductFacetPage(
+            @Parameter(description = "关键字搜索") @RequestParam(required = false) String keyword,
+            @Parameter(description = "分类ID") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "品牌") @RequestParam(required = false) String brand,
+            @Parameter(description = "价格区间，如50-100、1000+") @RequestParam(required = false) String priceBand,
+            @Parameter(description = "币种") @RequestParam(required = false) String currency,
+            @Parameter(description = "页码") @RequestParam(defaultValue = "1") int pageNum,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") int pageSize,
+            @Parameter(description = "排序字段：price, name") @RequestParam(required = false) String sortBy,
+            @Parameter(description = "排序顺序：asc, desc") @RequestParam(required = false) String sortOrder) {
+
+        return Result.success(productService.getProductFacetPage(
+                keyword, categoryId, brand, priceBand, currency, pageNum, pageSize, sortBy, sortOrder));
+    }
+
     @GetMapping("/seller/my-products")
     @PreAuthorize("hasRole('SELLER')")
     @Operation(summary = "我的商品", description = "卖家查询自己的商品列表")
@@ -118,6 +142,13 @@ public class ProductController {
         return Result.success(pageResult);
     }
 
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "商品详情缓存统计", description = "查询商品详情本地缓存的命中率、加载耗时等指标")
+    public Result<CacheStatsVO> getProductCacheStats() {
+        return Result.success(productService.getProductCacheStats());
+    }
+
     @GetMapping("/latest")
     @Operation(summary = "获取最新商品", description = "获取最新添加的商品列表")
     public Result<List<ProductVO>> getLatestProducts(
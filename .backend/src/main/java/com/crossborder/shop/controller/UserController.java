@@ -2,16 +2,20 @@ package com.crossborder.shop.controller;
 
 import com.crossborder.shop.common.PageResult;
 import com.crossborder.shop.common.Result;
+import com.crossborder.shop.dto.LogoutDTO;
 import com.crossborder.shop.dto.UserLoginDTO;
 import com.crossborder.shop.dto.UserRegisterDTO;
 import com.crossborder.shop.dto.UserUpdateDTO;
 import com.crossborder.shop.security.UserPrincipal;
 import com.crossborder.shop.service.UserService;
+import com.crossborder.shop.util.IpUtil;
+import com.crossborder.shop.util.JwtUtil;
 import com.crossborder.shop.vo.LoginVO;
 import com.crossborder.shop.vo.UserVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -31,6 +35,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final JwtUtil jwtUtil;
 
     @Operation(summary = "用户注册", description = "新用户注册，注册成功后需要登录")
     @PostMapping("/register")
@@ -41,8 +46,8 @@ public class UserController {
 
     @Operation(summary = "用户登录", description = "用户登录，返回AccessToken和RefreshToken")
     @PostMapping("/login")
-    public Result<LoginVO> login(@Valid @RequestBody UserLoginDTO dto) {
-        LoginVO loginVO = userService.login(dto);
+    public Result<LoginVO> login(@Valid @RequestBody UserLoginDTO dto, HttpServletRequest request) {
+        LoginVO loginVO = userService.login(dto, IpUtil.getClientIp(request));
         return Result.success(loginVO);
     }
 
@@ -54,10 +59,10 @@ public class UserController {
         return Result.success(loginVO);
     }
 
-    @Operation(summary = "用户登出", description = "用户登出，清除Token信息")
+    @Operation(summary = "用户登出", description = "用户登出，吊销当前AccessToken及传入的RefreshToken")
     @PostMapping("/logout")
-    public Result<Void> logout() {
-        userService.logout();
+    public Result<Void> logout(HttpServletRequest request, @RequestBody(required = false) LogoutDTO dto) {
+        userService.logout(jwtUtil.getTokenFromRequest(request), dto == null ? null : dto.getRefreshToken());
         return Result.success();
     }
 
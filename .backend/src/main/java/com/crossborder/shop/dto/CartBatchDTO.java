@@ -0,0 +1,30 @@
+package com.crossborder.shop.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 购物车批量操作DTO
+ * 同一请求中依次执行添加、更新、删除，全部成功或全部回滚
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+@Schema(description = "购物车批量操作请求")
+public class CartBatchDTO {
+
+    @Valid
+    @Schema(description = "添加的商品（已在购物车中的累加数量）")
+    private List<AddCartDTO> adds;
+
+    @Valid
+    @Schema(description = "更新的明细（数量、选中状态）")
+    private List<UpdateCartItemDTO> updates;
+
+    @Schema(description = "删除的明细ID", example = "[1, 2]")
+    private List<Long> removeIds;
+}
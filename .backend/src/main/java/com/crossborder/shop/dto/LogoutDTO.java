@@ -0,0 +1,19 @@
+package com.crossborder.shop.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 用户登出DTO
+ * 刷新令牌放在请求体中传递，避免出现在URL、访问日志和代理日志里
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+@Schema(description = "用户登出DTO")
+public class LogoutDTO {
+
+    @Schema(description = "要一并吊销的刷新令牌，可为空")
+    private String refreshToken;
+}
@@ -0,0 +1,43 @@
+package com.crossborder.shop.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 下单幂等记录实体
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+public class OrderIdempotency implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 记录ID
+     */
+    private Long id;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 客户端传入的幂等键（Idempotency-Key请求头）
+     */
+    private String idempotencyKey;
+
+    /**
+     * 订单ID
+     */
+    private Long orderId;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,83 @@
+package com.crossborder.shop.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 订单超时任务实体
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+public class OrderTimeoutTask implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 任务状态：待处理
+     */
+    public static final int STATUS_PENDING = 0;
+
+    /**
+     * 任务状态：已处理（订单已超时取消）
+     */
+    public static final int STATUS_PROCESSED = 1;
+
+    /**
+     * 任务状态：已取消（订单已支付或已被买家取消）
+     */
+    public static final int STATUS_CANCELLED = 2;
+
+    /**
+     * 任务ID
+     */
+    private Long id;
+
+    /**
+     * 订单ID
+     */
+    private Long orderId;
+
+    /**
+     * 订单号
+     */
+    private String orderNumber;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 超时时间
+     */
+    private LocalDateTime timeoutTime;
+
+    /**
+     * 任务状态：0-待处理，1-已处理，2-已取消
+     */
+    private Integer status;
+
+    /**
+     * 认领节点
+     */
+    private String owner;
+
+    /**
+     * 认领有效期
+     */
+    private LocalDateTime leaseUntil;
+
+    /**
+     * 处理时间
+     */
+    private LocalDateTime processTime;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
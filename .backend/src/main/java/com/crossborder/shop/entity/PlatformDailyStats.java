@@ -0,0 +1,69 @@
+package com.crossborder.shop.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 平台每日统计汇总实体
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+public class PlatformDailyStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 统计日期
+     */
+    private LocalDate statDate;
+
+    /**
+     * 总用户数
+     */
+    private Long totalUsers;
+
+    /**
+     * 活跃用户数
+     */
+    private Long activeUsers;
+
+    /**
+     * 当日新用户
+     */
+    private Long newUsers;
+
+    /**
+     * 商品总数
+     */
+    private Long totalProducts;
+
+    /**
+     * 上架商品数
+     */
+    private Long activeProducts;
+
+    /**
+     * 订单总数
+     */
+    private Long totalOrders;
+
+    /**
+     * 待处理订单数
+     */
+    private Long pendingOrders;
+
+    /**
+     * 累计营收
+     */
+    private BigDecimal totalRevenue;
+
+    /**
+     * 当日营收
+     */
+    private BigDecimal revenue;
+}
@@ -0,0 +1,65 @@
+package com.crossborder.shop.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 卖家每日统计汇总实体
+ * 增量更新时各字段表示本次的增量
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+public class SellerDailyStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 卖家ID
+     */
+    private Long sellerId;
+
+    /**
+     * 统计日期
+     */
+    private LocalDate statDate;
+
+    /**
+     * 下单数
+     */
+    private Integer orderCount = 0;
+
+    /**
+     * 支付订单数
+     */
+    private Integer paidOrderCount = 0;
+
+    /**
+     * 发货订单数
+     */
+    private Integer shippedOrderCount = 0;
+
+    /**
+     * 完成订单数
+     */
+    private Integer completedOrderCount = 0;
+
+    /**
+     * 取消订单数
+     */
+    private Integer cancelledOrderCount = 0;
+
+    /**
+     * 销售额
+     */
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    /**
+     * 销售件数
+     */
+    private Integer units = 0;
+}
@@ -0,0 +1,48 @@
+package com.crossborder.shop.entity;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Token吊销记录实体
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+public class TokenRevocation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 记录ID
+     */
+    private Long id;
+
+    /**
+     * Token标识（jti），为null时吊销该用户在吊销时间之前签发的全部Token
+     */
+    private String tokenId;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 吊销时间
+     */
+    private LocalDateTime revokeTime;
+
+    /**
+     * 失效时间（被吊销Token的最晚过期时间）
+     */
+    private LocalDateTime expireTime;
+
+    /**
+     * 创建时间（数据库时钟）
+     */
+    private LocalDateTime createTime;
+}
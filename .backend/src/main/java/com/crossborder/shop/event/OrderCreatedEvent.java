@@ -0,0 +1,28 @@
+package com.crossborder.shop.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单创建事件
+ * 在下单事务内发布，监听方按需在事务提交后处理
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCreatedEvent {
+
+    /**
+     * 订单ID
+     */
+    private final Long orderId;
+
+    /**
+     * 支付超时时间
+     */
+    private final LocalDateTime timeoutTime;
+}
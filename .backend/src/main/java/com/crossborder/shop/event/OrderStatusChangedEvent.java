@@ -0,0 +1,30 @@
+package com.crossborder.shop.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 订单状态变更事件
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+
+    /**
+     * 订单ID
+     */
+    private final Long orderId;
+
+    /**
+     * 变更前状态
+     */
+    private final Integer fromStatus;
+
+    /**
+     * 变更后状态
+     */
+    private final Integer toStatus;
+}
@@ -0,0 +1,21 @@
+package com.crossborder.shop.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 用户注册事件
+ * 在注册事务内发布，监听方按需在事务提交后处理
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Getter
+@AllArgsConstructor
+public class UserRegisteredEvent {
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+}
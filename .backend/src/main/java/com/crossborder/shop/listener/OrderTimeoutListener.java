@@ -1,20 +1,36 @@
 package com.crossborder.shop.listener;
 
-import com.crossborder.shop.entity.Order;
-import com.crossborder.shop.mapper.OrderMapper;
+import cn.hutool.core.util.IdUtil;
+import com.crossborder.shop.event.OrderCreatedEvent;
+import com.crossborder.shop.event.OrderStatusChangedEvent;
+import com.crossborder.shop.mapper.OrderTimeoutTaskMapper;
 import com.crossborder.shop.service.OrderService;
+import com.crossborder.shop.util.TimingWheel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 订单超时定时任务
- * 定期扫描数据库中超时未支付的订单并自动取消
+ * 待支付订单在下单事务提交后登记到创建节点的时间轮，到期后自动取消；
+ * 超时任务持久化在tb_order_timeout_task中，每个节点定期按(status, timeout_time)索引认领超过宽限时间仍未处理的任务，
+ * 认领带租约，创建节点宕机或重启后其任务由任意节点接管，启动时无需加载全部任务或扫描订单表。
+ * 时间轮与认领可能同时处理同一订单，取消逻辑只处理仍为待支付的订单，重复处理无副作用
  *
  * @author CrossBorder Shop
  * @since 2026-02-04
@@ -24,34 +40,163 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderTimeoutListener {
 
-    private final OrderMapper orderMapper;
+    /**
+     * 取消失败后的重试间隔
+     */
+    private static final long RETRY_DELAY_MS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * 每层时间轮的槽位数
+     */
+    private static final int WHEEL_SIZE = 60;
+
+    private final OrderTimeoutTaskMapper orderTimeoutTaskMapper;
     private final OrderService orderService;
 
     @Value("${order.timeout-minutes:15}")
     private int orderTimeoutMinutes;
 
+    @Value("${order.timeout-tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${order.timeout-batch-size:200}")
+    private int batchSize;
+
+    @Value("${order.timeout-claim-grace-seconds:30}")
+    private int claimGraceSeconds;
+
+    @Value("${order.timeout-claim-lease-seconds:60}")
+    private int claimLeaseSeconds;
+
+    @Value("${order.timeout-backfill-enabled:false}")
+    private boolean backfillEnabled;
+
+    /**
+     * 本节点的认领标识，每次启动重新生成
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
     /**
-     * 每分钟扫描一次超时未支付订单
+     * 时间轮只在tick中访问，登记请求先进入队列
      */
-    @Scheduled(fixedRate = 60000)
-    public void checkTimeoutOrders() {
-        LocalDateTime deadline = LocalDateTime.now().minusMinutes(orderTimeoutMinutes);
-        List<Order> expiredOrders = orderMapper.selectExpiredPendingOrders(deadline);
+    private TimingWheel<Long> wheel;
+
+    private final Queue<Long> pendingOrders = new ConcurrentLinkedQueue<>();
 
-        if (expiredOrders == null || expiredOrders.isEmpty()) {
+    /**
+     * 仍需超时取消的订单：订单ID -> 超时时间戳
+     */
+    private final Map<Long, Long> deadlines = new ConcurrentHashMap<>();
+
+    /**
+     * 升级后首次部署时为历史待支付订单补建超时任务，补建的任务已超时的由认领流程取消
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!backfillEnabled) {
             return;
         }
+        int backfilled = orderTimeoutTaskMapper.backfillPendingOrders(orderTimeoutMinutes);
+        log.info("补建待支付订单超时任务: count={}", backfilled);
+    }
 
-        log.info("发现{}个超时未支付订单，开始处理", expiredOrders.size());
+    /**
+     * 下单事务提交后登记超时任务
+     */
+    @TransactionalEventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        schedule(event.getOrderId(), event.getTimeoutTime());
+    }
 
-        for (Order order : expiredOrders) {
+    /**
+     * 订单离开待支付状态（支付/取消）后撤销超时任务
+     */
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        deadlines.remove(event.getOrderId());
+    }
+
+    /**
+     * 推进时间轮并取消到期订单
+     */
+    @Scheduled(fixedDelayString = "${order.timeout-tick-ms:1000}")
+    public synchronized void tick() {
+        long now = System.currentTimeMillis();
+        if (wheel == null) {
+            wheel = new TimingWheel<>(tickMs, WHEEL_SIZE, now);
+        }
+
+        List<Long> expiredOrderIds = new ArrayList<>();
+        Long orderId;
+        while ((orderId = pendingOrders.poll()) != null) {
+            Long deadline = deadlines.get(orderId);
+            if (deadline != null && !wheel.add(orderId, deadline)) {
+                expiredOrderIds.add(orderId);
+            }
+        }
+        wheel.advance(now, expiredOrderIds::add);
+
+        List<Long> dueOrderIds = new ArrayList<>();
+        for (Long expiredOrderId : expiredOrderIds) {
+            Long deadline = deadlines.get(expiredOrderId);
+            // 已撤销，或重新登记了更晚的超时时间
+            if (deadline != null && deadline <= now) {
+                dueOrderIds.add(expiredOrderId);
+            }
+        }
+        if (dueOrderIds.isEmpty()) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        int cancelled = 0;
+        for (int from = 0; from < dueOrderIds.size(); from += batchSize) {
+            List<Long> chunk = dueOrderIds.subList(from, Math.min(from + batchSize, dueOrderIds.size()));
             try {
-                orderService.cancelTimeoutOrder(order.getId());
-                log.info("超时订单已取消: orderId={}, orderNumber={}", order.getId(), order.getOrderNumber());
+                cancelled += orderService.cancelTimeoutOrders(chunk);
+                chunk.forEach(deadlines::remove);
             } catch (Exception e) {
-                log.error("取消超时订单失败: orderId={}, orderNumber={}",
-                        order.getId(), order.getOrderNumber(), e);
+                log.error("批量取消超时订单失败，稍后重试: orderIds={}", chunk, e);
+                for (Long failedOrderId : chunk) {
+                    deadlines.put(failedOrderId, now + RETRY_DELAY_MS);
+                    pendingOrders.offer(failedOrderId);
+                }
             }
         }
+        long costMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        log.info("超时订单处理完成: due={}, cancelled={}, costMs={}, ordersPerSecond={}",
+                dueOrderIds.size(), cancelled, costMs, cancelled * 1000L / costMs);
+    }
+
+    /**
+     * 认领已超时且不在任何节点处理中的任务并取消对应订单；取消失败的任务在租约过期后被重新认领
+     */
+    @Scheduled(fixedDelayString = "${order.timeout-claim-interval-ms:10000}")
+    public void claimOverdue() {
+        int claimed;
+        do {
+            claimed = orderTimeoutTaskMapper.claimOverdue(nodeId, claimGraceSeconds, claimLeaseSeconds, batchSize);
+            if (claimed == 0) {
+                return;
+            }
+            List<Long> orderIds = orderTimeoutTaskMapper.selectClaimedOrderIds(nodeId);
+            if (orderIds.isEmpty()) {
+                return;
+            }
+            try {
+                int cancelled = orderService.cancelTimeoutOrders(orderIds);
+                orderIds.forEach(deadlines::remove);
+                log.info("认领超时任务处理完成: claimed={}, cancelled={}", orderIds.size(), cancelled);
+            } catch (Exception e) {
+                log.error("认领的超时订单取消失败，租约过期后重新认领: orderIds={}", orderIds, e);
+                return;
+            }
+        } while (claimed == batchSize);
+    }
+
+    private void schedule(Long orderId, LocalDateTime timeoutTime) {
+        long deadline = timeoutTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        deadlines.put(orderId, deadline);
+        pendingOrders.offer(orderId);
     }
 }
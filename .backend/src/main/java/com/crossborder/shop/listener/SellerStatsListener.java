@@ -0,0 +1,65 @@
+package com.crossborder.shop.listener;
+
+import com.crossborder.shop.event.OrderCreatedEvent;
+import com.crossborder.shop.event.OrderStatusChangedEvent;
+import com.crossborder.shop.service.SellerStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+
+/**
+ * 卖家每日统计维护任务
+ * 订单事件在事务提交后交给统计服务缓冲，订单事务内不访问汇总表；
+ * 每日凌晨从订单表重建最近几天已结束的日期，修正崩溃丢失的缓冲增量和直接改库等绕过事件的变更
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SellerStatsListener {
+
+    private final SellerStatsService sellerStatsService;
+
+    @Value("${stats.seller.rebuild-days:2}")
+    private int rebuildDays;
+
+    /**
+     * 启动时汇总表为空则补建历史
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        sellerStatsService.backfillIfEmpty();
+    }
+
+    @TransactionalEventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        sellerStatsService.recordOrderCreated(event.getOrderId());
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        sellerStatsService.recordStatusChanged(event.getOrderId(), event.getFromStatus(), event.getToStatus());
+    }
+
+    /**
+     * 重建最近几天（不含当天）的每日统计
+     */
+    @Scheduled(cron = "${stats.seller.rebuild-cron:0 15 0 * * ?}")
+    public void rebuildRecent() {
+        LocalDate today = LocalDate.now();
+        try {
+            sellerStatsService.backfill(today.minusDays(rebuildDays), today.minusDays(1));
+        } catch (Exception e) {
+            log.error("卖家每日统计重建失败", e);
+        }
+    }
+}
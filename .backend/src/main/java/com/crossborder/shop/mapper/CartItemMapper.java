@@ -1,9 +1,11 @@
 package com.crossborder.shop.mapper;
 
 import com.crossborder.shop.entity.CartItem;
+import com.crossborder.shop.vo.CartSummaryVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,6 +27,11 @@ public interface CartItemMapper {
      */
     List<CartItem> selectByCartId(@Param("cartId") Long cartId);
 
+    /**
+     * 汇总用户购物车的明细条数、商品总数和总价（已删除的商品不计入）
+     */
+    CartSummaryVO selectSummaryByUserId(@Param("userId") Long userId);
+
     /**
      * 根据购物车ID和商品ID查询明细
      */
@@ -32,15 +39,31 @@ public interface CartItemMapper {
             @Param("productId") Long productId,
             @Param("skuId") Long skuId);
 
+    /**
+     * 批量查询用户的购物车明细
+     */
+    List<CartItem> selectByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
     /**
      * 查询选中的商品明�?
      */
     List<CartItem> selectSelectedByCartId(@Param("cartId") Long cartId);
 
     /**
-     * 插入或更新购物车明细
+     * 累加已有明细的数量（单条语句原子累加，已删除的明细重新启用）
+     *
+     * @param cartItem    明细（userId、productId、skuId、quantity）
+     * @param maxQuantity 累加后的数量上限
+     * @return 影响行数，明细不存在或累加后超过上限时为0
+     */
+    int increaseQuantity(@Param("item") CartItem cartItem, @Param("maxQuantity") int maxQuantity);
+
+    /**
+     * 插入购物车明细（明细已存在时忽略）
+     *
+     * @return 影响行数，用户购物车不存在或明细已存在时为0
      */
-    int insertOrUpdate(CartItem cartItem);
+    int insertIgnore(CartItem cartItem);
 
     /**
      * 插入购物车明�?
@@ -52,11 +75,26 @@ public interface CartItemMapper {
      */
     int updateById(CartItem cartItem);
 
+    /**
+     * 批量更新明细数量和选中状态（按id和userId匹配）
+     */
+    int batchUpdateState(@Param("items") List<CartItem> items);
+
     /**
      * 根据ID删除
      */
     int deleteById(@Param("id") Long id);
 
+    /**
+     * 批量删除用户的购物车明细
+     */
+    int deleteByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * 删除用户购物车中选中的明细
+     */
+    int deleteSelectedByUserId(@Param("userId") Long userId);
+
     /**
      * 根据购物车ID和商品ID删除
      */
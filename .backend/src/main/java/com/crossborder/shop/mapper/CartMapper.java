@@ -23,6 +23,11 @@ public interface CartMapper {
      */
     int insert(Cart cart);
 
+    /**
+     * 用户购物车不存在时创建（已存在时忽略）
+     */
+    int insertIgnore(@Param("userId") Long userId);
+
     /**
      * 更新购物�?
      */
@@ -32,6 +32,13 @@ public interface ExchangeRateMapper {
      */
     ExchangeRate selectByPair(@Param("fromCurrency") String fromCurrency, @Param("toCurrency") String toCurrency);
 
+    /**
+     * 查询全部汇率（加载内存汇率矩阵）
+     *
+     * @return 汇率列表
+     */
+    List<ExchangeRate> selectAll();
+
     /**
      * 分页查询汇率
      *
@@ -4,6 +4,9 @@ import com.crossborder.shop.entity.OrderAddress;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 订单地址Mapper接口
  *
@@ -18,6 +21,11 @@ public interface OrderAddressMapper {
      */
     OrderAddress selectByOrderId(@Param("orderId") Long orderId);
 
+    /**
+     * 根据订单ID批量查询地址
+     */
+    List<OrderAddress> selectByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
     /**
      * 插入订单地址
      */
@@ -0,0 +1,42 @@
+package com.crossborder.shop.mapper;
+
+import com.crossborder.shop.entity.OrderIdempotency;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * 下单幂等记录Mapper接口
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Mapper
+public interface OrderIdempotencyMapper {
+
+    /**
+     * 插入幂等记录（user_id + idempotency_key唯一，重复时抛出DuplicateKeyException）
+     */
+    int insert(OrderIdempotency record);
+
+    /**
+     * 回填幂等记录对应的订单ID
+     */
+    int updateOrderId(@Param("userId") Long userId, @Param("idempotencyKey") String idempotencyKey,
+            @Param("orderId") Long orderId);
+
+    /**
+     * 根据幂等键查询已创建的订单ID
+     */
+    Long selectOrderId(@Param("userId") Long userId, @Param("idempotencyKey") String idempotencyKey);
+
+    /**
+     * 删除过期的幂等记录
+     *
+     * @param before 创建时间早于该时间的记录
+     * @param limit  单次删除上限
+     * @return 删除行数
+     */
+    int deleteExpired(@Param("before") LocalDateTime before, @Param("limit") Integer limit);
+}
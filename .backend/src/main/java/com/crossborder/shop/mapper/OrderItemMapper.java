@@ -4,6 +4,7 @@ import com.crossborder.shop.entity.OrderItem;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,6 +21,11 @@ public interface OrderItemMapper {
      */
     List<OrderItem> selectByOrderId(@Param("orderId") Long orderId);
 
+    /**
+     * 根据订单ID批量查询明细列表
+     */
+    List<OrderItem> selectByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
     /**
      * 插入订单明细
      */
@@ -5,6 +5,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,6 +22,11 @@ public interface OrderMapper {
      */
     Order selectById(@Param("id") Long id);
 
+    /**
+     * 根据ID批量查询
+     */
+    List<Order> selectByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * 根据订单号查�?
      */
@@ -36,6 +42,22 @@ public interface OrderMapper {
      */
     List<Order> selectBySellerId(@Param("sellerId") Long sellerId, @Param("orderStatus") Integer orderStatus);
 
+    /**
+     * 游标分页查询订单列表（按创建时间、ID倒序）
+     *
+     * @param buyerId    买家ID（与sellerId二选一）
+     * @param sellerId   卖家ID（与buyerId二选一）
+     * @param cursorTime 上一页最后一行的创建时间，第一页为null
+     * @param cursorId   上一页最后一行的ID，第一页为null
+     * @param limit      查询条数
+     */
+    List<Order> selectCursorList(@Param("buyerId") Long buyerId,
+            @Param("sellerId") Long sellerId,
+            @Param("orderStatus") Integer orderStatus,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit);
+
     /**
      * 插入订单
      */
@@ -46,6 +68,24 @@ public interface OrderMapper {
      */
     int updateById(Order order);
 
+    /**
+     * 条件迁移订单状态：仅当订单仍处于源状态时更新，同时写入changes中的非null字段并递增版本号
+     *
+     * @param id         订单ID
+     * @param fromStatus 源状态
+     * @param toStatus   目标状态
+     * @param buyerId    限定买家ID，可为null
+     * @param sellerId   限定卖家ID，可为null
+     * @param changes    随状态一起更新的字段，可为null
+     * @return 更新行数，0表示订单不存在、不属于该用户或状态已变化
+     */
+    int transitStatus(@Param("id") Long id,
+            @Param("fromStatus") Integer fromStatus,
+            @Param("toStatus") Integer toStatus,
+            @Param("buyerId") Long buyerId,
+            @Param("sellerId") Long sellerId,
+            @Param("changes") Order changes);
+
     /**
      * 更新订单状�?
      */
@@ -55,4 +95,16 @@ public interface OrderMapper {
      * 查询超时未支付的待付款订单
      */
     List<Order> selectExpiredPendingOrders(@Param("deadline") LocalDateTime deadline);
+
+    /**
+     * 锁定仍处于待支付状态的订单，返回其ID
+     */
+    List<Long> selectPendingIdsForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 批量取消待支付订单（仅更新仍为待支付状态的订单）
+     *
+     * @return 实际取消的订单数
+     */
+    int batchCancelPending(@Param("ids") Collection<Long> ids, @Param("cancelReason") String cancelReason);
 }
@@ -0,0 +1,62 @@
+package com.crossborder.shop.mapper;
+
+import com.crossborder.shop.entity.OrderTimeoutTask;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 订单超时任务Mapper接口
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Mapper
+public interface OrderTimeoutTaskMapper {
+
+    /**
+     * 插入超时任务
+     */
+    int insert(OrderTimeoutTask task);
+
+    /**
+     * 认领已超时且未被其他节点持有（或租约已过期）的待处理任务，按超时时间顺序走(status, timeout_time)索引
+     *
+     * @param owner        认领节点
+     * @param graceSeconds 超时后留给创建节点时间轮处理的宽限秒数
+     * @param leaseSeconds 租约秒数
+     * @param limit        最多认领条数
+     * @return 认领条数
+     */
+    int claimOverdue(@Param("owner") String owner, @Param("graceSeconds") Integer graceSeconds,
+            @Param("leaseSeconds") Integer leaseSeconds, @Param("limit") Integer limit);
+
+    /**
+     * 查询本节点持有且租约未过期的待处理任务的订单ID
+     */
+    List<Long> selectClaimedOrderIds(@Param("owner") String owner);
+
+    /**
+     * 结束待处理任务
+     *
+     * @param orderId 订单ID
+     * @param status  目标状态：1-已处理，2-已取消
+     * @return 更新行数，任务不存在或已结束时为0
+     */
+    int finish(@Param("orderId") Long orderId, @Param("status") Integer status);
+
+    /**
+     * 批量结束待处理任务
+     */
+    int batchFinish(@Param("orderIds") Collection<Long> orderIds, @Param("status") Integer status);
+
+    /**
+     * 为尚无超时任务的待支付订单补建任务（扫描订单表，仅升级后首次部署时执行）
+     *
+     * @param timeoutMinutes 订单超时时间（分钟）
+     * @return 补建任务数
+     */
+    int backfillPendingOrders(@Param("timeoutMinutes") Integer timeoutMinutes);
+}
@@ -5,7 +5,10 @@ import com.crossborder.shop.vo.ProductVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 商品Mapper接口
@@ -36,6 +39,45 @@ public interface ProductMapper {
          */
         Product selectById(@Param("id") Long id);
 
+        /**
+         * 根据ID批量查询并锁定商品（下单扣减库存时使用）
+         */
+        List<Product> selectByIdsForUpdate(@Param("ids") Collection<Long> ids);
+
+        /**
+         * 根据ID批量查询商品
+         */
+        List<Product> selectByIds(@Param("ids") Collection<Long> ids);
+
+        /**
+         * 根据ID批量查询商品视图（顺序不保证，由调用方按需重排）
+         */
+        List<ProductVO> selectVOByIds(@Param("ids") Collection<Long> ids);
+
+        /**
+         * 查询构建搜索索引所需的商品字段
+         *
+         * @param updatedSince 为null时查询全部未删除商品；否则查询该时间之后变更的商品（含已删除）
+         */
+        List<Product> selectSearchDocuments(@Param("updatedSince") LocalDateTime updatedSince);
+
+        /**
+         * 同步冗余主图URL
+         *
+         * @param mainImage 主图URL，商品没有图片时为null
+         */
+        int updateMainImage(@Param("id") Long id, @Param("mainImage") String mainImage);
+
+        /**
+         * 批量查询商品版本号（只填充id和version，已删除的商品不返回）
+         */
+        List<Product> selectVersions(@Param("ids") Collection<Long> ids);
+
+        /**
+         * 查询已上架的热销商品（热点库存引擎托管）
+         */
+        List<Product> selectHotProducts();
+
         /**
          * 查询商品详情VO
          */
@@ -51,6 +93,24 @@ public interface ProductMapper {
                         @Param("sortBy") String sortBy,
                         @Param("sortOrder") String sortOrder);
 
+        /**
+         * 游标分页查询商品列表
+         *
+         * @param cursorValue 上一页最后一行的排序值，第一页为null
+         * @param cursorId    上一页最后一行的ID，第一页为null
+         * @param asc         是否升序（按创建时间排序时固定降序）
+         * @param limit       查询条数
+         */
+        List<ProductVO> selectCursorList(@Param("categoryId") Long categoryId,
+                        @Param("status") Integer status,
+                        @Param("sellerId") Long sellerId,
+                        @Param("keyword") String keyword,
+                        @Param("sortBy") String sortBy,
+                        @Param("asc") boolean asc,
+                        @Param("cursorValue") Object cursorValue,
+                        @Param("cursorId") Long cursorId,
+                        @Param("limit") int limit);
+
         /**
          * 乐观锁扣减库存
          */
@@ -58,11 +118,34 @@ public interface ProductMapper {
                         @Param("quantity") Integer quantity,
                         @Param("version") Integer version);
 
+        /**
+         * 批量扣减库存（单条条件更新，库存不足的行不会被更新）
+         *
+         * @param quantities 商品ID -> 扣减数量
+         * @return 实际扣减成功的行数
+         */
+        int batchDecreaseStock(@Param("quantities") Map<Long, Integer> quantities);
+
+        /**
+         * 批量回写库存变更（热点库存引擎使用，扣减超过现有库存的行不会被更新）
+         *
+         * @param deltas 商品ID -> 扣减数量（负数表示归还）
+         * @return 实际更新的行数
+         */
+        int batchAdjustStock(@Param("deltas") Map<Long, Integer> deltas);
+
         /**
          * 增加库存（取消订单时）
          */
         int increaseStock(@Param("id") Long id, @Param("quantity") Integer quantity);
 
+        /**
+         * 批量增加库存（批量取消订单时）
+         *
+         * @param quantities 商品ID -> 增加数量
+         */
+        int batchIncreaseStock(@Param("quantities") Map<Long, Integer> quantities);
+
         /**
          * 增加销量
          */
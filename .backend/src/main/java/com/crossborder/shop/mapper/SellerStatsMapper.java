@@ -1,9 +1,12 @@
 package com.crossborder.shop.mapper;
 
+import com.crossborder.shop.entity.SellerDailyStats;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 卖家统计Mapper
@@ -25,37 +28,33 @@ public interface SellerStatsMapper {
     long countActiveProducts(@Param("sellerId") Long sellerId);
 
     /**
-     * 统计卖家订单总数
+     * 卖家统计汇总行：statDate为null的一行是全部日期的合计，其余为monthStart起每天的行
      */
-    long countTotalOrders(@Param("sellerId") Long sellerId);
+    List<SellerDailyStats> selectSummaryRows(@Param("sellerId") Long sellerId,
+                                             @Param("monthStart") LocalDate monthStart);
 
     /**
-     * 统计卖家待发货订单数
+     * 批量累加每日统计增量，当天没有记录时插入
      */
-    long countPendingOrders(@Param("sellerId") Long sellerId);
+    int batchIncrementDaily(@Param("deltas") List<SellerDailyStats> deltas);
 
     /**
-     * 统计卖家已完成订单数
+     * 删除[from, to]内的每日统计
      */
-    long countCompletedOrders(@Param("sellerId") Long sellerId);
+    int deleteDaily(@Param("from") LocalDate from, @Param("to") LocalDate to);
 
     /**
-     * 统计卖家总销售额
+     * 从订单表重新汇总[from, to)内的每日统计
      */
-    BigDecimal sumTotalRevenue(@Param("sellerId") Long sellerId);
+    int insertDailyFromOrders(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     /**
-     * 统计卖家今日销售额
+     * 是否已有每日统计
      */
-    BigDecimal sumRevenueToday(@Param("sellerId") Long sellerId);
+    boolean existsDaily();
 
     /**
-     * 统计卖家本月销售额
+     * 最早的下单日期，没有订单时为null
      */
-    BigDecimal sumRevenueThisMonth(@Param("sellerId") Long sellerId);
-
-    /**
-     * 统计卖家销售总数
-     */
-    long countTotalSales(@Param("sellerId") Long sellerId);
+    LocalDate selectEarliestOrderDate();
 }
@@ -20,6 +20,11 @@ public interface SystemConfigMapper {
      */
     List<SystemConfig> selectAll();
 
+    /**
+     * 查询配置表版本（行数、最后修改时间与内容校验和），用于判断配置是否变化
+     */
+    String selectVersion();
+
     /**
      * 根据配置键查询
      */
@@ -1,8 +1,11 @@
 package com.crossborder.shop.mapper;
 
+import com.crossborder.shop.entity.PlatformDailyStats;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 /**
  * 系统统计Mapper
@@ -17,7 +20,10 @@ public interface SystemStatsMapper {
 
     long countActiveUsers();
 
-    long countNewUsersToday();
+    /**
+     * 统计注册时间在[from, to)内的用户数
+     */
+    long countNewUsers(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     long countTotalProducts();
 
@@ -29,5 +35,13 @@ public interface SystemStatsMapper {
 
     BigDecimal sumTotalRevenue();
 
-    BigDecimal sumRevenueToday();
+    /**
+     * 统计支付时间在[from, to)内的营收
+     */
+    BigDecimal sumRevenue(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * 写入或覆盖每日统计汇总
+     */
+    int upsertDailyStats(PlatformDailyStats stats);
 }
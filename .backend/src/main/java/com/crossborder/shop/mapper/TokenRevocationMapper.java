@@ -0,0 +1,38 @@
+package com.crossborder.shop.mapper;
+
+import com.crossborder.shop.entity.TokenRevocation;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Token吊销记录Mapper接口
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Mapper
+public interface TokenRevocationMapper {
+
+    /**
+     * 插入吊销记录
+     */
+    int insert(TokenRevocation revocation);
+
+    /**
+     * 查询未失效的吊销记录
+     *
+     * @param since 创建时间下限（含），为null时查询全部
+     * @return 吊销记录（按创建时间升序）
+     */
+    List<TokenRevocation> selectActiveSince(@Param("since") LocalDateTime since);
+
+    /**
+     * 清理已失效的吊销记录
+     *
+     * @return 删除行数
+     */
+    int deleteExpired();
+}
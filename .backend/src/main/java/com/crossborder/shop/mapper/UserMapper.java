@@ -2,9 +2,11 @@ package com.crossborder.shop.mapper;
 
 import com.crossborder.shop.entity.Role;
 import com.crossborder.shop.entity.User;
+import com.crossborder.shop.entity.UserRole;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -48,6 +50,25 @@ public interface UserMapper {
      */
     int updateById(User user);
 
+    /**
+     * 更新密码哈希
+     *
+     * @param id               用户ID
+     * @param password         新密码哈希
+     * @param expectedPassword 期望的当前密码哈希，不为null时仅在未被并发修改时更新
+     * @return 影响行数
+     */
+    int updatePassword(@Param("id") Long id, @Param("password") String password,
+            @Param("expectedPassword") String expectedPassword);
+
+    /**
+     * 批量更新最后登录时间和IP
+     *
+     * @param users 用户ID、最后登录时间、最后登录IP
+     * @return 影响行数
+     */
+    int batchUpdateLastLogin(@Param("users") List<User> users);
+
     /**
      * 删除用户（逻辑删除�?
      *
@@ -64,6 +85,21 @@ public interface UserMapper {
      */
     List<Role> selectRolesByUserId(@Param("userId") Long userId);
 
+    /**
+     * 查询全部角色（角色目录，含已删除角色）
+     *
+     * @return 角色列表
+     */
+    List<Role> selectAllRoles();
+
+    /**
+     * 批量查询用户角色关联
+     *
+     * @param userIds 用户ID集合
+     * @return 用户角色关联
+     */
+    List<UserRole> selectUserRoles(@Param("userIds") Collection<Long> userIds);
+
     /**
      * 插入用户角色关联
      *
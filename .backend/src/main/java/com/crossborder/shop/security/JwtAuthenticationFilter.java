@@ -2,6 +2,7 @@ package com.crossborder.shop.security;
 
 import com.crossborder.shop.common.Result;
 import com.crossborder.shop.common.ResultCode;
+import com.crossborder.shop.service.TokenRevocationService;
 import com.crossborder.shop.util.JwtUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
@@ -18,7 +19,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * JWT 认证过滤器
@@ -33,6 +33,7 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
@@ -53,21 +54,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 从请求头中获取 Token
             String token = jwtUtil.getTokenFromRequest(request);
 
-            // 校验 Token
-            if (StringUtils.hasText(token) && jwtUtil.validateToken(token)) {
-                // 解析用户名
-                String username = jwtUtil.getUsernameFromToken(token);
+            if (StringUtils.hasText(token)) {
+                // 一次验签得到全部声明
+                JwtUtil.VerifiedToken verified = jwtUtil.verify(token);
+                if (verified == null || tokenRevocationService.isRevoked(verified)) {
+                    // Token 存在但验证失败（过期、无法解析或已吊销），返回 1007 错误码，由前端刷新或重新登录
+                    log.warn("Token已过期，返回1007错误码");
+                    sendTokenExpiredResponse(response);
+                    return;
+                }
 
                 // 判断 Token 类型是否为 AccessToken
-                String tokenType = jwtUtil.getTokenTypeFromToken(token);
-                if ("access".equals(tokenType)) {
-                    Long userId = jwtUtil.getUserIdFromToken(token);
-                    List<String> roleCodes = jwtUtil.getRoleCodesFromToken(token);
+                if (verified.isAccessToken()) {
                     UserPrincipal userPrincipal = new UserPrincipal(
-                            userId,
-                            username,
+                            verified.getUserId(),
+                            verified.getUsername(),
                             "",
-                            roleCodes,
+                            verified.getRoleCodes(),
                             true,
                             false);
 
@@ -81,15 +84,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     // 设置到 SecurityContext
                     SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                    log.debug("JWT 认证成功: {}", username);
-                }
-            } else if (StringUtils.hasText(token)) {
-                // Token 存在但验证失败，检查是否过期
-                if (isTokenExpired(token)) {
-                    // Token 已过期，返回 1007 错误码
-                    log.warn("Token已过期，返回1007错误码");
-                    sendTokenExpiredResponse(response);
-                    return;
+                    log.debug("JWT 认证成功: {}", verified.getUsername());
                 }
             }
         } catch (Exception e) {
@@ -99,13 +94,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    /**
-     * 检查 Token 是否已过期
-     */
-    private boolean isTokenExpired(String token) {
-        return jwtUtil.isTokenExpired(token);
-    }
-
     /**
      * 发送 Token 已过期的响应
      */
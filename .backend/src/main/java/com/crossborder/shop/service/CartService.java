@@ -1,7 +1,9 @@
 package com.crossborder.shop.service;
 
 import com.crossborder.shop.dto.AddCartDTO;
+import com.crossborder.shop.dto.CartBatchDTO;
 import com.crossborder.shop.dto.UpdateCartItemDTO;
+import com.crossborder.shop.vo.CartSummaryVO;
 import com.crossborder.shop.vo.CartVO;
 
 /**
@@ -27,6 +29,11 @@ public interface CartService {
      */
     void removeCartItem(Long userId, Long itemId);
 
+    /**
+     * 批量操作购物车（添加、更新、删除在同一事务中执行）
+     */
+    void batchUpdateCart(Long userId, CartBatchDTO dto);
+
     /**
      * 清空购物车
      */
@@ -37,6 +44,21 @@ public interface CartService {
      */
     CartVO getCart(Long userId);
 
+    /**
+     * 获取购物车汇总（明细条数、商品总数、总价），优先读取本地缓存
+     */
+    CartSummaryVO getCartSummary(Long userId);
+
+    /**
+     * 直接修改购物车数据后失效汇总缓存和内存购物车（在事务中调用时事务结束后再失效一次）
+     */
+    void evictCartCache(Long userId);
+
+    /**
+     * 写回模式下立即回写该用户尚未落库的购物车变更（下单读取购物车前调用）
+     */
+    void flushPendingChanges(Long userId);
+
     /**
      * 更新全选/取消全选
      */
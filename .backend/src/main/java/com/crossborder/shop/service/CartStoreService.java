@@ -0,0 +1,87 @@
+package com.crossborder.shop.service;
+
+import com.crossborder.shop.entity.CartItem;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 购物车写回存储
+ * 启用后活跃用户的购物车明细保存在本地内存，数量、选中状态的修改和删除先写内存与追加日志，
+ * 按用户合并后定期批量回写tb_cart_item；多节点部署时需按用户会话粘滞路由
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface CartStoreService {
+
+    /**
+     * 是否启用写回模式
+     */
+    boolean isEnabled();
+
+    /**
+     * 查询用户购物车明细（按加入时间倒序的副本）
+     *
+     * @param userId 用户ID
+     * @return 明细列表，用户没有购物车时返回null
+     */
+    List<CartItem> getItems(Long userId);
+
+    /**
+     * 查询用户的单条购物车明细
+     *
+     * @param userId 用户ID
+     * @param itemId 明细ID
+     * @return 明细副本，不存在时返回null
+     */
+    CartItem getItem(Long userId, Long itemId);
+
+    /**
+     * 修改明细数量和选中状态
+     *
+     * @param quantity 数量，为null时不修改
+     * @param selected 选中状态，为null时不修改
+     * @return 明细不存在时返回false
+     */
+    boolean updateItem(Long userId, Long itemId, Integer quantity, Boolean selected);
+
+    /**
+     * 累加内存购物车中已有明细的数量，累加后超过maxQuantity时抛出库存不足且不修改
+     *
+     * @return 购物车中没有该商品/SKU时返回false，由调用方直接写库加入
+     */
+    boolean addQuantity(Long userId, Long productId, Long skuId, int quantity, int maxQuantity);
+
+    /**
+     * 修改全部明细的选中状态
+     */
+    void updateAllSelected(Long userId, boolean selected);
+
+    /**
+     * 删除明细
+     */
+    void removeItems(Long userId, Collection<Long> itemIds);
+
+    /**
+     * 删除选中的明细
+     */
+    void removeSelected(Long userId);
+
+    /**
+     * 删除全部明细
+     */
+    void removeAll(Long userId);
+
+    /**
+     * 丢弃用户的内存购物车（直接修改数据库后调用），下次访问时从数据库重新加载
+     */
+    void invalidate(Long userId);
+
+    /**
+     * 立即将该用户未回写的变更写入数据库，不等待其他用户的回写
+     *
+     * @param userId 用户ID
+     */
+    void flush(Long userId);
+}
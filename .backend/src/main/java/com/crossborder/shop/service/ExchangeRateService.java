@@ -73,4 +73,13 @@ public interface ExchangeRateService {
      * @return 汇率
      */
     BigDecimal getExchangeRate(String fromCurrency, String toCurrency);
+
+    /**
+     * 根据币种对获取汇率（直接汇率不存在时经由中间货币换算）
+     *
+     * @param fromCurrency 源货币代码
+     * @param toCurrency   目标货币代码
+     * @return 汇率，无法换算时返回null
+     */
+    BigDecimal findExchangeRate(String fromCurrency, String toCurrency);
 }
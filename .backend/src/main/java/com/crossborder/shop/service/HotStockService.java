@@ -0,0 +1,66 @@
+package com.crossborder.shop.service;
+
+import com.crossborder.shop.entity.Product;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 热点商品库存服务
+ * 对标记为热销（is_hot=1）且已上架的商品在内存中扣减库存，再批量异步回写数据库
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface HotStockService {
+
+    /**
+     * 商品库存是否由内存引擎托管
+     *
+     * @param productId 商品ID
+     * @return 是否托管
+     */
+    boolean isManaged(Long productId);
+
+    /**
+     * 热销商品是否只能由内存引擎扣减库存
+     * 集群中有节点开启引擎时，本节点未托管的热销商品（非引擎节点，或引擎节点重新加载期间）
+     * 不能走数据库扣减，否则与托管节点的内存库存各扣各的会超卖
+     *
+     * @param product 商品
+     * @return 是否应拒绝数据库扣减
+     */
+    boolean isReservedForEngine(Product product);
+
+    /**
+     * 批量扣减托管商品库存（全部成功或全部失败）
+     * 在事务中调用时，事务回滚会自动归还已扣减的库存
+     *
+     * @param quantities 商品ID -> 扣减数量
+     * @return 库存不足的商品ID，全部成功时为空列表
+     */
+    List<Long> tryDeduct(Map<Long, Integer> quantities);
+
+    /**
+     * 归还托管商品库存
+     * 在事务中调用时，事务提交后才真正归还
+     *
+     * @param productId 商品ID
+     * @param quantity  归还数量
+     * @return 商品未被托管时返回false，调用方应直接更新数据库
+     */
+    boolean release(Long productId, Integer quantity);
+
+    /**
+     * 商品信息变更后重新加载托管状态
+     * 先回写并移除内存库存，事务提交后按最新数据重新托管
+     *
+     * @param productId 商品ID
+     */
+    void refresh(Long productId);
+
+    /**
+     * 立即将内存中的库存变更回写数据库
+     */
+    void flush();
+}
@@ -0,0 +1,29 @@
+package com.crossborder.shop.service;
+
+/**
+ * 登录限流服务
+ * 客户端IP的令牌桶每次登录请求都消耗，在查询用户和校验密码之前拒绝超限的请求；
+ * 用户名的令牌桶按（用户名, IP）区分且只在登录失败时消耗，
+ * 其他IP上的错误尝试不会锁住该用户，密码正确的登录也不计入
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface LoginLimitService {
+
+    /**
+     * 登录准入，IP超限或该IP上此用户名的失败次数超限时抛出TOO_MANY_REQUESTS
+     *
+     * @param clientIp 客户端IP，可为null
+     * @param username 用户名
+     */
+    void acquire(String clientIp, String username);
+
+    /**
+     * 记录一次登录失败（用户不存在或密码错误），消耗（用户名, IP）的令牌
+     *
+     * @param clientIp 客户端IP，可为null
+     * @param username 用户名
+     */
+    void recordFailure(String clientIp, String username);
+}
@@ -0,0 +1,25 @@
+package com.crossborder.shop.service;
+
+/**
+ * 登录记录服务
+ * 登录成功后的最后登录时间和IP先写入内存缓冲（同一用户只保留最近一次），
+ * 由后台定时批量回写tb_user，不占用登录请求的数据库写入；进程异常退出时可能丢失最近几秒的记录
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface LoginRecordService {
+
+    /**
+     * 记录一次成功登录
+     *
+     * @param userId   用户ID
+     * @param clientIp 客户端IP
+     */
+    void record(Long userId, String clientIp);
+
+    /**
+     * 立即回写缓冲中的登录记录
+     */
+    void flush();
+}
@@ -0,0 +1,24 @@
+package com.crossborder.shop.service;
+
+import java.util.function.Supplier;
+
+/**
+ * 下单幂等服务
+ * 同一用户相同Idempotency-Key的重复提交只创建一次订单，重放时直接返回原订单ID
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface OrderIdempotencyService {
+
+    /**
+     * 按幂等键提交下单
+     * 已有结果时直接返回；本节点有相同幂等键的请求正在执行时等待其结果，不重复执行
+     *
+     * @param userId         用户ID
+     * @param idempotencyKey 幂等键
+     * @param action         实际下单操作，需在同一事务中登记幂等记录
+     * @return 订单ID
+     */
+    Long submit(Long userId, String idempotencyKey, Supplier<Long> action);
+}
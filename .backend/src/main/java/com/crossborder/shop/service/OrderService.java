@@ -1,5 +1,6 @@
 package com.crossborder.shop.service;
 
+import com.crossborder.shop.common.PageResult;
 import com.crossborder.shop.dto.CreateOrderDTO;
 import com.crossborder.shop.dto.OrderShipDTO;
 import com.crossborder.shop.vo.OrderVO;
@@ -23,6 +24,18 @@ public interface OrderService {
      */
     Long createOrder(Long userId, CreateOrderDTO dto);
 
+    /**
+     * 创建订单并登记幂等键
+     * 幂等记录与订单在同一事务中提交，其他节点并发提交相同幂等键时会在唯一键上等待，
+     * 本事务提交后抛出DuplicateKeyException
+     *
+     * @param userId         用户ID
+     * @param dto            创建订单DTO
+     * @param idempotencyKey 幂等键，为null时不登记
+     * @return 订单ID
+     */
+    Long createOrder(Long userId, CreateOrderDTO dto, String idempotencyKey);
+
     /**
      * 取消超时订单
      * 
@@ -30,6 +43,14 @@ public interface OrderService {
      */
     void cancelTimeoutOrder(Long orderId);
 
+    /**
+     * 批量取消超时订单
+     *
+     * @param orderIds 订单ID列表
+     * @return 实际取消的订单数
+     */
+    int cancelTimeoutOrders(List<Long> orderIds);
+
     /**
      * 买家取消订单
      * 
@@ -80,20 +101,46 @@ public interface OrderService {
     OrderVO getOrderByNumber(String orderNumber);
 
     /**
-     * 查询买家订单列表
+     * 分页查询买家订单列表
      * 
      * @param buyerId     买家ID
      * @param orderStatus 订单状态（可选）
-     * @return 订单列表
+     * @param pageNum     页码
+     * @param pageSize    每页数量
+     * @return 订单分页列表
      */
-    List<OrderVO> getBuyerOrders(Long buyerId, Integer orderStatus);
+    PageResult<OrderVO> getBuyerOrders(Long buyerId, Integer orderStatus, int pageNum, int pageSize);
 
     /**
-     * 查询卖家订单列表
+     * 分页查询卖家订单列表
      * 
      * @param sellerId    卖家ID
      * @param orderStatus 订单状态（可选）
-     * @return 订单列表
+     * @param pageNum     页码
+     * @param pageSize    每页数量
+     * @return 订单分页列表
+     */
+    PageResult<OrderVO> getSellerOrders(Long sellerId, Integer orderStatus, int pageNum, int pageSize);
+
+    /**
+     * 游标分页查询买家订单列表（不统计总数）
+     *
+     * @param buyerId     买家ID
+     * @param orderStatus 订单状态（可选）
+     * @param cursor      上一页返回的nextCursor，为空表示第一页
+     * @param pageSize    每页数量
+     * @return 订单列表及下一页游标
+     */
+    PageResult<OrderVO> getBuyerOrdersByCursor(Long buyerId, Integer orderStatus, String cursor, int pageSize);
+
+    /**
+     * 游标分页查询卖家订单列表（不统计总数）
+     *
+     * @param sellerId    卖家ID
+     * @param orderStatus 订单状态（可选）
+     * @param cursor      上一页返回的nextCursor，为空表示第一页
+     * @param pageSize    每页数量
+     * @return 订单列表及下一页游标
      */
-    List<OrderVO> getSellerOrders(Long sellerId, Integer orderStatus);
+    PageResult<OrderVO> getSellerOrdersByCursor(Long sellerId, Integer orderStatus, String cursor, int pageSize);
 }
@@ -0,0 +1,41 @@
+package com.crossborder.shop.service;
+
+import java.util.function.Consumer;
+
+/**
+ * 密码哈希服务
+ * BCrypt计算在专用的有界线程池中执行，请求线程只等待结果；
+ * 线程池队列已满或等待超时时快速失败，避免登录洪峰占满Tomcat请求线程
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface PasswordService {
+
+    /**
+     * 校验密码
+     *
+     * @param rawPassword     明文密码
+     * @param encodedPassword 密码哈希
+     * @return 是否匹配
+     */
+    boolean matches(String rawPassword, String encodedPassword);
+
+    /**
+     * 计算密码哈希
+     *
+     * @param rawPassword 明文密码
+     * @return 密码哈希
+     */
+    String encode(String rawPassword);
+
+    /**
+     * 密码哈希的BCrypt强度与当前配置不一致时，在后台按当前强度重新计算哈希
+     * 线程池繁忙时放弃本次升级，下次登录再试
+     *
+     * @param rawPassword     已校验通过的明文密码
+     * @param encodedPassword 当前密码哈希
+     * @param onEncoded       新哈希的回调（在哈希线程中执行）
+     */
+    void upgradeAsync(String rawPassword, String encodedPassword, Consumer<String> onEncoded);
+}
@@ -0,0 +1,36 @@
+package com.crossborder.shop.service;
+
+import com.crossborder.shop.vo.SystemStatsVO;
+
+import java.time.LocalDate;
+
+/**
+ * 平台统计服务
+ * 统计值保存在内存计数器中，由注册、下单、订单状态变更事件在事务提交后增量更新；
+ * 用户删除/禁用、商品上下架等未接入事件的变化及其他节点产生的变化由定时对账从数据库覆盖，
+ * 因此多节点部署时各节点的统计值最多滞后一个对账周期
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface PlatformStatsService {
+
+    /**
+     * 获取平台统计（读取内存计数器，不访问数据库）
+     *
+     * @return 系统统计
+     */
+    SystemStatsVO getStats();
+
+    /**
+     * 从数据库重新统计并覆盖内存计数器
+     */
+    void reconcile();
+
+    /**
+     * 汇总指定日期的平台统计到tb_platform_daily_stats（可重复执行）
+     *
+     * @param date 统计日期
+     */
+    void rollup(LocalDate date);
+}
@@ -0,0 +1,66 @@
+package com.crossborder.shop.service;
+
+import com.crossborder.shop.common.PageResult;
+import com.crossborder.shop.vo.ProductFacetPageVO;
+import com.crossborder.shop.vo.ProductVO;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 商品搜索服务
+ * 基于内存倒排索引的关键词检索，覆盖全部未删除商品；
+ * 上架商品另建分面位图索引，用于前台筛选面板的分类/品牌/价格区间/币种计数
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface ProductSearchService {
+
+    /**
+     * 关键词检索商品ID
+     *
+     * @param keyword    关键词
+     * @param categoryId 分类ID，可为null
+     * @param status     商品状态，可为null
+     * @param sellerId   卖家ID，可为null
+     * @param pageNum    页码
+     * @param pageSize   每页数量
+     * @param sortBy     排序字段：price, name，为空时按相关度
+     * @param sortOrder  排序顺序：asc, desc
+     * @return 当前页商品ID（按排序顺序）；索引尚未加载完成时返回null，调用方应回退到数据库查询
+     */
+    PageResult<Long> search(String keyword, Long categoryId, Integer status, Long sellerId,
+            int pageNum, int pageSize, String sortBy, String sortOrder);
+
+    /**
+     * 上架商品分面检索：一次返回筛选后的分页结果和各属性的分面计数。
+     * 某属性的计数应用除该属性外的全部筛选条件
+     *
+     * @param keyword    关键词，可为空
+     * @param categoryId 分类ID，可为null
+     * @param brand      品牌，可为null
+     * @param priceBand  价格区间，如50-100、1000+，可为null
+     * @param currency   币种，可为null
+     * @param pageNum    页码
+     * @param pageSize   每页数量
+     * @param sortBy     排序字段：price, name，为空时有关键词按相关度、无关键词按创建时间倒序
+     * @param sortOrder  排序顺序：asc, desc
+     * @param loader     按给定ID顺序加载商品视图
+     * @return 分面分页结果；索引尚未加载完成时返回null
+     */
+    ProductFacetPageVO facetSearch(String keyword, Long categoryId, String brand, String priceBand, String currency,
+            int pageNum, int pageSize, String sortBy, String sortOrder, Function<List<Long>, List<ProductVO>> loader);
+
+    /**
+     * 商品变更后刷新索引（在事务中调用时提交后才刷新）
+     *
+     * @param productId 商品ID
+     */
+    void refresh(Long productId);
+
+    /**
+     * 从数据库全量重建索引
+     */
+    void rebuild();
+}
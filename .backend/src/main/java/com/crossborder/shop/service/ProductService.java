@@ -2,8 +2,12 @@ package com.crossborder.shop.service;
 
 import com.crossborder.shop.common.PageResult;
 import com.crossborder.shop.dto.ProductDTO;
+import com.crossborder.shop.vo.CacheStatsVO;
+import com.crossborder.shop.vo.ProductFacetPageVO;
 import com.crossborder.shop.vo.ProductVO;
 
+import java.util.Collection;
+
 /**
  * 商品服务接口
  *
@@ -75,6 +79,33 @@ public interface ProductService {
     PageResult<ProductVO> getProductPage(Long categoryId, Integer status, Long sellerId,
             String keyword, int pageNum, int pageSize, String sortBy, String sortOrder);
 
+    /**
+     * 上架商品分面分页查询（返回当前筛选条件下的分页结果和分类/品牌/价格区间/币种计数）
+     *
+     * @param keyword    关键词
+     * @param categoryId 分类ID
+     * @param brand      品牌
+     * @param priceBand  价格区间
+     * @param currency   币种
+     * @param pageNum    页码
+     * @param pageSize   每页数量
+     * @param sortBy     排序字段：price, name
+     * @param sortOrder  排序顺序：asc, desc
+     * @return 分面分页结果
+     */
+    ProductFacetPageVO getProductFacetPage(String keyword, Long categoryId, String brand, String priceBand,
+            String currency, int pageNum, int pageSize, String sortBy, String sortOrder);
+
+    /**
+     * 游标分页查询商品列表（不统计总数）
+     *
+     * @param cursor   上一页返回的nextCursor，为空表示第一页
+     * @param pageSize 每页数量
+     * @return 商品列表及下一页游标
+     */
+    PageResult<ProductVO> getProductCursorPage(Long categoryId, Integer status, Long sellerId,
+            String keyword, String cursor, int pageSize, String sortBy, String sortOrder);
+
     /**
      * 扣减库存（乐观锁+重试�?
      *
@@ -99,6 +130,20 @@ public interface ProductService {
      */
     void deleteProductCache(Long productId);
 
+    /**
+     * 批量删除商品缓存（库存变更后调用）
+     *
+     * @param productIds 商品ID集合
+     */
+    void deleteProductCache(Collection<Long> productIds);
+
+    /**
+     * 获取商品详情缓存统计
+     *
+     * @return 缓存统计
+     */
+    CacheStatsVO getProductCacheStats();
+
     /**
      * 获取最新商品列表
      *
@@ -0,0 +1,33 @@
+package com.crossborder.shop.service;
+
+import com.crossborder.shop.entity.Role;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 角色服务
+ * 角色目录（tb_role）缓存在内存中定期刷新，用户的角色通过一次IN查询取关联后从目录解析
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface RoleService {
+
+    /**
+     * 查询用户角色
+     *
+     * @param userId 用户ID
+     * @return 角色列表（按排序号），没有角色时为空列表
+     */
+    List<Role> getRolesByUserId(Long userId);
+
+    /**
+     * 批量查询用户角色
+     *
+     * @param userIds 用户ID集合
+     * @return 用户ID -> 角色列表（按排序号），包含全部传入的用户ID
+     */
+    Map<Long, List<Role>> getRolesByUserIds(Collection<Long> userIds);
+}
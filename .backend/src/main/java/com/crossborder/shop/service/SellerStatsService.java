@@ -0,0 +1,59 @@
+package com.crossborder.shop.service;
+
+import com.crossborder.shop.vo.SellerStatsVO;
+
+import java.time.LocalDate;
+
+/**
+ * 卖家统计服务
+ * 订单类指标来自tb_seller_daily_stats：下单、支付、发货、完成、取消在订单事务提交后缓冲，
+ * 定期按卖家和事件发生日期合并后批量累加；进程崩溃丢失的增量由每日按订单表重建修正
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface SellerStatsService {
+
+    /**
+     * 获取卖家统计
+     *
+     * @param sellerId 卖家ID
+     * @return 卖家统计
+     */
+    SellerStatsVO getStats(Long sellerId);
+
+    /**
+     * 记录下单（下单事务提交后调用，只加入缓冲）
+     *
+     * @param orderId 订单ID
+     */
+    void recordOrderCreated(Long orderId);
+
+    /**
+     * 记录订单状态变更（状态变更事务提交后调用，只加入缓冲）
+     *
+     * @param orderId    订单ID
+     * @param fromStatus 变更前状态
+     * @param toStatus   变更后状态
+     */
+    void recordStatusChanged(Long orderId, Integer fromStatus, Integer toStatus);
+
+    /**
+     * 将缓冲的订单事件按卖家和日期合并后批量写入汇总表
+     */
+    void flush();
+
+    /**
+     * 从订单表重建[from, to]内的每日统计
+     * 只应重建已结束的日期，当天的行仍在增量累加；重建前先写入缓冲的增量，避免重建后再被累加一次
+     *
+     * @param from 开始日期
+     * @param to   结束日期（含）
+     */
+    void backfill(LocalDate from, LocalDate to);
+
+    /**
+     * 汇总表为空时从订单表补建全部历史
+     */
+    void backfillIfEmpty();
+}
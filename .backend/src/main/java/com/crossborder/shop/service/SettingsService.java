@@ -7,6 +7,7 @@ import com.crossborder.shop.vo.SystemSettingVO;
 import com.crossborder.shop.vo.SystemStatsVO;
 import com.crossborder.shop.vo.SellerStatsVO;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -33,5 +34,20 @@ public interface SettingsService {
 
     boolean getBooleanConfig(String key, boolean defaultValue);
 
+    /**
+     * 读取字符串配置，配置不存在时返回默认值
+     */
+    String getStringConfig(String key, String defaultValue);
+
+    /**
+     * 读取数值配置，配置不存在或不是合法数字时返回默认值
+     */
+    BigDecimal getDecimalConfig(String key, BigDecimal defaultValue);
+
+    /**
+     * 读取整数配置，配置不存在或不是合法整数时返回默认值
+     */
+    Integer getIntegerConfig(String key, Integer defaultValue);
+
     void testEmailSettings(String email);
 }
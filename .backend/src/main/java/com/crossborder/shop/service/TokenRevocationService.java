@@ -0,0 +1,44 @@
+package com.crossborder.shop.service;
+
+import com.crossborder.shop.util.JwtUtil;
+
+/**
+ * Token吊销服务
+ * 吊销记录持久化到tb_token_revocation，各节点在内存中维护未失效记录的布隆过滤器和精确集合，
+ * 并按数据库创建时间增量同步，数秒内收敛；鉴权时只做内存判断，不查询数据库
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public interface TokenRevocationService {
+
+    /**
+     * 吊销单个Token（登出）
+     * 在事务中调用时，事务提交后才在本节点生效
+     *
+     * @param token 已验签的Token，没有jti的旧Token忽略
+     */
+    void revokeToken(JwtUtil.VerifiedToken token);
+
+    /**
+     * 吊销用户当前已签发的全部Token（禁用、删除用户）
+     * 在事务中调用时，事务提交后才在本节点生效
+     *
+     * @param userId 用户ID
+     */
+    void revokeUser(Long userId);
+
+    /**
+     * Token是否已被吊销
+     * 吊销列表尚未加载成功时抛出服务不可用，不视为未吊销
+     *
+     * @param token 已验签的Token
+     * @return 是否已吊销
+     */
+    boolean isRevoked(JwtUtil.VerifiedToken token);
+
+    /**
+     * 从数据库增量同步吊销记录
+     */
+    void refresh();
+}
@@ -25,10 +25,11 @@ public interface UserService {
     /**
      * 用户登录
      *
-     * @param dto 登录信息
-     * @return 登录响应（含双Token�?
+     * @param dto      登录信息
+     * @param clientIp 客户端IP，用于登录限流
+     * @return 登录响应（含双Token）
      */
-    LoginVO login(UserLoginDTO dto);
+    LoginVO login(UserLoginDTO dto, String clientIp);
 
     /**
      * 刷新Token
@@ -39,9 +40,12 @@ public interface UserService {
     LoginVO refreshToken(String refreshToken);
 
     /**
-     * 退出登�?
+     * 退出登录，吊销传入的Token
+     *
+     * @param accessToken  当前访问令牌，可为null
+     * @param refreshToken 刷新令牌，可为null
      */
-    void logout();
+    void logout(String accessToken, String refreshToken);
 
     /**
      * 获取当前用户信息
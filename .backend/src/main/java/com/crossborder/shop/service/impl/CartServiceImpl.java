@@ -2,28 +2,51 @@ package com.crossborder.shop.service.impl;
 
 import com.crossborder.shop.common.ResultCode;
 import com.crossborder.shop.dto.AddCartDTO;
+import com.crossborder.shop.dto.CartBatchDTO;
 import com.crossborder.shop.dto.UpdateCartItemDTO;
 import com.crossborder.shop.entity.Cart;
 import com.crossborder.shop.entity.CartItem;
 import com.crossborder.shop.entity.Product;
-import com.crossborder.shop.entity.ProductImage;
 import com.crossborder.shop.exception.BusinessException;
 import com.crossborder.shop.mapper.CartItemMapper;
 import com.crossborder.shop.mapper.CartMapper;
-import com.crossborder.shop.mapper.ProductImageMapper;
 import com.crossborder.shop.mapper.ProductMapper;
 import com.crossborder.shop.service.CartService;
+import com.crossborder.shop.service.CartStoreService;
+import com.crossborder.shop.util.TinyLfuCache;
 import com.crossborder.shop.vo.CartItemVO;
+import com.crossborder.shop.vo.CartSummaryVO;
 import com.crossborder.shop.vo.CartVO;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * 购物车服务实现
+ * 购物车详情按"购物车、明细、商品批量查询"三次查询组装；购物车汇总按用户缓存在本地，
+ * 本节点的购物车变更即时失效，其他节点的变更和商品调价在缓存有效期内生效。
+ * 启用写回模式时，修改数量/选中状态、删除、清空以及累加已有商品的数量只更新CartStoreService中的内存购物车；
+ * 只有加入购物车中还没有的商品才直接写库，写库前回写该用户内存中的变更，写库后丢弃内存购物车；
+ * 下单前回写该用户的变更
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -32,160 +55,356 @@ public class CartServiceImpl implements CartService {
     private final CartMapper cartMapper;
     private final CartItemMapper cartItemMapper;
     private final ProductMapper productMapper;
-    private final ProductImageMapper productImageMapper;
+    private final CartStoreService cartStoreService;
+
+    @Value("${cart.summary-cache.maximum-size:10000}")
+    private int summaryCacheSize;
+
+    @Value("${cart.summary-cache.ttl-seconds:60}")
+    private long summaryTtlSeconds;
+
+    /**
+     * 用户ID -> 购物车汇总
+     */
+    private TinyLfuCache<Long, CachedSummary> summaryCache;
+
+    @PostConstruct
+    public void init() {
+        summaryCache = new TinyLfuCache<>(summaryCacheSize);
+    }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void addToCart(Long userId, AddCartDTO dto) {
-        // 查询商品信息
         Product product = productMapper.selectById(dto.getProductId());
-        if (product == null) {
-            throw new BusinessException(ResultCode.PRODUCT_NOT_EXISTS);
+        if (addItem(userId, dto, product)) {
+            evictCartCache(userId);
+        } else {
+            summaryCache.invalidate(userId);
         }
+    }
 
-        // 检查商品是否上架
-        if (!product.getOnShelf()) {
-            throw new BusinessException(ResultCode.PRODUCT_OFF_SHELF);
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void updateCartItem(Long userId, UpdateCartItemDTO dto) {
+        CartItem cartItem = cartStoreService.isEnabled()
+                ? cartStoreService.getItem(userId, dto.getId())
+                : cartItemMapper.selectById(dto.getId());
+        if (cartItem == null || !userId.equals(cartItem.getUserId())) {
+            throw new BusinessException(ResultCode.NOT_FOUND, "购物车明细不存在");
         }
+        checkStock(dto, productMapper.selectById(cartItem.getProductId()));
 
-        // 检查库存
-        if (product.getStock() < dto.getQuantity()) {
-            throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH);
+        if (cartStoreService.isEnabled()) {
+            cartStoreService.updateItem(userId, dto.getId(), dto.getQuantity(), dto.getSelected());
+            summaryCache.invalidate(userId);
+            return;
         }
+        updateItem(cartItem, dto);
+        evictCartCache(userId);
+    }
 
-        // 查询或创建购物车
-        Cart cart = cartMapper.selectByUserId(userId);
-        if (cart == null) {
-            cart = new Cart();
-            cart.setUserId(userId);
-            cartMapper.insert(cart);
-        }
-
-        // 查询是否已存在该商品
-        CartItem existingItem = cartItemMapper.selectByCartIdAndProductId(
-                cart.getId(), dto.getProductId(), dto.getSkuId());
-        if (existingItem != null) {
-            // 更新数量
-            int newQuantity = existingItem.getQuantity() + dto.getQuantity();
-            if (product.getStock() < newQuantity) {
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void removeCartItem(Long userId, Long itemId) {
+        if (cartStoreService.isEnabled()) {
+            cartStoreService.removeItems(userId, List.of(itemId));
+            summaryCache.invalidate(userId);
+            return;
+        }
+        cartItemMapper.deleteByIds(userId, List.of(itemId));
+        evictCartCache(userId);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void batchUpdateCart(Long userId, CartBatchDTO dto) {
+        List<AddCartDTO> adds = dto.getAdds() != null ? dto.getAdds() : List.of();
+        List<UpdateCartItemDTO> updates = dto.getUpdates() != null ? dto.getUpdates() : List.of();
+        List<Long> removeIds = dto.getRemoveIds() != null ? dto.getRemoveIds() : List.of();
+
+        boolean writeBack = cartStoreService.isEnabled();
+
+        // 批量查出涉及的明细（写回模式从内存购物车读取最新状态）和商品
+        Set<Long> itemIds = updates.stream().map(UpdateCartItemDTO::getId).collect(Collectors.toSet());
+        Map<Long, CartItem> itemMap = new HashMap<>();
+        if (writeBack) {
+            for (Long itemId : itemIds) {
+                CartItem item = cartStoreService.getItem(userId, itemId);
+                if (item != null) {
+                    itemMap.put(itemId, item);
+                }
+            }
+        } else if (!itemIds.isEmpty()) {
+            cartItemMapper.selectByIds(userId, itemIds).forEach(item -> itemMap.put(item.getId(), item));
+        }
+        Set<Long> productIds = new HashSet<>();
+        adds.forEach(add -> productIds.add(add.getProductId()));
+        itemMap.values().forEach(item -> productIds.add(item.getProductId()));
+        Map<Long, Product> productMap = productIds.isEmpty() ? Map.of()
+                : productMapper.selectByIds(productIds).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // 先校验全部变更再执行：写回模式的内存修改不随事务回滚，不能校验到一半失败
+        // 内存中的累加超过库存会直接失败，按已有数量加上本批各次加入的数量预先校验
+        Map<String, Integer> quantities = new HashMap<>();
+        if (writeBack && !adds.isEmpty()) {
+            List<CartItem> items = cartStoreService.getItems(userId);
+            if (items != null) {
+                items.forEach(item -> quantities.merge(quantityKey(item.getProductId(), item.getSkuId()),
+                        item.getQuantity(), Integer::sum));
+            }
+        }
+        for (AddCartDTO add : adds) {
+            Product product = productMap.get(add.getProductId());
+            checkAddable(add, product);
+            if (writeBack && quantities.merge(quantityKey(add.getProductId(), add.getSkuId()),
+                    add.getQuantity(), Integer::sum) > product.getStock()) {
                 throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH);
             }
-            existingItem.setQuantity(newQuantity);
-            cartItemMapper.updateById(existingItem);
+        }
+        for (UpdateCartItemDTO update : updates) {
+            CartItem cartItem = itemMap.get(update.getId());
+            if (cartItem == null) {
+                throw new BusinessException(ResultCode.NOT_FOUND, "购物车明细不存在");
+            }
+            checkStock(update, productMap.get(cartItem.getProductId()));
+        }
+
+        boolean databaseWritten = !writeBack;
+        for (AddCartDTO add : adds) {
+            databaseWritten |= addItem(userId, add, productMap.get(add.getProductId()));
+        }
+        for (UpdateCartItemDTO update : updates) {
+            CartItem cartItem = itemMap.get(update.getId());
+            if (writeBack) {
+                cartStoreService.updateItem(userId, update.getId(), update.getQuantity(), update.getSelected());
+            } else {
+                updateItem(cartItem, update);
+            }
+        }
+        if (!removeIds.isEmpty()) {
+            if (writeBack) {
+                cartStoreService.removeItems(userId, removeIds);
+            } else {
+                cartItemMapper.deleteByIds(userId, removeIds);
+            }
+        }
+        if (databaseWritten) {
+            evictCartCache(userId);
         } else {
-            // 新增购物车明细
-            CartItem cartItem = new CartItem();
-            cartItem.setCartId(cart.getId());
-            cartItem.setUserId(userId);
-            cartItem.setProductId(dto.getProductId());
-            cartItem.setSkuId(dto.getSkuId());
-            cartItem.setQuantity(dto.getQuantity());
-            cartItem.setSelected(true);
-            cartItemMapper.insert(cartItem);
+            summaryCache.invalidate(userId);
         }
     }
 
-    @Override
-    @Transactional(rollbackFor = Exception.class)
-    public void updateCartItem(Long userId, UpdateCartItemDTO dto) {
-        // 查询购物车明细
-        CartItem cartItem = cartItemMapper.selectById(dto.getId());
-        if (cartItem == null) {
-            throw new BusinessException(ResultCode.NOT_FOUND, "购物车明细不存在");
+    /**
+     * 校验商品并加入购物车，已有明细累加数量，累加后超过当前库存时抛出库存不足
+     * 写回模式下已有明细在内存中累加；否则先以带库存条件的UPDATE累加，没有明细时再插入
+     *
+     * @return 是否直接写了数据库
+     */
+    private boolean addItem(Long userId, AddCartDTO dto, Product product) {
+        checkAddable(dto, product);
+
+        if (cartStoreService.isEnabled()) {
+            if (cartStoreService.addQuantity(userId, dto.getProductId(), dto.getSkuId(), dto.getQuantity(),
+                    product.getStock())) {
+                return false;
+            }
+            // 写库可能复活该用户已删除的明细，先回写其删除记录，避免之后回写时再次删除
+            cartStoreService.flush(userId);
         }
 
-        // 查询商品信息，检查库存
-        Product product = productMapper.selectById(cartItem.getProductId());
-        if (product != null && dto.getQuantity() > product.getStock()) {
+        CartItem cartItem = new CartItem();
+        cartItem.setUserId(userId);
+        cartItem.setProductId(dto.getProductId());
+        cartItem.setSkuId(dto.getSkuId());
+        cartItem.setQuantity(dto.getQuantity());
+        if (!increaseOrInsert(cartItem, product.getStock())) {
+            // 用户还没有购物车：创建后重试（并发创建由唯一索引去重）；仍失败说明已有明细累加后超过库存
+            cartMapper.insertIgnore(userId);
+            if (!increaseOrInsert(cartItem, product.getStock())) {
+                throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH);
+            }
+        }
+        return true;
+    }
+
+    private boolean increaseOrInsert(CartItem cartItem, int maxQuantity) {
+        return cartItemMapper.increaseQuantity(cartItem, maxQuantity) > 0
+                || cartItemMapper.insertIgnore(cartItem) > 0;
+    }
+
+    private void checkAddable(AddCartDTO dto, Product product) {
+        if (product == null) {
+            throw new BusinessException(ResultCode.PRODUCT_NOT_EXISTS);
+        }
+        if (!product.getOnShelf()) {
+            throw new BusinessException(ResultCode.PRODUCT_OFF_SHELF);
+        }
+        if (product.getStock() < dto.getQuantity()) {
             throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH);
         }
+    }
+
+    private static String quantityKey(Long productId, Long skuId) {
+        return productId + ":" + skuId;
+    }
 
-        // 更新数量
-        if (dto.getQuantity() != null) {
-            cartItem.setQuantity(dto.getQuantity());
+    private void checkStock(UpdateCartItemDTO dto, Product product) {
+        if (product != null && dto.getQuantity() > product.getStock()) {
+            throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH);
         }
+    }
 
-        // 更新选中状态
+    private void updateItem(CartItem cartItem, UpdateCartItemDTO dto) {
+        cartItem.setQuantity(dto.getQuantity());
         if (dto.getSelected() != null) {
             cartItem.setSelected(dto.getSelected());
         }
-
         cartItemMapper.updateById(cartItem);
     }
 
-    @Override
-    @Transactional(rollbackFor = Exception.class)
-    public void removeCartItem(Long userId, Long itemId) {
-        CartItem cartItem = cartItemMapper.selectById(itemId);
-        if (cartItem != null) {
-            cartItemMapper.deleteById(itemId);
-        }
-    }
-
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void clearCart(Long userId) {
+        if (cartStoreService.isEnabled()) {
+            cartStoreService.removeAll(userId);
+            summaryCache.invalidate(userId);
+            return;
+        }
         Cart cart = cartMapper.selectByUserId(userId);
         if (cart != null) {
             cartItemMapper.deleteByCartId(cart.getId());
         }
+        evictCartCache(userId);
     }
 
     @Override
     public CartVO getCart(Long userId) {
-        return buildCartVO(userId);
+        if (cartStoreService.isEnabled()) {
+            List<CartItem> items = cartStoreService.getItems(userId);
+            return items == null ? null : buildCartVO(userId, items.isEmpty() ? null : items.get(0).getCartId(), items);
+        }
+        Cart cart = cartMapper.selectByUserId(userId);
+        if (cart == null) {
+            return null;
+        }
+        return buildCartVO(userId, cart.getId(), cartItemMapper.selectByCartId(cart.getId()));
+    }
+
+    @Override
+    public CartSummaryVO getCartSummary(Long userId) {
+        CachedSummary cached = summaryCache.get(userId, this::loadSummary);
+        if (cached.expireAt < System.currentTimeMillis()) {
+            summaryCache.invalidate(userId);
+            cached = summaryCache.get(userId, this::loadSummary);
+        }
+        return cached.summary;
+    }
+
+    @Override
+    public void evictCartCache(Long userId) {
+        // 立即失效一次，事务结束后再失效一次，避免提交前加载的旧数据留在缓存中
+        summaryCache.invalidate(userId);
+        cartStoreService.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    summaryCache.invalidate(userId);
+                    cartStoreService.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void flushPendingChanges(Long userId) {
+        if (cartStoreService.isEnabled()) {
+            cartStoreService.flush(userId);
+        }
+    }
+
+    private CachedSummary loadSummary(Long userId) {
+        CartSummaryVO summary = cartStoreService.isEnabled()
+                ? summarize(cartStoreService.getItems(userId))
+                : cartItemMapper.selectSummaryByUserId(userId);
+        if (summary == null) {
+            summary = new CartSummaryVO();
+            summary.setItemCount(0);
+            summary.setTotalQuantity(0);
+            summary.setTotalPrice(BigDecimal.ZERO);
+        }
+        return new CachedSummary(summary, System.currentTimeMillis() + summaryTtlSeconds * 1000);
+    }
+
+    /**
+     * 按内存购物车明细和商品当前价格汇总
+     */
+    private CartSummaryVO summarize(List<CartItem> items) {
+        if (items == null) {
+            return null;
+        }
+        CartVO cartVO = buildCartVO(null, null, items);
+        CartSummaryVO summary = new CartSummaryVO();
+        summary.setItemCount(cartVO.getItems().size());
+        summary.setTotalQuantity(cartVO.getTotalQuantity());
+        summary.setTotalPrice(cartVO.getTotalPrice());
+        return summary;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void updateAllSelected(Long userId, Boolean selected) {
+        if (cartStoreService.isEnabled()) {
+            cartStoreService.updateAllSelected(userId, Boolean.TRUE.equals(selected));
+            summaryCache.invalidate(userId);
+            return;
+        }
         Cart cart = cartMapper.selectByUserId(userId);
         if (cart != null) {
             cartItemMapper.updateSelectedByCartId(cart.getId(), selected);
         }
+        evictCartCache(userId);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void removeSelectedItems(Long userId) {
-        Cart cart = cartMapper.selectByUserId(userId);
-        if (cart != null) {
-            List<CartItem> selectedItems = cartItemMapper.selectSelectedByCartId(cart.getId());
-            for (CartItem item : selectedItems) {
-                cartItemMapper.deleteById(item.getId());
-            }
+        if (cartStoreService.isEnabled()) {
+            cartStoreService.removeSelected(userId);
+            summaryCache.invalidate(userId);
+            return;
         }
+        cartItemMapper.deleteSelectedByUserId(userId);
+        evictCartCache(userId);
     }
 
     /**
-     * 构建购物车VO（直接查询数据库）
+     * 构建购物车VO：明细涉及的商品（含冗余主图）一次IN查询
      */
-    private CartVO buildCartVO(Long userId) {
-        Cart cart = cartMapper.selectByUserId(userId);
-        if (cart == null) {
-            return null;
-        }
-
-        List<CartItem> items = cartItemMapper.selectByCartId(cart.getId());
+    private CartVO buildCartVO(Long userId, Long cartId, List<CartItem> items) {
         List<CartItemVO> itemVOList = new ArrayList<>();
         BigDecimal totalPrice = BigDecimal.ZERO;
         int totalQuantity = 0;
 
+        List<Long> productIds = items.stream().map(CartItem::getProductId).distinct().collect(Collectors.toList());
+        Map<Long, Product> productMap = productIds.isEmpty() ? Map.of()
+                : productMapper.selectByIds(productIds).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
         for (CartItem item : items) {
-            Product product = productMapper.selectById(item.getProductId());
+            Product product = productMap.get(item.getProductId());
             if (product == null) {
                 continue;
             }
 
-            // 查询商品的主图
-            ProductImage mainImage = productImageMapper.selectMainImage(item.getProductId());
-            String imageUrl = mainImage != null ? mainImage.getImageUrl() : product.getImage();
-
             CartItemVO itemVO = new CartItemVO();
             itemVO.setId(item.getId());
             itemVO.setProductId(item.getProductId());
             itemVO.setProductName(product.getName());
-            itemVO.setProductImage(imageUrl);
+            itemVO.setProductImage(product.getImage());
             itemVO.setSkuId(item.getSkuId());
             itemVO.setQuantity(item.getQuantity());
             itemVO.setPrice(product.getPrice());
@@ -200,12 +419,26 @@ public class CartServiceImpl implements CartService {
         }
 
         CartVO cartVO = new CartVO();
-        cartVO.setId(cart.getId());
-        cartVO.setUserId(cart.getUserId());
+        cartVO.setId(cartId);
+        cartVO.setUserId(userId);
         cartVO.setTotalPrice(totalPrice);
         cartVO.setTotalQuantity(totalQuantity);
         cartVO.setItems(itemVOList);
 
         return cartVO;
     }
+
+    /**
+     * 缓存的购物车汇总及过期时间
+     */
+    private static final class CachedSummary {
+
+        private final CartSummaryVO summary;
+        private final long expireAt;
+
+        private CachedSummary(CartSummaryVO summary, long expireAt) {
+            this.summary = summary;
+            this.expireAt = expireAt;
+        }
+    }
 }
@@ -0,0 +1,723 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.common.ResultCode;
+import com.crossborder.shop.entity.Cart;
+import com.crossborder.shop.entity.CartItem;
+import com.crossborder.shop.exception.BusinessException;
+import com.crossborder.shop.mapper.CartItemMapper;
+import com.crossborder.shop.mapper.CartMapper;
+import com.crossborder.shop.service.CartStoreService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 购物车写回存储实现
+ * 1. 用户首次访问时从数据库加载购物车明细，之后的读写都在内存中完成，同一用户的操作串行执行
+ * 2. 每次修改生成一条明细最终状态记录，按用户、明细ID合并到未回写记录中，同时由后台线程顺序写入追加日志
+ * 3. 后台线程定期以批量UPDATE回写全部用户的未回写记录；下单时只同步回写该用户的记录，
+ *    同一用户的回写串行执行，不同用户之间互不等待
+ * 4. 定期回写前先轮转日志，回写成功后删除轮转出的旧日志（其中的记录已回写或已被更新的记录取代）
+ * 5. 空闲或超出容量的用户购物车被移出内存，其未回写的记录仍会回写；
+ *    重新加载时先取该用户未回写记录的快照再查询数据库，在数据库数据上叠加快照
+ * 6. 启动时先按顺序重放旧日志和当前日志；记录是明细的最终状态，重复回写不影响结果
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartStoreServiceImpl implements CartStoreService {
+
+    /**
+     * 后台线程写日志的间隔
+     */
+    private static final long JOURNAL_DRAIN_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    /**
+     * 每条批量UPDATE回写的最大明细数
+     */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    /**
+     * 轮转出的旧日志文件后缀
+     */
+    private static final String ROTATED_SUFFIX = ".flushing";
+
+    private final CartMapper cartMapper;
+
+    private final CartItemMapper cartItemMapper;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${cart.write-back.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.write-back.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${cart.write-back.maximum-users:10000}")
+    private int maximumUsers;
+
+    @Value("${cart.write-back.idle-seconds:600}")
+    private long idleSeconds;
+
+    @Value("${cart.write-back.journal-path:data/cart.journal}")
+    private String journalPath;
+
+    /**
+     * 用户ID -> 内存购物车
+     */
+    private final Map<Long, UserCart> carts = new ConcurrentHashMap<>();
+
+    /**
+     * 用户ID -> 尚未回写数据库的记录
+     */
+    private final Map<Long, UserRecords> unflushed = new ConcurrentHashMap<>();
+
+    /**
+     * 待写入日志的明细状态记录
+     */
+    private final Queue<ItemRecord> pendingRecords = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 保护日志文件的写入和轮转
+     */
+    private final Object journalLock = new Object();
+
+    private BufferedWriter journal;
+
+    private volatile boolean running;
+
+    private Thread writerThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path path = Paths.get(journalPath);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            recoverJournal(path);
+            journal = openJournal(false);
+        } catch (IOException e) {
+            log.error("购物车日志初始化失败，写回模式未启用: path={}", journalPath, e);
+            return;
+        }
+
+        running = true;
+        writerThread = new Thread(this::writeLoop, "cart-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("购物车写回模式已启动: maximumUsers={}, flushIntervalMs={}", maximumUsers, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!flushAll()) {
+            log.error("停止时回写购物车失败，变更保留在日志中");
+        }
+        synchronized (journalLock) {
+            drainToJournal();
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("关闭购物车日志失败: {}", e.getMessage());
+            }
+        }
+        log.info("购物车写回模式已停止");
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return running;
+    }
+
+    @Override
+    public List<CartItem> getItems(Long userId) {
+        return withCart(userId, cart -> cart.cartId == null ? null
+                : cart.items.values().stream().map(CartStoreServiceImpl::copy).collect(Collectors.toList()));
+    }
+
+    @Override
+    public CartItem getItem(Long userId, Long itemId) {
+        return withCart(userId, cart -> {
+            CartItem item = cart.items.get(itemId);
+            return item == null ? null : copy(item);
+        });
+    }
+
+    @Override
+    public boolean updateItem(Long userId, Long itemId, Integer quantity, Boolean selected) {
+        return withCart(userId, cart -> {
+            CartItem item = cart.items.get(itemId);
+            if (item == null) {
+                return false;
+            }
+            if (quantity != null) {
+                item.setQuantity(quantity);
+            }
+            if (selected != null) {
+                item.setSelected(selected);
+            }
+            record(ItemRecord.of(item, false));
+            return true;
+        });
+    }
+
+    @Override
+    public boolean addQuantity(Long userId, Long productId, Long skuId, int quantity, int maxQuantity) {
+        return withCart(userId, cart -> {
+            for (CartItem item : cart.items.values()) {
+                if (item.getProductId().equals(productId) && Objects.equals(item.getSkuId(), skuId)) {
+                    if (item.getQuantity() + quantity > maxQuantity) {
+                        throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH);
+                    }
+                    item.setQuantity(item.getQuantity() + quantity);
+                    record(ItemRecord.of(item, false));
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public void updateAllSelected(Long userId, boolean selected) {
+        withCart(userId, cart -> {
+            for (CartItem item : cart.items.values()) {
+                if (!Boolean.valueOf(selected).equals(item.getSelected())) {
+                    item.setSelected(selected);
+                    record(ItemRecord.of(item, false));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void removeItems(Long userId, Collection<Long> itemIds) {
+        withCart(userId, cart -> {
+            for (Long itemId : itemIds) {
+                CartItem item = cart.items.remove(itemId);
+                if (item != null) {
+                    record(ItemRecord.of(item, true));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void removeSelected(Long userId) {
+        removeIf(userId, item -> Boolean.TRUE.equals(item.getSelected()));
+    }
+
+    @Override
+    public void removeAll(Long userId) {
+        removeIf(userId, item -> true);
+    }
+
+    @Override
+    public void invalidate(Long userId) {
+        UserCart cart = carts.get(userId);
+        if (cart != null) {
+            evict(userId, cart);
+        }
+    }
+
+    @Override
+    public void flush(Long userId) {
+        if (!running) {
+            return;
+        }
+        UserRecords records = unflushed.get(userId);
+        if (records == null) {
+            return;
+        }
+        synchronized (records) {
+            // 等待该用户正在进行的定期回写，避免旧记录晚于新记录落库
+            while (records.flushing) {
+                try {
+                    records.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "购物车数据同步失败，请稍后重试");
+                }
+            }
+            if (!records.items.isEmpty()) {
+                List<ItemRecord> pending = new ArrayList<>(records.items.values());
+                try {
+                    writeRecords(pending);
+                } catch (Exception e) {
+                    log.error("回写用户购物车失败: userId={}, items={}", userId, pending.size(), e);
+                    throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "购物车数据同步失败，请稍后重试");
+                }
+                records.items.clear();
+            }
+            retireIfEmpty(userId, records);
+        }
+    }
+
+    /**
+     * 移出空闲和超出容量的用户购物车（按最近访问时间从旧到新）
+     */
+    @Scheduled(fixedDelayString = "${cart.write-back.evict-interval-ms:10000}")
+    public void evictIdleCarts() {
+        if (!running) {
+            return;
+        }
+        long idleBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(idleSeconds);
+        // 先取访问时间快照再排序，避免排序期间访问时间变化
+        List<long[]> accessTimes = new ArrayList<>(carts.size());
+        carts.forEach((userId, cart) -> accessTimes.add(new long[] { cart.lastAccessMillis, userId }));
+        accessTimes.sort(Comparator.comparingLong(entry -> entry[0]));
+
+        int excess = accessTimes.size() - maximumUsers;
+        int evicted = 0;
+        for (long[] entry : accessTimes) {
+            if (entry[0] >= idleBefore && evicted >= excess) {
+                break;
+            }
+            UserCart cart = carts.get(entry[1]);
+            if (cart != null) {
+                evict(entry[1], cart);
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.debug("移出内存购物车: evicted={}, remaining={}", evicted, carts.size());
+        }
+    }
+
+    /**
+     * 在用户购物车上串行执行操作；购物车恰好被移出时重新加载后重试
+     */
+    private <T> T withCart(Long userId, Function<UserCart, T> action) {
+        while (true) {
+            UserCart cart = carts.computeIfAbsent(userId, this::load);
+            synchronized (cart) {
+                if (!cart.evicted) {
+                    cart.lastAccessMillis = System.currentTimeMillis();
+                    return action.apply(cart);
+                }
+            }
+        }
+    }
+
+    private void removeIf(Long userId, Predicate<CartItem> filter) {
+        withCart(userId, cart -> {
+            cart.items.values().removeIf(item -> {
+                if (filter.test(item)) {
+                    record(ItemRecord.of(item, true));
+                    return true;
+                }
+                return false;
+            });
+            return null;
+        });
+    }
+
+    private void evict(Long userId, UserCart cart) {
+        synchronized (cart) {
+            cart.evicted = true;
+            carts.remove(userId, cart);
+        }
+    }
+
+    /**
+     * 登记一条明细状态记录：合并到用户的未回写记录，并排队写入日志
+     */
+    private void record(ItemRecord record) {
+        while (true) {
+            UserRecords records = unflushed.computeIfAbsent(record.userId, userId -> new UserRecords());
+            synchronized (records) {
+                if (!records.retired) {
+                    records.items.remove(record.itemId);
+                    records.items.put(record.itemId, record);
+                    break;
+                }
+            }
+        }
+        pendingRecords.offer(record);
+    }
+
+    /**
+     * 没有待回写记录时移除用户的记录容器（需持有其监视器）
+     */
+    private void retireIfEmpty(Long userId, UserRecords records) {
+        if (records.items.isEmpty() && !records.flushing) {
+            records.retired = true;
+            unflushed.remove(userId, records);
+        }
+    }
+
+    /**
+     * 从数据库加载用户购物车，并叠加尚未回写的记录
+     * 记录只在落库提交后才从未回写记录中移除，因此先取快照再查库不会漏掉任何变更
+     */
+    private UserCart load(Long userId) {
+        List<ItemRecord> overlay = List.of();
+        UserRecords records = unflushed.get(userId);
+        if (records != null) {
+            synchronized (records) {
+                overlay = new ArrayList<>(records.items.values());
+            }
+        }
+
+        Cart cart = cartMapper.selectByUserId(userId);
+        UserCart userCart = new UserCart(cart == null ? null : cart.getId());
+        if (cart == null) {
+            return userCart;
+        }
+        for (CartItem item : cartItemMapper.selectByCartId(cart.getId())) {
+            userCart.items.put(item.getId(), item);
+        }
+        for (ItemRecord record : overlay) {
+            if (record.removed) {
+                userCart.items.remove(record.itemId);
+            } else {
+                CartItem item = userCart.items.get(record.itemId);
+                if (item != null) {
+                    item.setQuantity(record.quantity);
+                    item.setSelected(record.selected);
+                }
+            }
+        }
+        return userCart;
+    }
+
+    private void writeLoop() {
+        long nextFlushAt = System.currentTimeMillis() + flushIntervalMs;
+        while (running) {
+            try {
+                synchronized (journalLock) {
+                    drainToJournal();
+                }
+                if (System.currentTimeMillis() >= nextFlushAt) {
+                    flushAll();
+                    nextFlushAt = System.currentTimeMillis() + flushIntervalMs;
+                }
+            } catch (Exception e) {
+                log.error("购物车回写异常", e);
+            }
+            LockSupport.parkNanos(JOURNAL_DRAIN_NANOS);
+        }
+    }
+
+    /**
+     * 将队列中的记录顺序写入日志（需持有journalLock）
+     */
+    private void drainToJournal() {
+        ItemRecord record;
+        boolean written = false;
+        while ((record = pendingRecords.poll()) != null) {
+            try {
+                journal.write(record.toLine());
+                journal.newLine();
+                written = true;
+            } catch (IOException e) {
+                log.error("写入购物车日志失败: userId={}, itemId={}", record.userId, record.itemId, e);
+            }
+        }
+        if (written) {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                log.error("刷新购物车日志失败", e);
+            }
+        }
+    }
+
+    /**
+     * 回写全部用户的未回写记录（仅由后台线程和停止时调用）
+     * 先轮转日志，轮转前登记的记录此时都在未回写记录中，回写成功后即可删除旧日志
+     *
+     * @return 是否回写成功
+     */
+    private boolean flushAll() {
+        Path rotated = Paths.get(journalPath + ROTATED_SUFFIX);
+        synchronized (journalLock) {
+            drainToJournal();
+            // 上次回写失败时旧日志仍在，不再轮转，新记录继续追加到当前日志
+            if (!Files.exists(rotated)) {
+                try {
+                    journal.close();
+                    Files.move(Paths.get(journalPath), rotated);
+                } catch (IOException e) {
+                    log.error("轮转购物车日志失败", e);
+                } finally {
+                    try {
+                        journal = openJournal(false);
+                    } catch (IOException e) {
+                        log.error("打开购物车日志失败", e);
+                    }
+                }
+            }
+        }
+
+        Map<UserRecords, List<ItemRecord>> snapshot = new LinkedHashMap<>();
+        for (UserRecords records : unflushed.values()) {
+            synchronized (records) {
+                if (!records.retired && !records.items.isEmpty()) {
+                    records.flushing = true;
+                    snapshot.put(records, new ArrayList<>(records.items.values()));
+                }
+            }
+        }
+
+        boolean success = true;
+        if (!snapshot.isEmpty()) {
+            List<ItemRecord> all = new ArrayList<>();
+            snapshot.values().forEach(all::addAll);
+            try {
+                writeRecords(all);
+            } catch (Exception e) {
+                log.error("购物车回写数据库失败，稍后重试: items={}", all.size(), e);
+                success = false;
+            }
+            for (Map.Entry<UserRecords, List<ItemRecord>> entry : snapshot.entrySet()) {
+                UserRecords records = entry.getKey();
+                synchronized (records) {
+                    if (success) {
+                        // 只移除已回写的记录，期间登记的新记录留到下一轮
+                        entry.getValue().forEach(record -> records.items.remove(record.itemId, record));
+                    }
+                    records.flushing = false;
+                    retireIfEmpty(entry.getValue().get(0).userId, records);
+                    records.notifyAll();
+                }
+            }
+            if (success) {
+                log.debug("购物车回写完成: users={}, items={}", snapshot.size(), all.size());
+            }
+        }
+
+        if (success) {
+            try {
+                Files.deleteIfExists(rotated);
+            } catch (IOException e) {
+                log.error("删除已回写的购物车日志失败", e);
+            }
+        }
+        return success;
+    }
+
+    /**
+     * 在独立事务中回写记录：修改以CASE批量更新，删除按用户批量软删除
+     */
+    private void writeRecords(List<ItemRecord> records) {
+        List<CartItem> updates = new ArrayList<>();
+        Map<Long, List<Long>> removals = new HashMap<>();
+        for (ItemRecord record : records) {
+            if (record.removed) {
+                removals.computeIfAbsent(record.userId, userId -> new ArrayList<>()).add(record.itemId);
+            } else {
+                updates.add(record.toCartItem());
+            }
+        }
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.executeWithoutResult(status -> {
+            for (int from = 0; from < updates.size(); from += FLUSH_BATCH_SIZE) {
+                cartItemMapper.batchUpdateState(updates.subList(from, Math.min(from + FLUSH_BATCH_SIZE, updates.size())));
+            }
+            removals.forEach(cartItemMapper::deleteByIds);
+        });
+    }
+
+    /**
+     * 按顺序重放旧日志和当前日志中尚未回写的记录，成功后删除旧日志
+     */
+    private void recoverJournal(Path path) throws IOException {
+        Path rotated = Paths.get(journalPath + ROTATED_SUFFIX);
+        Map<Long, ItemRecord> records = new LinkedHashMap<>();
+        readJournal(rotated, records);
+        readJournal(path, records);
+        if (!records.isEmpty()) {
+            writeRecords(new ArrayList<>(records.values()));
+            log.info("购物车日志重放完成: items={}", records.size());
+        }
+        Files.deleteIfExists(rotated);
+        if (Files.exists(path)) {
+            openJournal(true).close();
+        }
+    }
+
+    private void readJournal(Path path, Map<Long, ItemRecord> records) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ItemRecord record = ItemRecord.parse(line);
+                if (record == null) {
+                    // 崩溃时可能留下不完整的最后一行
+                    log.warn("忽略无法解析的购物车日志: {}", line);
+                    continue;
+                }
+                records.remove(record.itemId);
+                records.put(record.itemId, record);
+            }
+        }
+    }
+
+    private BufferedWriter openJournal(boolean truncate) throws IOException {
+        return Files.newBufferedWriter(Paths.get(journalPath), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                truncate ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND);
+    }
+
+    private static CartItem copy(CartItem item) {
+        CartItem copy = new CartItem(item.getCartId(), item.getUserId(), item.getProductId(), item.getSkuId(),
+                item.getQuantity(), item.getSelected());
+        copy.setId(item.getId());
+        copy.setCreateTime(item.getCreateTime());
+        copy.setUpdateTime(item.getUpdateTime());
+        return copy;
+    }
+
+    /**
+     * 内存购物车（由自身监视器保护）
+     */
+    private static final class UserCart {
+
+        /**
+         * 购物车ID，用户没有购物车时为null
+         */
+        private final Long cartId;
+
+        /**
+         * 明细ID -> 明细，保持数据库中的加入时间倒序
+         */
+        private final Map<Long, CartItem> items = new LinkedHashMap<>();
+
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+
+        private boolean evicted;
+
+        private UserCart(Long cartId) {
+            this.cartId = cartId;
+        }
+    }
+
+    /**
+     * 用户尚未回写的记录（由自身监视器保护）
+     */
+    private static final class UserRecords {
+
+        /**
+         * 明细ID -> 最新记录
+         */
+        private final Map<Long, ItemRecord> items = new LinkedHashMap<>();
+
+        /**
+         * 定期回写正在写入该用户的记录
+         */
+        private boolean flushing;
+
+        /**
+         * 已从unflushed中移除，不再接受新记录
+         */
+        private boolean retired;
+    }
+
+    /**
+     * 明细最终状态记录，日志格式：userId,itemId,quantity,selected,removed
+     */
+    private static final class ItemRecord {
+
+        private final Long userId;
+        private final Long itemId;
+        private final Integer quantity;
+        private final Boolean selected;
+        private final boolean removed;
+
+        private ItemRecord(Long userId, Long itemId, Integer quantity, Boolean selected, boolean removed) {
+            this.userId = userId;
+            this.itemId = itemId;
+            this.quantity = quantity;
+            this.selected = selected;
+            this.removed = removed;
+        }
+
+        static ItemRecord of(CartItem item, boolean removed) {
+            return new ItemRecord(item.getUserId(), item.getId(), item.getQuantity(),
+                    Boolean.TRUE.equals(item.getSelected()), removed);
+        }
+
+        static ItemRecord parse(String line) {
+            String[] fields = line.split(",");
+            if (fields.length != 5) {
+                return null;
+            }
+            try {
+                return new ItemRecord(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        Integer.parseInt(fields[2]), "1".equals(fields[3]), "1".equals(fields[4]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        String toLine() {
+            return userId + "," + itemId + "," + quantity + "," + (selected ? 1 : 0) + "," + (removed ? 1 : 0);
+        }
+
+        CartItem toCartItem() {
+            CartItem item = new CartItem();
+            item.setId(itemId);
+            item.setUserId(userId);
+            item.setQuantity(quantity);
+            item.setSelected(selected);
+            return item;
+        }
+    }
+}
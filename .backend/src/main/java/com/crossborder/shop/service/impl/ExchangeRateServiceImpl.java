@@ -13,16 +13,28 @@ import com.crossborder.shop.service.ExchangeRateService;
 import com.crossborder.shop.vo.CurrencyVO;
 import com.crossborder.shop.vo.ExchangeRateVO;
 import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * 汇率服务实现
+ * 汇率查询走内存汇率矩阵：全部汇率加载为稠密数组，缺失的币种对经由中间货币换算补全；
+ * 汇率增删改提交后整体替换为新的不可变快照，其他节点定时刷新
  *
  * @author CrossBorder Team
  * @since 2026-02-08
@@ -35,6 +47,30 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
     private final ExchangeRateMapper exchangeRateMapper;
     private final CurrencyMapper currencyMapper;
 
+    /**
+     * 推导汇率时优先使用的中间货币
+     */
+    @Value("${exchange-rate.pivot-currency:CNY}")
+    private String pivotCurrency;
+
+    private volatile RateMatrix rateMatrix = RateMatrix.EMPTY;
+
+    @PostConstruct
+    public void init() {
+        reloadRates();
+    }
+
+    /**
+     * 重新加载汇率矩阵（定时执行，使其他节点的修改生效）
+     */
+    @Scheduled(fixedDelayString = "${exchange-rate.refresh-interval-ms:60000}",
+            initialDelayString = "${exchange-rate.refresh-interval-ms:60000}")
+    public void reloadRates() {
+        RateMatrix matrix = RateMatrix.build(exchangeRateMapper.selectAll(), pivotCurrency);
+        rateMatrix = matrix;
+        log.debug("汇率矩阵已加载: currencies={}", matrix.size());
+    }
+
     @Override
     public List<CurrencyVO> getAllCurrencies() {
         List<Currency> currencies = currencyMapper.selectAll();
@@ -107,6 +143,7 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
             throw new BusinessException("汇率创建失败");
         }
 
+        reloadRatesAfterCommit();
         log.info("汇率创建成功: {}/{}", dto.getFromCurrency(), dto.getToCurrency());
     }
 
@@ -133,6 +170,7 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
             throw new BusinessException("汇率更新失败");
         }
 
+        reloadRatesAfterCommit();
         log.info("汇率更新成功: id={}, {}/{}", id, dto.getFromCurrency(), dto.getToCurrency());
     }
 
@@ -149,6 +187,7 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
             throw new BusinessException("汇率删除失败");
         }
 
+        reloadRatesAfterCommit();
         log.info("汇率删除成功: id={}", id);
     }
 
@@ -157,14 +196,38 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         if (fromCurrency == null || toCurrency == null) {
             throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "币种参数不能为空");
         }
+        BigDecimal rate = findExchangeRate(fromCurrency, toCurrency);
+        if (rate == null) {
+            throw new BusinessException(ResultCode.EXCHANGE_RATE_NOT_FOUND);
+        }
+        return rate;
+    }
+
+    @Override
+    public BigDecimal findExchangeRate(String fromCurrency, String toCurrency) {
+        if (fromCurrency == null || toCurrency == null) {
+            return null;
+        }
         if (fromCurrency.equalsIgnoreCase(toCurrency)) {
             return BigDecimal.ONE;
         }
-        ExchangeRate exchangeRate = exchangeRateMapper.selectByPair(fromCurrency, toCurrency);
-        if (exchangeRate == null || exchangeRate.getRate() == null) {
-            throw new BusinessException(ResultCode.EXCHANGE_RATE_NOT_FOUND);
+        return rateMatrix.get(fromCurrency, toCurrency);
+    }
+
+    /**
+     * 事务提交后重建汇率矩阵
+     */
+    private void reloadRatesAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadRates();
+                }
+            });
+        } else {
+            reloadRates();
         }
-        return exchangeRate.getRate();
     }
 
     /**
@@ -175,4 +238,107 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
         BeanUtil.copyProperties(exchangeRate, vo);
         return vo;
     }
+
+    /**
+     * 不可变汇率矩阵
+     */
+    private static final class RateMatrix {
+
+        /**
+         * 推导汇率的小数位数，与tb_exchange_rate.rate一致
+         */
+        private static final int RATE_SCALE = 4;
+
+        private static final RateMatrix EMPTY = new RateMatrix(Map.of(), new BigDecimal[0]);
+
+        private final Map<String, Integer> indexes;
+
+        /**
+         * rates[from * n + to]，null表示无法换算
+         */
+        private final BigDecimal[] rates;
+
+        private RateMatrix(Map<String, Integer> indexes, BigDecimal[] rates) {
+            this.indexes = indexes;
+            this.rates = rates;
+        }
+
+        static RateMatrix build(List<ExchangeRate> exchangeRates, String pivotCurrency) {
+            Map<String, Integer> indexes = new HashMap<>();
+            for (ExchangeRate exchangeRate : exchangeRates) {
+                indexes.putIfAbsent(normalize(exchangeRate.getFromCurrency()), indexes.size());
+                indexes.putIfAbsent(normalize(exchangeRate.getToCurrency()), indexes.size());
+            }
+            int n = indexes.size();
+            // 推导过程使用不截断的精度，最后统一保留RATE_SCALE位，避免多段换算累积舍入误差
+            BigDecimal[] exact = new BigDecimal[n * n];
+            boolean[] direct = new boolean[n * n];
+
+            // 1. 直接汇率；同一货币为1
+            for (int i = 0; i < n; i++) {
+                exact[i * n + i] = BigDecimal.ONE;
+            }
+            for (ExchangeRate exchangeRate : exchangeRates) {
+                if (exchangeRate.getRate() != null && exchangeRate.getRate().signum() > 0) {
+                    int index = indexes.get(normalize(exchangeRate.getFromCurrency())) * n
+                            + indexes.get(normalize(exchangeRate.getToCurrency()));
+                    exact[index] = exchangeRate.getRate();
+                    direct[index] = true;
+                }
+            }
+
+            // 2. 反向汇率（仅在没有直接汇率时使用）
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (exact[i * n + j] == null && direct[j * n + i]) {
+                        exact[i * n + j] = BigDecimal.ONE.divide(exact[j * n + i], MathContext.DECIMAL64);
+                    }
+                }
+            }
+
+            // 3. 传递闭包（Floyd-Warshall）：依次以每种货币为中间货币补全无法换算的货币对，
+            //    配置的中间货币最先参与，有多条路径时优先经由它换算
+            Integer pivot = indexes.get(normalize(pivotCurrency));
+            for (int step = 0; step < n; step++) {
+                int k = pivot == null ? step : (step == 0 ? pivot : (step <= pivot ? step - 1 : step));
+                for (int i = 0; i < n; i++) {
+                    BigDecimal toMiddle = exact[i * n + k];
+                    if (toMiddle == null) {
+                        continue;
+                    }
+                    for (int j = 0; j < n; j++) {
+                        BigDecimal fromMiddle = exact[k * n + j];
+                        if (exact[i * n + j] == null && fromMiddle != null) {
+                            exact[i * n + j] = toMiddle.multiply(fromMiddle, MathContext.DECIMAL64);
+                        }
+                    }
+                }
+            }
+
+            BigDecimal[] rates = new BigDecimal[n * n];
+            for (int index = 0; index < rates.length; index++) {
+                if (exact[index] != null) {
+                    rates[index] = direct[index] ? exact[index] : exact[index].setScale(RATE_SCALE, RoundingMode.HALF_UP);
+                }
+            }
+            return new RateMatrix(Map.copyOf(indexes), rates);
+        }
+
+        BigDecimal get(String fromCurrency, String toCurrency) {
+            Integer from = indexes.get(normalize(fromCurrency));
+            Integer to = indexes.get(normalize(toCurrency));
+            if (from == null || to == null) {
+                return null;
+            }
+            return rates[from * indexes.size() + to];
+        }
+
+        int size() {
+            return indexes.size();
+        }
+
+        private static String normalize(String currency) {
+            return currency.trim().toUpperCase(Locale.ROOT);
+        }
+    }
 }
@@ -0,0 +1,557 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.Product;
+import com.crossborder.shop.mapper.ProductMapper;
+import com.crossborder.shop.service.HotStockService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * 热点商品库存服务实现
+ * 1. 可用库存保存在分段计数器中，扣减只做CAS，不访问数据库
+ * 2. 每次扣减/归还生成一条变更记录，由后台线程顺序写入追加日志并按商品汇总
+ * 3. 汇总后的变更定期以一条批量UPDATE回写tb_product，回写成功后截断日志
+ * 4. 启动时先重放日志中未回写的变更，再加载热点商品
+ * 进程在回写与截断之间崩溃时变更会被重复回写，库存只会偏少不会超卖
+ * 计数器是进程内的，同一商品只能由一个节点托管：多节点部署时只在一个节点开启inventory.hot-engine.enabled，
+ * 所有节点开启inventory.hot-engine.cluster-enabled，其余节点拒绝热销商品的数据库扣减，热销商品下单需路由到引擎节点。
+ * 回写时锁定商品行并校验库存，回写量超过数据库库存（有其他途径扣过同一商品）时告警并按现有库存截断
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HotStockServiceImpl implements HotStockService {
+
+    /**
+     * 后台线程写日志的间隔
+     */
+    private static final long JOURNAL_DRAIN_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final ProductMapper productMapper;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.hot-engine.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 集群中是否有节点开启了引擎（引擎节点本身也视为开启）
+     */
+    @Value("${inventory.hot-engine.cluster-enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${inventory.hot-engine.stripes:8}")
+    private int stripeCount;
+
+    @Value("${inventory.hot-engine.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${inventory.hot-engine.journal-path:data/hot-stock.journal}")
+    private String journalPath;
+
+    /**
+     * 托管商品的内存库存
+     */
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 待写入日志的变更记录：{商品ID, 扣减数量（负数表示归还）}
+     */
+    private final Queue<long[]> pendingRecords = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 已写入日志、尚未回写数据库的变更汇总（由flushLock保护）
+     */
+    private final Map<Long, Integer> unflushedDeltas = new HashMap<>();
+
+    private final Object flushLock = new Object();
+
+    private BufferedWriter journal;
+
+    private volatile boolean running;
+
+    private Thread writerThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path path = Paths.get(journalPath);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            recoverJournal(path);
+            // 日志中的变更已全部回写，截断后重新开始，否则下次启动会再次重放
+            journal = openJournal(true);
+        } catch (IOException e) {
+            log.error("热点库存日志初始化失败，内存库存引擎未启用: path={}", journalPath, e);
+            enabled = false;
+            return;
+        }
+
+        syncHotProducts();
+
+        running = true;
+        writerThread = new Thread(this::writeLoop, "hot-stock-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("热点库存引擎已启动: products={}, stripes={}, flushIntervalMs={}",
+                counters.size(), stripeCount, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("关闭热点库存日志失败: {}", e.getMessage());
+        }
+        log.info("热点库存引擎已停止");
+    }
+
+    @Override
+    public boolean isManaged(Long productId) {
+        return enabled && productId != null && counters.containsKey(productId);
+    }
+
+    @Override
+    public boolean isReservedForEngine(Product product) {
+        return (enabled || clusterEnabled) && product != null
+                && product.getIsHot() != null && product.getIsHot() == 1
+                && !isManaged(product.getId());
+    }
+
+    @Override
+    public List<Long> tryDeduct(Map<Long, Integer> quantities) {
+        Map<Long, Integer> acquired = new HashMap<>();
+        Map<Long, StockCounter> entered = new HashMap<>();
+        List<Long> failed = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                StockCounter counter = counters.get(entry.getKey());
+                if (counter != null && counter.enter()) {
+                    entered.put(entry.getKey(), counter);
+                    if (counter.tryAcquire(entry.getValue())) {
+                        acquired.put(entry.getKey(), entry.getValue());
+                        continue;
+                    }
+                }
+                failed.add(entry.getKey());
+            }
+
+            if (!failed.isEmpty()) {
+                // 扣减记录尚未入队，只归还计数器，不能写归还记录，否则回写时数据库库存会被多加
+                acquired.forEach((productId, quantity) -> entered.get(productId).release(quantity));
+                return failed;
+            }
+
+            // 记录在退出计数器之前入队，取消托管时的回写不会漏掉
+            acquired.forEach((productId, quantity) -> pendingRecords.offer(new long[] { productId, quantity }));
+        } finally {
+            entered.values().forEach(StockCounter::exit);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        acquired.forEach(HotStockServiceImpl.this::applyRelease);
+                    }
+                }
+            });
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean release(Long productId, Integer quantity) {
+        if (!isManaged(productId)) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyRelease(productId, quantity);
+                }
+            });
+        } else {
+            applyRelease(productId, quantity);
+        }
+        return true;
+    }
+
+    @Override
+    public void refresh(Long productId) {
+        if (!enabled) {
+            return;
+        }
+        unregister(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    register(productMapper.selectById(productId));
+                }
+            });
+        } else {
+            register(productMapper.selectById(productId));
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (journal == null) {
+            return;
+        }
+        synchronized (flushLock) {
+            drainToJournal();
+            flushToDatabase();
+        }
+    }
+
+    /**
+     * 定期同步热点商品集合（运营直接修改is_hot时生效）
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot-engine.rescan-interval-ms:60000}")
+    public void syncHotProducts() {
+        if (!enabled) {
+            return;
+        }
+        List<Product> hotProducts = productMapper.selectHotProducts();
+        Set<Long> hotIds = new HashSet<>();
+        for (Product product : hotProducts) {
+            hotIds.add(product.getId());
+            if (!counters.containsKey(product.getId())) {
+                register(product);
+            }
+        }
+        for (Long productId : new ArrayList<>(counters.keySet())) {
+            if (!hotIds.contains(productId)) {
+                unregister(productId);
+            }
+        }
+    }
+
+    /**
+     * 托管商品库存，仅接受已上架的热销商品
+     */
+    private void register(Product product) {
+        if (product == null || product.getStock() == null
+                || product.getIsHot() == null || product.getIsHot() != 1 || !product.getOnShelf()) {
+            return;
+        }
+        if (counters.putIfAbsent(product.getId(), new StockCounter(product.getStock(), stripeCount)) == null) {
+            log.info("商品库存改由内存引擎托管: productId={}, stock={}", product.getId(), product.getStock());
+        }
+    }
+
+    /**
+     * 取消托管：关闭计数器，等待进行中的扣减及其日志记录入队后回写剩余变更，之后重新读取的数据库库存才准确
+     */
+    private void unregister(Long productId) {
+        StockCounter counter = counters.remove(productId);
+        if (counter == null) {
+            return;
+        }
+        counter.close();
+        flush();
+        log.info("商品库存取消内存托管: productId={}", productId);
+    }
+
+    /**
+     * 归还库存到计数器；计数器已移除时直接更新数据库
+     */
+    private void applyRelease(Long productId, Integer quantity) {
+        StockCounter counter = counters.get(productId);
+        if (counter != null && counter.enter()) {
+            try {
+                counter.release(quantity);
+                pendingRecords.offer(new long[] { productId, -quantity });
+            } finally {
+                counter.exit();
+            }
+        } else {
+            productMapper.increaseStock(productId, quantity);
+        }
+    }
+
+    private void writeLoop() {
+        long nextFlushAt = System.currentTimeMillis() + flushIntervalMs;
+        while (running) {
+            try {
+                synchronized (flushLock) {
+                    drainToJournal();
+                    if (System.currentTimeMillis() >= nextFlushAt) {
+                        flushToDatabase();
+                        nextFlushAt = System.currentTimeMillis() + flushIntervalMs;
+                    }
+                }
+            } catch (Exception e) {
+                log.error("热点库存回写异常", e);
+            }
+            LockSupport.parkNanos(JOURNAL_DRAIN_NANOS);
+        }
+    }
+
+    /**
+     * 将队列中的变更顺序写入日志并汇总（需持有flushLock）
+     */
+    private void drainToJournal() {
+        long[] record;
+        boolean written = false;
+        while ((record = pendingRecords.poll()) != null) {
+            try {
+                journal.write(record[0] + "," + record[1]);
+                journal.newLine();
+                written = true;
+            } catch (IOException e) {
+                log.error("写入热点库存日志失败: productId={}, delta={}", record[0], record[1], e);
+            }
+            unflushedDeltas.merge(record[0], (int) record[1], Integer::sum);
+        }
+        if (written) {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                log.error("刷新热点库存日志失败", e);
+            }
+        }
+    }
+
+    /**
+     * 批量回写汇总的库存变更，成功后截断日志（需持有flushLock）
+     */
+    private void flushToDatabase() {
+        unflushedDeltas.values().removeIf(delta -> delta == 0);
+        if (unflushedDeltas.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> deltas = new HashMap<>(unflushedDeltas);
+        try {
+            applyDeltas(deltas);
+        } catch (Exception e) {
+            log.error("热点库存回写数据库失败，稍后重试: products={}", deltas.size(), e);
+            return;
+        }
+        unflushedDeltas.clear();
+        try {
+            journal.close();
+            journal = openJournal(true);
+        } catch (IOException e) {
+            log.error("截断热点库存日志失败", e);
+        }
+        log.debug("热点库存回写完成: {}", deltas);
+    }
+
+    /**
+     * 重放日志中尚未回写的库存变更
+     */
+    private void recoverJournal(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        Map<Long, Integer> deltas = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma <= 0) {
+                    continue;
+                }
+                try {
+                    deltas.merge(Long.parseLong(line.substring(0, comma)),
+                            Integer.parseInt(line.substring(comma + 1)), Integer::sum);
+                } catch (NumberFormatException e) {
+                    // 崩溃时可能留下不完整的最后一行
+                    log.warn("忽略无法解析的热点库存日志: {}", line);
+                }
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (!deltas.isEmpty()) {
+            applyDeltas(deltas);
+            log.info("热点库存日志重放完成: {}", deltas.entrySet().stream()
+                    .map(e -> e.getKey() + "=" + e.getValue())
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    /**
+     * 在独立事务中回写库存变更，避免调用方事务回滚后日志已被截断
+     * 先锁定商品行，回写量超过数据库库存说明有其他途径扣过同一商品，告警后按现有库存截断；
+     * 带库存条件的批量更新行数不符时回滚，变更保留到下次重试
+     */
+    private void applyDeltas(Map<Long, Integer> deltas) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.executeWithoutResult(status -> {
+            Map<Long, Integer> applicable = new HashMap<>();
+            for (Product product : productMapper.selectByIdsForUpdate(new ArrayList<>(deltas.keySet()))) {
+                int delta = deltas.get(product.getId());
+                int stock = product.getStock() == null ? 0 : product.getStock();
+                if (delta > stock) {
+                    log.error("热点库存回写量超过数据库库存，商品已超卖，按现有库存截断: productId={}, stock={}, delta={}",
+                            product.getId(), stock, delta);
+                    delta = stock;
+                }
+                if (delta != 0) {
+                    applicable.put(product.getId(), delta);
+                }
+            }
+            if (applicable.isEmpty()) {
+                return;
+            }
+            int updated = productMapper.batchAdjustStock(applicable);
+            if (updated != applicable.size()) {
+                throw new IllegalStateException("热点库存回写行数不符: expected="
+                        + applicable.size() + ", updated=" + updated);
+            }
+        });
+    }
+
+    private BufferedWriter openJournal(boolean truncate) throws IOException {
+        return Files.newBufferedWriter(Paths.get(journalPath), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                truncate ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 分段库存计数器
+     * 库存平均分布在多个分段中，线程优先从自己的分段扣减，不足时依次借用其他分段
+     */
+    private static final class StockCounter {
+
+        private final AtomicIntegerArray stripes;
+
+        /**
+         * 进入计数器尚未退出的线程数（扣减/归还及其日志记录入队），关闭时等待其归零
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private volatile boolean closed;
+
+        StockCounter(int stock, int stripeCount) {
+            int count = Math.max(1, stripeCount);
+            this.stripes = new AtomicIntegerArray(count);
+            for (int i = 0; i < count; i++) {
+                stripes.set(i, stock / count + (i < stock % count ? 1 : 0));
+            }
+        }
+
+        /**
+         * 进入计数器，已关闭时返回false；返回true后必须调用exit
+         */
+        boolean enter() {
+            inFlight.incrementAndGet();
+            if (closed) {
+                inFlight.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        void exit() {
+            inFlight.decrementAndGet();
+        }
+
+        /**
+         * 扣减库存（需已进入计数器）
+         */
+        boolean tryAcquire(int quantity) {
+            int length = stripes.length();
+            int start = (int) (Thread.currentThread().getId() % length);
+            int[] taken = new int[length];
+            int remaining = quantity;
+            for (int i = 0; i < length && remaining > 0; i++) {
+                int index = (start + i) % length;
+                while (remaining > 0) {
+                    int current = stripes.get(index);
+                    if (current <= 0) {
+                        break;
+                    }
+                    int take = Math.min(current, remaining);
+                    if (stripes.compareAndSet(index, current, current - take)) {
+                        taken[index] += take;
+                        remaining -= take;
+                    }
+                }
+            }
+            if (remaining > 0) {
+                for (int i = 0; i < length; i++) {
+                    if (taken[i] > 0) {
+                        stripes.addAndGet(i, taken[i]);
+                    }
+                }
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 归还库存（需已进入计数器）
+         */
+        void release(int quantity) {
+            stripes.addAndGet((int) (Thread.currentThread().getId() % stripes.length()), quantity);
+        }
+
+        void close() {
+            closed = true;
+            while (inFlight.get() > 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
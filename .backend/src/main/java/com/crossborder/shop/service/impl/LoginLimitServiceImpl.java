@@ -0,0 +1,88 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.common.ResultCode;
+import com.crossborder.shop.exception.BusinessException;
+import com.crossborder.shop.service.LoginLimitService;
+import com.crossborder.shop.util.TinyLfuCache;
+import com.crossborder.shop.util.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 登录限流服务实现
+ * 令牌桶保存在有界缓存中，长期不活跃的IP/用户名会被淘汰，淘汰后重新获得满桶。
+ * 失败计数按（用户名, IP）区分：准入时只检查是否还有令牌，登录失败后才扣减
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Service
+public class LoginLimitServiceImpl implements LoginLimitService {
+
+    @Value("${security.login-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.login-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${security.login-limit.ip.refill-per-minute:20}")
+    private int ipRefillPerMinute;
+
+    @Value("${security.login-limit.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${security.login-limit.username.refill-per-minute:5}")
+    private int usernameRefillPerMinute;
+
+    @Value("${security.login-limit.maximum-keys:100000}")
+    private int maximumKeys;
+
+    private TinyLfuCache<String, TokenBucket> ipBuckets;
+
+    /**
+     * 键为 小写用户名 + IP
+     */
+    private TinyLfuCache<String, TokenBucket> failureBuckets;
+
+    @PostConstruct
+    public void init() {
+        ipBuckets = new TinyLfuCache<>(maximumKeys);
+        failureBuckets = new TinyLfuCache<>(maximumKeys);
+    }
+
+    @Override
+    public void acquire(String clientIp, String username) {
+        if (!enabled) {
+            return;
+        }
+        if (clientIp != null
+                && !ipBuckets.get(clientIp, ip -> new TokenBucket(ipCapacity, ipRefillPerMinute)).tryAcquire()) {
+            log.warn("登录请求过于频繁: ip={}", clientIp);
+            throw new BusinessException(ResultCode.TOO_MANY_REQUESTS, "登录尝试过于频繁，请稍后重试");
+        }
+        TokenBucket failures = failureBuckets.getIfPresent(failureKey(clientIp, username));
+        if (failures != null && !failures.hasToken()) {
+            log.warn("登录失败次数过多: username={}, ip={}", username, clientIp);
+            throw new BusinessException(ResultCode.TOO_MANY_REQUESTS, "登录尝试过于频繁，请稍后重试");
+        }
+    }
+
+    @Override
+    public void recordFailure(String clientIp, String username) {
+        if (!enabled) {
+            return;
+        }
+        failureBuckets.get(failureKey(clientIp, username),
+                k -> new TokenBucket(usernameCapacity, usernameRefillPerMinute)).tryAcquire();
+    }
+
+    /**
+     * 用户名不区分大小写，避免通过大小写变体绕过限制
+     */
+    private static String failureKey(String clientIp, String username) {
+        return username.toLowerCase() + "|" + (clientIp == null ? "" : clientIp);
+    }
+}
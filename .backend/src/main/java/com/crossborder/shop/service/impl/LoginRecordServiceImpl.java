@@ -0,0 +1,73 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.User;
+import com.crossborder.shop.mapper.UserMapper;
+import com.crossborder.shop.service.LoginRecordService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 登录记录服务实现
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginRecordServiceImpl implements LoginRecordService {
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final UserMapper userMapper;
+
+    /**
+     * 用户ID -> 最近一次登录（含时间和IP）
+     */
+    private final Map<Long, User> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(Long userId, String clientIp) {
+        User record = new User();
+        record.setId(userId);
+        record.setLastLoginTime(LocalDateTime.now());
+        record.setLastLoginIp(clientIp);
+        pending.put(userId, record);
+    }
+
+    @Override
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${user.login-record.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<User> records = new ArrayList<>(pending.size());
+        for (Map.Entry<Long, User> entry : pending.entrySet()) {
+            // 只移除已取出的记录，期间同一用户的新记录留到下一轮
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                records.add(entry.getValue());
+            }
+        }
+        for (int from = 0; from < records.size(); from += FLUSH_BATCH_SIZE) {
+            List<User> batch = records.subList(from, Math.min(from + FLUSH_BATCH_SIZE, records.size()));
+            try {
+                userMapper.batchUpdateLastLogin(batch);
+            } catch (Exception e) {
+                // 放回缓冲等待下一轮，已有更新的记录不覆盖
+                batch.forEach(record -> pending.putIfAbsent(record.getId(), record));
+                log.error("登录记录回写失败: users={}", batch.size(), e);
+            }
+        }
+        log.debug("登录记录回写完成: users={}", records.size());
+    }
+}
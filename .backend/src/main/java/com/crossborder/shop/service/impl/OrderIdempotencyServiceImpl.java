@@ -0,0 +1,180 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.common.ResultCode;
+import com.crossborder.shop.exception.BusinessException;
+import com.crossborder.shop.mapper.OrderIdempotencyMapper;
+import com.crossborder.shop.service.OrderIdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 下单幂等服务实现
+ * 已完成的幂等键缓存在本地有界LRU中，未命中时查询tb_order_idempotency；
+ * 本节点的并发重复请求等待首个请求的结果，其他节点的并发请求由幂等表唯一键串行化
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderIdempotencyServiceImpl implements OrderIdempotencyService {
+
+    /**
+     * 幂等键最大长度，与tb_order_idempotency.idempotency_key一致
+     */
+    private static final int MAX_KEY_LENGTH = 64;
+
+    /**
+     * 每次清理删除的最大行数
+     */
+    private static final int CLEANUP_BATCH_SIZE = 1000;
+
+    private final OrderIdempotencyMapper orderIdempotencyMapper;
+
+    @Value("${order.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${order.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${order.idempotency.retention-hours:24}")
+    private int retentionHours;
+
+    /**
+     * 已完成的幂等键：userId:key -> 订单ID（按访问顺序淘汰）
+     */
+    private final Map<String, Long> completed = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    /**
+     * 本节点正在执行的幂等键
+     */
+    private final Map<String, CompletableFuture<Long>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public Long submit(Long userId, String idempotencyKey, Supplier<Long> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "Idempotency-Key长度必须在1~" + MAX_KEY_LENGTH + "之间");
+        }
+        String cacheKey = userId + ":" + idempotencyKey;
+
+        while (true) {
+            Long orderId = getCompleted(cacheKey);
+            if (orderId != null) {
+                log.info("重复下单请求，返回原订单: userId={}, idempotencyKey={}, orderId={}",
+                        userId, idempotencyKey, orderId);
+                return orderId;
+            }
+
+            CompletableFuture<Long> attempt = new CompletableFuture<>();
+            CompletableFuture<Long> running = inFlight.putIfAbsent(cacheKey, attempt);
+            if (running != null) {
+                // 首个请求失败时不缓存结果，重新竞争执行
+                orderId = await(running);
+                if (orderId != null) {
+                    return orderId;
+                }
+                continue;
+            }
+
+            try {
+                orderId = execute(userId, idempotencyKey, action);
+                putCompleted(cacheKey, orderId);
+                attempt.complete(orderId);
+                return orderId;
+            } catch (RuntimeException e) {
+                attempt.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(cacheKey, attempt);
+            }
+        }
+    }
+
+    /**
+     * 定时清理过期的幂等记录
+     */
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-interval-ms:3600000}")
+    public void cleanupExpired() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        int deleted;
+        int total = 0;
+        do {
+            deleted = orderIdempotencyMapper.deleteExpired(before, CLEANUP_BATCH_SIZE);
+            total += deleted;
+        } while (deleted >= CLEANUP_BATCH_SIZE);
+        if (total > 0) {
+            log.info("清理过期下单幂等记录: count={}", total);
+        }
+    }
+
+    private Long execute(Long userId, String idempotencyKey, Supplier<Long> action) {
+        Long orderId = orderIdempotencyMapper.selectOrderId(userId, idempotencyKey);
+        if (orderId != null) {
+            log.info("重复下单请求，返回原订单: userId={}, idempotencyKey={}, orderId={}",
+                    userId, idempotencyKey, orderId);
+            return orderId;
+        }
+        try {
+            return action.get();
+        } catch (DuplicateKeyException e) {
+            // 其他节点已用相同幂等键下单并提交
+            orderId = orderIdempotencyMapper.selectOrderId(userId, idempotencyKey);
+            if (orderId == null) {
+                throw new BusinessException(ResultCode.CONFLICT, "订单正在处理中，请稍后重试");
+            }
+            log.info("重复下单请求，返回其他节点创建的订单: userId={}, idempotencyKey={}, orderId={}",
+                    userId, idempotencyKey, orderId);
+            return orderId;
+        }
+    }
+
+    /**
+     * 等待本节点正在执行的相同请求
+     *
+     * @return 订单ID，首个请求失败时返回null
+     */
+    private Long await(CompletableFuture<Long> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new BusinessException(ResultCode.CONFLICT, "订单正在处理中，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ResultCode.CONFLICT, "订单正在处理中，请稍后重试");
+        }
+    }
+
+    private Long getCompleted(String cacheKey) {
+        synchronized (completed) {
+            return completed.get(cacheKey);
+        }
+    }
+
+    private void putCompleted(String cacheKey, Long orderId) {
+        synchronized (completed) {
+            completed.put(cacheKey, orderId);
+        }
+    }
+}
@@ -1,30 +1,42 @@
 package com.crossborder.shop.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
+import com.crossborder.shop.common.PageCursor;
+import com.crossborder.shop.common.PageResult;
 import com.crossborder.shop.common.ResultCode;
 import com.crossborder.shop.dto.CreateOrderDTO;
 import com.crossborder.shop.dto.OrderShipDTO;
 import com.crossborder.shop.entity.*;
+import com.crossborder.shop.event.OrderCreatedEvent;
+import com.crossborder.shop.event.OrderStatusChangedEvent;
 import com.crossborder.shop.exception.BusinessException;
 import com.crossborder.shop.mapper.*;
+import com.crossborder.shop.service.CartService;
+import com.crossborder.shop.service.ExchangeRateService;
+import com.crossborder.shop.service.HotStockService;
 import com.crossborder.shop.service.LogisticsService;
 import com.crossborder.shop.service.OrderService;
+import com.crossborder.shop.service.ProductService;
 import com.crossborder.shop.service.SettingsService;
 import com.crossborder.shop.util.OrderNumberGenerator;
 import com.crossborder.shop.vo.OrderAddressVO;
 import com.crossborder.shop.vo.OrderItemVO;
 import com.crossborder.shop.vo.OrderVO;
-import com.crossborder.shop.vo.SystemSettingVO;
+import com.github.pagehelper.PageHelper;
+import com.github.pagehelper.PageInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -59,13 +71,20 @@ public class OrderServiceImpl implements OrderService {
     private final CartItemMapper cartItemMapper;
     private final ProductMapper productMapper;
     private final LogisticsCompanyMapper logisticsCompanyMapper;
-    private final ExchangeRateMapper exchangeRateMapper;
     private final LogisticsService logisticsService;
     private final OrderNumberGenerator orderNumberGenerator;
     private final SettingsService settingsService;
-
-    @Value("${order.stock-retry-times:3}")
-    private int stockRetryTimes;
+    private final ExchangeRateService exchangeRateService;
+    private final HotStockService hotStockService;
+    private final ProductService productService;
+    private final CartService cartService;
+    private final OrderTimeoutTaskMapper orderTimeoutTaskMapper;
+    private final OrderIdempotencyMapper orderIdempotencyMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderStateMachine orderStateMachine;
+
+    @Value("${order.timeout-minutes:15}")
+    private int orderTimeoutMinutes;
 
     /**
      * 创建订单 - 11步核心流程
@@ -73,6 +92,23 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Long createOrder(Long userId, CreateOrderDTO dto) {
+        return createOrder(userId, dto, null);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Long createOrder(Long userId, CreateOrderDTO dto, String idempotencyKey) {
+        // 购物车写回模式下先回写内存中的变更，须在本事务首次查询（建立一致性读视图）之前完成
+        cartService.flushPendingChanges(userId);
+
+        // 0. 先登记幂等键，重复提交在扣减库存前即被唯一键拦截
+        if (idempotencyKey != null) {
+            OrderIdempotency idempotency = new OrderIdempotency();
+            idempotency.setUserId(userId);
+            idempotency.setIdempotencyKey(idempotencyKey);
+            orderIdempotencyMapper.insert(idempotency);
+        }
+
         // 1. 校验收货地址
         ShippingAddress address = shippingAddressMapper.selectById(dto.getAddressId());
         if (address == null) {
@@ -102,174 +138,53 @@ public class OrderServiceImpl implements OrderService {
         // 3. 生成订单号
         String orderNumber = orderNumberGenerator.generateOrderNumber(userId);
 
-        // 4. 循环扣减库存（乐观锁重试）
-        List<OrderItem> orderItems = new ArrayList<>();
-        Long sellerId = null;
-        BigDecimal productAmount = BigDecimal.ZERO;
+        // 4. 批量查询商品并一次性扣减库存
+        Map<Long, Integer> quantityMap = useProductIds
+                ? countProductQuantities(dto.getProductIds())
+                : sumCartQuantities(cartItems);
+        Map<Long, Product> productMap = loadOrderProducts(quantityMap.keySet());
 
-        if (useProductIds) {
-            Map<Long, Integer> quantityMap = new HashMap<>();
-            for (Long productId : dto.getProductIds()) {
-                if (productId == null) {
-                    continue;
-                }
-                quantityMap.put(productId, quantityMap.getOrDefault(productId, 0) + 1);
+        Long sellerId = null;
+        for (Long productId : quantityMap.keySet()) {
+            Product product = productMap.get(productId);
+            // 记录卖家ID（简化处理：假设一个订单只有一个卖家）
+            if (sellerId == null) {
+                sellerId = product.getSellerId();
+            } else if (useProductIds && !sellerId.equals(product.getSellerId())) {
+                throw new BusinessException(ResultCode.BAD_REQUEST, "一次下单只能包含同一卖家的商品");
             }
+        }
 
-            if (quantityMap.isEmpty()) {
-                throw new BusinessException(ResultCode.BAD_REQUEST, "商品列表为空");
-            }
+        deductStock(quantityMap, productMap);
 
+        // 构建订单明细
+        List<OrderItem> orderItems = new ArrayList<>();
+        BigDecimal productAmount = BigDecimal.ZERO;
+        if (useProductIds) {
             for (Map.Entry<Long, Integer> entry : quantityMap.entrySet()) {
-                Long productId = entry.getKey();
-                Integer quantity = entry.getValue();
-                Product product = productMapper.selectById(productId);
-                if (product == null) {
-                    throw new BusinessException(ResultCode.PRODUCT_NOT_EXISTS);
-                }
-
-                // 校验商品状态
-                if (!product.getOnShelf()) {
-                    throw new BusinessException(ResultCode.PRODUCT_OFF_SHELF, "商品已下架: " + product.getName());
-                }
-
-                // 记录卖家ID（简化处理：假设一个订单只有一个卖家）
-                if (sellerId == null) {
-                    sellerId = product.getSellerId();
-                } else if (!sellerId.equals(product.getSellerId())) {
-                    throw new BusinessException(ResultCode.BAD_REQUEST, "一次下单只能包含同一卖家的商品");
-                }
-
-                // 乐观锁扣减库存（带重试）
-                boolean success = false;
-                for (int i = 0; i < stockRetryTimes; i++) {
-                    int updated = productMapper.decreaseStock(
-                            product.getId(),
-                            quantity,
-                            product.getVersion());
-
-                    if (updated > 0) {
-                        success = true;
-                        break;
-                    }
-
-                    // 重新查询最新版本
-                    product = productMapper.selectById(product.getId());
-                    if (product.getStock() < quantity) {
-                        throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH,
-                                "商品库存不足: " + product.getName());
-                    }
-
-                    // 指数退避
-                    try {
-                        Thread.sleep(50 * (1L << i)); // 50ms, 100ms, 200ms
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "库存扣减失败");
-                    }
-                }
-
-                if (!success) {
-                    throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH, "库存扣减失败，请重试");
-                }
-
-                // 构建订单明细
-                OrderItem orderItem = new OrderItem();
-                orderItem.setProductId(product.getId());
-                orderItem.setProductName(product.getName());
-                orderItem.setOrderNumber(orderNumber);
-                orderItem.setProductCode(product.getProductCode());
-                orderItem.setImageUrl(product.getImage());
-                orderItem.setSkuId(null);
-                orderItem.setSkuName(null);
-                orderItem.setPrice(product.getPrice());
-                orderItem.setQuantity(quantity);
-                orderItem.setTotalPrice(product.getPrice().multiply(new BigDecimal(quantity)));
-                orderItem.setCreateBy(userId);
-                orderItem.setUpdateBy(userId);
-
+                OrderItem orderItem = buildOrderItem(productMap.get(entry.getKey()), null,
+                        entry.getValue(), orderNumber, userId);
                 orderItems.add(orderItem);
                 productAmount = productAmount.add(orderItem.getTotalPrice());
             }
         } else {
             for (CartItem cartItem : cartItems) {
-                Product product = productMapper.selectById(cartItem.getProductId());
-                if (product == null) {
-                    throw new BusinessException(ResultCode.PRODUCT_NOT_EXISTS);
-                }
-
-                // 校验商品状态
-                if (!product.getOnShelf()) {
-                    throw new BusinessException(ResultCode.PRODUCT_OFF_SHELF, "商品已下架: " + product.getName());
-                }
-
-                // 乐观锁扣减库存（带重试）
-                boolean success = false;
-                for (int i = 0; i < stockRetryTimes; i++) {
-                    int updated = productMapper.decreaseStock(
-                            product.getId(),
-                            cartItem.getQuantity(),
-                            product.getVersion());
-
-                    if (updated > 0) {
-                        success = true;
-                        break;
-                    }
-
-                    // 重新查询最新版本
-                    product = productMapper.selectById(product.getId());
-                    if (product.getStock() < cartItem.getQuantity()) {
-                        throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH,
-                                "商品库存不足: " + product.getName());
-                    }
-
-                    // 指数退避
-                    try {
-                        Thread.sleep(50 * (1L << i)); // 50ms, 100ms, 200ms
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "库存扣减失败");
-                    }
-                }
-
-                if (!success) {
-                    throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH, "库存扣减失败，请重试");
-                }
-
-                // 记录卖家ID（简化处理：假设一个订单只有一个卖家）
-                if (sellerId == null) {
-                    sellerId = product.getSellerId();
-                }
-
-                // 构建订单明细
-                OrderItem orderItem = new OrderItem();
-                orderItem.setProductId(product.getId());
-                orderItem.setProductName(product.getName());
-                orderItem.setOrderNumber(orderNumber);
-                orderItem.setProductCode(product.getProductCode());
-                orderItem.setImageUrl(product.getImage());
-                orderItem.setSkuId(cartItem.getSkuId());
-                orderItem.setSkuName(null);
-                orderItem.setPrice(product.getPrice());
-                orderItem.setQuantity(cartItem.getQuantity());
-                orderItem.setTotalPrice(product.getPrice().multiply(new BigDecimal(cartItem.getQuantity())));
-                orderItem.setCreateBy(userId);
-                orderItem.setUpdateBy(userId);
-
+                OrderItem orderItem = buildOrderItem(productMap.get(cartItem.getProductId()), cartItem.getSkuId(),
+                        cartItem.getQuantity(), orderNumber, userId);
                 orderItems.add(orderItem);
                 productAmount = productAmount.add(orderItem.getTotalPrice());
             }
         }
 
-        // 5. 计算汇率转换 - 从汇率表查询并转换
+        // 5. 计算汇率转换 - 从内存汇率矩阵查询并转换
         BigDecimal exchangeRate = BigDecimal.ONE;
         BigDecimal convertedAmount = productAmount;
 
         if (dto.getTargetCurrency() != null && !dto.getTargetCurrency().equals("CNY")) {
             // 从CNY转换到目标币种，查询CNY->目标币种的汇率
-            ExchangeRate rate = exchangeRateMapper.selectByPair("CNY", dto.getTargetCurrency());
+            BigDecimal rate = exchangeRateService.findExchangeRate("CNY", dto.getTargetCurrency());
             if (rate != null) {
-                exchangeRate = rate.getRate();
+                exchangeRate = rate;
                 convertedAmount = productAmount.multiply(exchangeRate);
                 log.debug("汇率转换: productAmount={}, exchangeRate={}, convertedAmount={}",
                         productAmount, exchangeRate, convertedAmount);
@@ -329,44 +244,176 @@ public class OrderServiceImpl implements OrderService {
         orderAddress.setUpdateBy(userId);
         orderAddressMapper.insert(orderAddress);
 
-        // 9. 超时取消由定时任务自动扫描处理
+        // 9. 登记超时任务，事务提交后加入超时时间轮
+        OrderTimeoutTask timeoutTask = new OrderTimeoutTask();
+        timeoutTask.setOrderId(order.getId());
+        timeoutTask.setOrderNumber(orderNumber);
+        timeoutTask.setUserId(userId);
+        timeoutTask.setTimeoutTime(LocalDateTime.now().plusMinutes(orderTimeoutMinutes));
+        orderTimeoutTaskMapper.insert(timeoutTask);
+        eventPublisher.publishEvent(new OrderCreatedEvent(order.getId(), timeoutTask.getTimeoutTime()));
 
         // 10. 清空购物车选中商品
         if (!useProductIds) {
-            for (CartItem item : cartItems) {
-                cartItemMapper.deleteById(item.getId());
-            }
+            cartItemMapper.deleteByIds(userId,
+                    cartItems.stream().map(CartItem::getId).collect(Collectors.toList()));
+            cartService.evictCartCache(userId);
         }
 
         // 购物车总价/总数改为查询时动态计算
 
+        // 11. 回填幂等记录的订单ID
+        if (idempotencyKey != null) {
+            orderIdempotencyMapper.updateOrderId(userId, idempotencyKey, order.getId());
+        }
+
         log.info("订单创建成功: orderId={}, orderNumber={}, userId={}, totalAmount={}",
                 order.getId(), orderNumber, userId, totalAmount);
 
         return order.getId();
     }
 
-    private BigDecimal resolveFreightAmount(BigDecimal productAmount) {
-        BigDecimal defaultFee = new BigDecimal("10");
-        BigDecimal freeThreshold = null;
+    /**
+     * 统计直接下单的商品数量（同一商品出现多次即购买多件）
+     */
+    private Map<Long, Integer> countProductQuantities(List<Long> productIds) {
+        Map<Long, Integer> quantityMap = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            if (productId == null) {
+                continue;
+            }
+            quantityMap.merge(productId, 1, Integer::sum);
+        }
+        if (quantityMap.isEmpty()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "商品列表为空");
+        }
+        return quantityMap;
+    }
+
+    /**
+     * 按商品汇总购物车明细数量（同一商品的多个SKU合并扣减）
+     */
+    private Map<Long, Integer> sumCartQuantities(List<CartItem> cartItems) {
+        Map<Long, Integer> quantityMap = new LinkedHashMap<>();
+        for (CartItem cartItem : cartItems) {
+            quantityMap.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+        }
+        return quantityMap;
+    }
+
+    /**
+     * 一次查询订单涉及的全部商品，校验存在性与上架状态
+     * 普通商品在本事务内加锁，热点商品库存由内存引擎扣减，不锁数据库行；
+     * 由其他节点引擎托管的热销商品拒绝下单，避免数据库扣减与内存扣减各扣各的超卖
+     */
+    private Map<Long, Product> loadOrderProducts(Collection<Long> productIds) {
+        List<Long> hotIds = new ArrayList<>();
+        List<Long> coldIds = new ArrayList<>();
+        for (Long productId : productIds) {
+            (hotStockService.isManaged(productId) ? hotIds : coldIds).add(productId);
+        }
+
+        List<Product> products = new ArrayList<>();
+        if (!coldIds.isEmpty()) {
+            products.addAll(productMapper.selectByIdsForUpdate(coldIds));
+        }
+        if (!hotIds.isEmpty()) {
+            products.addAll(productMapper.selectByIds(hotIds));
+        }
+        Map<Long, Product> productMap = products.stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+        for (Long productId : productIds) {
+            Product product = productMap.get(productId);
+            if (product == null) {
+                throw new BusinessException(ResultCode.PRODUCT_NOT_EXISTS);
+            }
+            if (!product.getOnShelf()) {
+                throw new BusinessException(ResultCode.PRODUCT_OFF_SHELF, "商品已下架: " + product.getName());
+            }
+            if (hotStockService.isReservedForEngine(product)) {
+                throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "热销商品库存同步中，请稍后重试: " + product.getName());
+            }
+        }
+        return productMap;
+    }
+
+    /**
+     * 扣减全部明细库存
+     * 普通商品行已在本事务内锁定，库存不足的明细在更新前全部列出，再以单条条件更新扣减；
+     * 热点商品在内存中扣减，事务回滚时自动归还
+     */
+    private void deductStock(Map<Long, Integer> quantityMap, Map<Long, Product> productMap) {
+        productService.deleteProductCache(quantityMap.keySet());
+        Map<Long, Integer> hotQuantities = new LinkedHashMap<>();
+        Map<Long, Integer> coldQuantities = new LinkedHashMap<>();
+        quantityMap.forEach((productId, quantity) ->
+                (hotStockService.isManaged(productId) ? hotQuantities : coldQuantities).put(productId, quantity));
+
+        List<String> shortageNames = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : coldQuantities.entrySet()) {
+            Product product = productMap.get(entry.getKey());
+            if (product.getStock() == null || product.getStock() < entry.getValue()) {
+                shortageNames.add(product.getName());
+            }
+        }
+        if (!shortageNames.isEmpty()) {
+            throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH,
+                    "商品库存不足: " + String.join(", ", shortageNames));
+        }
 
-        try {
-            SystemSettingVO feeSetting = settingsService.getSettingByKey("shipping.fee");
-            if (feeSetting != null && feeSetting.getSettingValue() != null) {
-                defaultFee = new BigDecimal(feeSetting.getSettingValue());
+        if (!coldQuantities.isEmpty()) {
+            int updated = productMapper.batchDecreaseStock(coldQuantities);
+            if (updated != coldQuantities.size()) {
+                log.warn("批量扣减库存失败: expected={}, updated={}", coldQuantities.size(), updated);
+                throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH, "库存扣减失败，请重试");
             }
-        } catch (Exception e) {
-            log.warn("获取运费配置失败，使用默认值: {}", defaultFee);
         }
 
-        try {
-            SystemSettingVO thresholdSetting = settingsService.getSettingByKey("shipping.free.threshold");
-            if (thresholdSetting != null && thresholdSetting.getSettingValue() != null) {
-                freeThreshold = new BigDecimal(thresholdSetting.getSettingValue());
+        if (!hotQuantities.isEmpty()) {
+            List<Long> failedIds = hotStockService.tryDeduct(hotQuantities);
+            if (!failedIds.isEmpty()) {
+                throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH, "商品库存不足: "
+                        + failedIds.stream().map(id -> productMap.get(id).getName()).collect(Collectors.joining(", ")));
             }
-        } catch (Exception e) {
-            log.warn("获取免邮阈值失败，将忽略免邮逻辑");
         }
+    }
+
+    /**
+     * 恢复订单明细库存
+     * 按商品汇总数量，热点商品归还到内存引擎，其余商品以单条批量更新恢复
+     */
+    private void restoreStock(List<OrderItem> items) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        productService.deleteProductCache(quantities.keySet());
+        quantities.entrySet().removeIf(entry -> hotStockService.release(entry.getKey(), entry.getValue()));
+        if (!quantities.isEmpty()) {
+            productMapper.batchIncreaseStock(quantities);
+        }
+    }
+
+    private OrderItem buildOrderItem(Product product, Long skuId, Integer quantity, String orderNumber, Long userId) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setProductId(product.getId());
+        orderItem.setProductName(product.getName());
+        orderItem.setOrderNumber(orderNumber);
+        orderItem.setProductCode(product.getProductCode());
+        orderItem.setImageUrl(product.getImage());
+        orderItem.setSkuId(skuId);
+        orderItem.setSkuName(null);
+        orderItem.setPrice(product.getPrice());
+        orderItem.setQuantity(quantity);
+        orderItem.setTotalPrice(product.getPrice().multiply(new BigDecimal(quantity)));
+        orderItem.setCreateBy(userId);
+        orderItem.setUpdateBy(userId);
+        return orderItem;
+    }
+
+    private BigDecimal resolveFreightAmount(BigDecimal productAmount) {
+        BigDecimal defaultFee = settingsService.getDecimalConfig("shipping.fee", new BigDecimal("10"));
+        BigDecimal freeThreshold = settingsService.getDecimalConfig("shipping.free.threshold", null);
 
         if (freeThreshold != null && productAmount != null && productAmount.compareTo(freeThreshold) >= 0) {
             return BigDecimal.ZERO;
@@ -381,36 +428,45 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void cancelTimeoutOrder(Long orderId) {
-        Order order = orderMapper.selectById(orderId);
-        if (order == null) {
-            log.warn("订单不存在，无法取消: orderId={}", orderId);
-            return;
+        cancelTimeoutOrders(List.of(orderId));
+    }
+
+    /**
+     * 批量取消超时订单
+     * 锁定仍为待支付的订单后，一条条件更新翻转状态，按商品汇总后一次恢复库存
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int cancelTimeoutOrders(List<Long> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return 0;
         }
 
-        // 只有待支付状态才能超时取消
-        if (order.getOrderStatus() == null || order.getOrderStatus() != ORDER_STATUS_PENDING_PAYMENT) {
-            log.info("订单状态不是待支付，无需超时取消: orderId={}, status={}", orderId, order.getOrderStatus());
-            return;
+        List<Long> pendingIds = orderMapper.selectPendingIdsForUpdate(orderIds);
+        if (pendingIds.size() < orderIds.size()) {
+            // 已支付/已取消/不存在的订单无需超时取消，结束其任务
+            List<Long> closedIds = new ArrayList<>(orderIds);
+            closedIds.removeAll(pendingIds);
+            orderTimeoutTaskMapper.batchFinish(closedIds, OrderTimeoutTask.STATUS_CANCELLED);
+            log.info("订单已不是待支付状态，无需超时取消: orderIds={}", closedIds);
+        }
+        if (pendingIds.isEmpty()) {
+            return 0;
         }
 
         // 恢复库存
-        List<OrderItem> items = orderItemMapper.selectByOrderId(orderId);
-        for (OrderItem item : items) {
-            Product product = productMapper.selectById(item.getProductId());
-            if (product != null) {
-                product.setStock(product.getStock() + item.getQuantity());
-                productMapper.updateById(product);
-            }
-        }
+        restoreStock(orderItemMapper.selectByOrderIds(pendingIds));
 
         // 更新订单状态
-        order.setOrderStatus(ORDER_STATUS_CANCELLED);
-        order.setPaymentStatus(PAYMENT_STATUS_UNPAID);
-        order.setCancelTime(LocalDateTime.now());
-        order.setCancelReason("超时未支付，系统自动取消");
-        orderMapper.updateById(order);
+        int cancelled = orderMapper.batchCancelPending(pendingIds, "超时未支付，系统自动取消");
+        orderTimeoutTaskMapper.batchFinish(pendingIds, OrderTimeoutTask.STATUS_PROCESSED);
+        for (Long orderId : pendingIds) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId,
+                    ORDER_STATUS_PENDING_PAYMENT, ORDER_STATUS_CANCELLED));
+        }
 
-        log.info("订单超时取消成功: orderId={}, orderNumber={}", orderId, order.getOrderNumber());
+        log.info("订单超时取消成功: count={}", cancelled);
+        return cancelled;
     }
 
     /**
@@ -419,37 +475,19 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void cancelOrder(Long userId, Long orderId, String reason) {
-        Order order = orderMapper.selectById(orderId);
-        if (order == null) {
-            throw new BusinessException(ResultCode.ORDER_NOT_FOUND);
-        }
-
-        // 校验权限
-        if (!order.getBuyerId().equals(userId)) {
-            throw new BusinessException(ResultCode.FORBIDDEN, "无权取消该订单");
-        }
-
-        // 只有待支付状态才能取消
-        if (order.getOrderStatus() == null || order.getOrderStatus() != ORDER_STATUS_PENDING_PAYMENT) {
-            throw new BusinessException(ResultCode.ORDER_CANNOT_CANCEL);
-        }
+        // 只有待支付状态才能取消，条件更新失败说明已被支付或超时取消
+        Order changes = new Order();
+        changes.setPaymentStatus(PAYMENT_STATUS_UNPAID);
+        changes.setCancelTime(LocalDateTime.now());
+        changes.setCancelReason(reason);
+        changes.setUpdateBy(userId);
+        OrderStateMachine.Outcome outcome = orderStateMachine.fire(orderId, OrderStateMachine.Transition.CANCEL,
+                userId, null, changes);
+        checkTransition(outcome, "无权取消该订单", ResultCode.ORDER_CANNOT_CANCEL);
 
         // 恢复库存
-        List<OrderItem> items = orderItemMapper.selectByOrderId(orderId);
-        for (OrderItem item : items) {
-            Product product = productMapper.selectById(item.getProductId());
-            if (product != null) {
-                product.setStock(product.getStock() + item.getQuantity());
-                productMapper.updateById(product);
-            }
-        }
-
-        // 更新订单状态
-        order.setOrderStatus(ORDER_STATUS_CANCELLED);
-        order.setPaymentStatus(PAYMENT_STATUS_UNPAID);
-        order.setCancelTime(LocalDateTime.now());
-        order.setCancelReason(reason);
-        orderMapper.updateById(order);
+        restoreStock(orderItemMapper.selectByOrderId(orderId));
+        orderTimeoutTaskMapper.finish(orderId, OrderTimeoutTask.STATUS_CANCELLED);
 
         log.info("买家取消订单成功: orderId={}, userId={}, reason={}", orderId, userId, reason);
     }
@@ -460,28 +498,16 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void payOrder(Long userId, Long orderId) {
-        Order order = orderMapper.selectById(orderId);
-        if (order == null) {
-            throw new BusinessException(ResultCode.ORDER_NOT_FOUND);
-        }
+        // 与超时取消竞争时只有一方能将订单迁出待支付状态
+        Order changes = new Order();
+        changes.setPaymentStatus(PAYMENT_STATUS_PAID);
+        changes.setPaymentTime(LocalDateTime.now());
+        changes.setUpdateBy(userId);
+        OrderStateMachine.Outcome outcome = orderStateMachine.fire(orderId, OrderStateMachine.Transition.PAY,
+                userId, null, changes);
+        checkTransition(outcome, "无权操作该订单", ResultCode.ORDER_STATUS_ERROR);
 
-        // 校验权限
-        if (!order.getBuyerId().equals(userId)) {
-            throw new BusinessException(ResultCode.FORBIDDEN, "无权操作该订单");
-        }
-
-        // 校验状态
-        if (order.getOrderStatus() == null || order.getOrderStatus() != ORDER_STATUS_PENDING_PAYMENT) {
-            throw new BusinessException(ResultCode.ORDER_STATUS_ERROR, "订单状态不正确");
-        }
-
-        // 处理支付逻辑
-
-        // 支付相关逻辑
-        order.setOrderStatus(ORDER_STATUS_PENDING_SHIPMENT);
-        order.setPaymentStatus(PAYMENT_STATUS_PAID);
-        order.setPaymentTime(LocalDateTime.now());
-        orderMapper.updateById(order);
+        orderTimeoutTaskMapper.finish(orderId, OrderTimeoutTask.STATUS_CANCELLED);
 
         log.info("订单支付成功: orderId={}, userId={}", orderId, userId);
     }
@@ -500,24 +526,9 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void shipOrder(Long sellerId, Long orderId, OrderShipDTO dto) {
-        Order order = orderMapper.selectById(orderId);
-        if (order == null) {
-            throw new BusinessException(ResultCode.ORDER_NOT_FOUND);
-        }
-
-        // 校验权限
-        if (!order.getSellerId().equals(sellerId)) {
-            throw new BusinessException(ResultCode.FORBIDDEN, "无权操作该订单");
-        }
-
-        // 校验状态
-        if (order.getOrderStatus() == null || order.getOrderStatus() != ORDER_STATUS_PENDING_SHIPMENT) {
-            throw new BusinessException(ResultCode.ORDER_STATUS_ERROR, "订单状态不正确");
-        }
-
-        // 更新订单状态
-        order.setOrderStatus(ORDER_STATUS_SHIPPED);
-        order.setShipTime(LocalDateTime.now());
+        Order changes = new Order();
+        changes.setShipTime(LocalDateTime.now());
+        changes.setUpdateBy(sellerId);
         if (dto != null) {
             String companyCode = dto.getShippingCompanyCode();
             if (companyCode != null && !companyCode.isBlank()) {
@@ -525,25 +536,27 @@ public class OrderServiceImpl implements OrderService {
                 if (company == null || company.getStatus() == null || company.getStatus() != 1) {
                     throw new BusinessException(ResultCode.LOGISTICS_NOT_FOUND);
                 }
-                order.setLogisticsCompany(company.getCompanyName());
+                changes.setLogisticsCompany(company.getCompanyName());
                 if (dto.getTrackingNo() == null || dto.getTrackingNo().isBlank()) {
-                    order.setTrackingNo(logisticsService.generateTrackingNo(companyCode));
+                    changes.setTrackingNo(logisticsService.generateTrackingNo(companyCode));
                 } else {
-                    order.setTrackingNo(dto.getTrackingNo());
+                    changes.setTrackingNo(dto.getTrackingNo());
                 }
             } else {
-                order.setLogisticsCompany(dto.getShippingCompany());
+                changes.setLogisticsCompany(dto.getShippingCompany());
                 if (dto.getTrackingNo() == null || dto.getTrackingNo().isBlank()) {
-                    order.setTrackingNo("LOG" + System.currentTimeMillis());
+                    changes.setTrackingNo("LOG" + System.currentTimeMillis());
                 } else {
-                    order.setTrackingNo(dto.getTrackingNo());
+                    changes.setTrackingNo(dto.getTrackingNo());
                 }
             }
             if (dto.getRemark() != null && !dto.getRemark().isBlank()) {
-                order.setRemark(dto.getRemark());
+                changes.setRemark(dto.getRemark());
             }
         }
-        orderMapper.updateById(order);
+        OrderStateMachine.Outcome outcome = orderStateMachine.fire(orderId, OrderStateMachine.Transition.SHIP,
+                null, sellerId, changes);
+        checkTransition(outcome, "无权操作该订单", ResultCode.ORDER_STATUS_ERROR);
 
         log.info("订单发货成功: orderId={}, sellerId={}", orderId, sellerId);
     }
@@ -554,27 +567,34 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void confirmOrder(Long userId, Long orderId) {
-        Order order = orderMapper.selectById(orderId);
-        if (order == null) {
-            throw new BusinessException(ResultCode.ORDER_NOT_FOUND);
-        }
+        Order changes = new Order();
+        changes.setCompleteTime(LocalDateTime.now());
+        changes.setUpdateBy(userId);
+        OrderStateMachine.Outcome outcome = orderStateMachine.fire(orderId, OrderStateMachine.Transition.CONFIRM,
+                userId, null, changes);
+        checkTransition(outcome, "无权操作该订单", ResultCode.ORDER_STATUS_ERROR);
 
-        // 校验权限
-        if (!order.getBuyerId().equals(userId)) {
-            throw new BusinessException(ResultCode.FORBIDDEN, "无权操作该订单");
-        }
+        log.info("订单确认收货成功: orderId={}, userId={}", orderId, userId);
+    }
 
-        // 校验状态
-        if (order.getOrderStatus() == null || order.getOrderStatus() != ORDER_STATUS_SHIPPED) {
-            throw new BusinessException(ResultCode.ORDER_STATUS_ERROR, "订单状态不正确");
+    /**
+     * 将状态迁移失败转换为业务异常
+     */
+    private void checkTransition(OrderStateMachine.Outcome outcome, String forbiddenMessage,
+            ResultCode statusErrorCode) {
+        switch (outcome) {
+            case SUCCESS:
+                return;
+            case NOT_FOUND:
+                throw new BusinessException(ResultCode.ORDER_NOT_FOUND);
+            case FORBIDDEN:
+                throw new BusinessException(ResultCode.FORBIDDEN, forbiddenMessage);
+            default:
+                if (statusErrorCode == ResultCode.ORDER_STATUS_ERROR) {
+                    throw new BusinessException(ResultCode.ORDER_STATUS_ERROR, "订单状态不正确");
+                }
+                throw new BusinessException(statusErrorCode);
         }
-
-        // 更新订单状态
-        order.setOrderStatus(ORDER_STATUS_COMPLETED);
-        order.setCompleteTime(LocalDateTime.now());
-        orderMapper.updateById(order);
-
-        log.info("订单确认收货成功: orderId={}, userId={}", orderId, userId);
     }
 
     /**
@@ -602,47 +622,168 @@ public class OrderServiceImpl implements OrderService {
     }
 
     /**
-     * 查询买家订单列表
+     * 分页查询买家订单列表
      */
     @Override
-    public List<OrderVO> getBuyerOrders(Long buyerId, Integer orderStatus) {
+    public PageResult<OrderVO> getBuyerOrders(Long buyerId, Integer orderStatus, int pageNum, int pageSize) {
+        PageHelper.startPage(pageNum, pageSize);
         List<Order> orders = orderMapper.selectByBuyerId(buyerId, orderStatus);
-        return orders.stream()
-                .map(this::buildOrderVO)
-                .collect(Collectors.toList());
+        return buildOrderPage(orders);
     }
 
     /**
-     * 查询卖家订单列表
+     * 分页查询卖家订单列表
      */
     @Override
-    public List<OrderVO> getSellerOrders(Long sellerId, Integer orderStatus) {
+    public PageResult<OrderVO> getSellerOrders(Long sellerId, Integer orderStatus, int pageNum, int pageSize) {
+        PageHelper.startPage(pageNum, pageSize);
         List<Order> orders = orderMapper.selectBySellerId(sellerId, orderStatus);
-        return orders.stream()
-                .map(this::buildOrderVO)
-                .collect(Collectors.toList());
+        return buildOrderPage(orders);
+    }
+
+    /**
+     * 游标分页查询买家订单列表
+     */
+    @Override
+    public PageResult<OrderVO> getBuyerOrdersByCursor(Long buyerId, Integer orderStatus, String cursor, int pageSize) {
+        return getOrdersByCursor(buyerId, null, orderStatus, cursor, pageSize);
+    }
+
+    /**
+     * 游标分页查询卖家订单列表
+     */
+    @Override
+    public PageResult<OrderVO> getSellerOrdersByCursor(Long sellerId, Integer orderStatus, String cursor, int pageSize) {
+        return getOrdersByCursor(null, sellerId, orderStatus, cursor, pageSize);
+    }
+
+    private PageResult<OrderVO> getOrdersByCursor(Long buyerId, Long sellerId, Integer orderStatus,
+            String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "每页数量必须大于0");
+        }
+        PageCursor pageCursor = PageCursor.decode(cursor, PageCursor.SORT_CREATE_TIME);
+
+        // 多查一条判断是否还有下一页
+        List<Order> orders = orderMapper.selectCursorList(buyerId, sellerId, orderStatus,
+                pageCursor == null ? null : (LocalDateTime) pageCursor.getValue(),
+                pageCursor == null ? null : pageCursor.getId(),
+                pageSize + 1);
+
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            Order last = orders.get(pageSize - 1);
+            nextCursor = PageCursor.encode(PageCursor.SORT_CREATE_TIME, last.getId(), last.getCreateTime());
+        }
+        return PageResult.cursor(pageSize, buildOrderVOs(orders), nextCursor);
+    }
+
+    private PageResult<OrderVO> buildOrderPage(List<Order> orders) {
+        PageInfo<Order> pageInfo = new PageInfo<>(orders);
+
+        PageResult<OrderVO> pageResult = new PageResult<>();
+        pageResult.setList(buildOrderVOs(orders));
+        pageResult.setTotal(pageInfo.getTotal());
+        pageResult.setPageNum(pageInfo.getPageNum());
+        pageResult.setPageSize(pageInfo.getPageSize());
+        pageResult.setPages(pageInfo.getPages());
+        return pageResult;
     }
 
     /**
      * 构建订单VO
      */
     private OrderVO buildOrderVO(Order order) {
-        OrderVO vo = BeanUtil.copyProperties(order, OrderVO.class);
+        return buildOrderVOs(List.of(order)).get(0);
+    }
+
+    /**
+     * 批量构建订单VO：明细和地址各一次IN查询，在内存中按订单组装
+     */
+    private List<OrderVO> buildOrderVOs(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> orderIds = orders.stream().map(Order::getId).collect(Collectors.toList());
 
-        // 查询订单明细
-        List<OrderItem> items = orderItemMapper.selectByOrderId(order.getId());
-        List<OrderItemVO> itemVOs = items.stream()
-                .map(item -> BeanUtil.copyProperties(item, OrderItemVO.class))
-                .collect(Collectors.toList());
-        vo.setItems(itemVOs);
+        Map<Long, List<OrderItemVO>> itemMap = new HashMap<>();
+        for (OrderItem item : orderItemMapper.selectByOrderIds(orderIds)) {
+            itemMap.computeIfAbsent(item.getOrderId(), k -> new ArrayList<>()).add(toOrderItemVO(item));
+        }
+        Map<Long, OrderAddressVO> addressMap = new HashMap<>();
+        for (OrderAddress address : orderAddressMapper.selectByOrderIds(orderIds)) {
+            addressMap.putIfAbsent(address.getOrderId(), toOrderAddressVO(address));
+        }
 
-        // 查询收货地址
-        OrderAddress address = orderAddressMapper.selectByOrderId(order.getId());
-        if (address != null) {
-            OrderAddressVO addressVO = BeanUtil.copyProperties(address, OrderAddressVO.class);
-            vo.setAddress(addressVO);
+        List<OrderVO> vos = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            OrderVO vo = toOrderVO(order);
+            vo.setItems(itemMap.getOrDefault(order.getId(), new ArrayList<>()));
+            vo.setAddress(addressMap.get(order.getId()));
+            vos.add(vo);
         }
+        return vos;
+    }
+
+    private OrderVO toOrderVO(Order order) {
+        OrderVO vo = new OrderVO();
+        vo.setId(order.getId());
+        vo.setOrderNumber(order.getOrderNumber());
+        vo.setBuyerId(order.getBuyerId());
+        vo.setSellerId(order.getSellerId());
+        vo.setOrderStatus(order.getOrderStatus());
+        vo.setPaymentStatus(order.getPaymentStatus());
+        vo.setTotalAmount(order.getTotalAmount());
+        vo.setProductAmount(order.getProductAmount());
+        vo.setFreightAmount(order.getFreightAmount());
+        vo.setDiscountAmount(order.getDiscountAmount());
+        vo.setCurrency(order.getCurrency());
+        vo.setExchangeRate(order.getExchangeRate());
+        vo.setConvertedAmount(order.getConvertedAmount());
+        vo.setTargetCurrency(order.getTargetCurrency());
+        vo.setPaymentMethod(order.getPaymentMethod());
+        vo.setPaymentTime(order.getPaymentTime());
+        vo.setPaymentTransactionId(order.getPaymentTransactionId());
+        vo.setLogisticsCompany(order.getLogisticsCompany());
+        vo.setTrackingNo(order.getTrackingNo());
+        vo.setSellerAddress(order.getSellerAddress());
+        vo.setShipTime(order.getShipTime());
+        vo.setCompleteTime(order.getCompleteTime());
+        vo.setCancelTime(order.getCancelTime());
+        vo.setCancelReason(order.getCancelReason());
+        vo.setRemark(order.getRemark());
+        vo.setBuyerMessage(order.getBuyerMessage());
+        vo.setCreateTime(order.getCreateTime());
+        return vo;
+    }
+
+    private OrderItemVO toOrderItemVO(OrderItem item) {
+        OrderItemVO vo = new OrderItemVO();
+        vo.setId(item.getId());
+        vo.setProductId(item.getProductId());
+        vo.setProductName(item.getProductName());
+        vo.setProductCode(item.getProductCode());
+        vo.setImageUrl(item.getImageUrl());
+        vo.setSkuId(item.getSkuId());
+        vo.setSkuName(item.getSkuName());
+        vo.setPrice(item.getPrice());
+        vo.setQuantity(item.getQuantity());
+        vo.setTotalPrice(item.getTotalPrice());
+        return vo;
+    }
 
+    private OrderAddressVO toOrderAddressVO(OrderAddress address) {
+        OrderAddressVO vo = new OrderAddressVO();
+        vo.setId(address.getId());
+        vo.setReceiverName(address.getReceiverName());
+        vo.setReceiverPhone(address.getReceiverPhone());
+        vo.setCountry(address.getCountry());
+        vo.setProvince(address.getProvince());
+        vo.setCity(address.getCity());
+        vo.setDistrict(address.getDistrict());
+        vo.setDetailAddress(address.getDetailAddress());
+        vo.setPostalCode(address.getPostalCode());
         return vo;
     }
 
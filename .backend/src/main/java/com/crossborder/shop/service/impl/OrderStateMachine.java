@@ -0,0 +1,123 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.Order;
+import com.crossborder.shop.event.OrderStatusChangedEvent;
+import com.crossborder.shop.mapper.OrderMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订单状态机
+ * 每次状态迁移只执行一条条件更新（WHERE order_status = 源状态），只写入本次变化的字段，
+ * 并发迁移（如支付与超时取消）只有一个能成功，失败方得到明确的迁移结果
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderStateMachine {
+
+    private final OrderMapper orderMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 订单状态迁移
+     */
+    @Getter
+    public enum Transition {
+
+        /**
+         * 支付：待支付 -> 待发货
+         */
+        PAY(0, 1),
+
+        /**
+         * 发货：待发货 -> 已发货
+         */
+        SHIP(1, 2),
+
+        /**
+         * 确认收货：已发货 -> 已完成
+         */
+        CONFIRM(2, 3),
+
+        /**
+         * 取消：待支付 -> 已取消
+         */
+        CANCEL(0, 4);
+
+        private final int fromStatus;
+        private final int toStatus;
+
+        Transition(int fromStatus, int toStatus) {
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+        }
+    }
+
+    /**
+     * 迁移结果
+     */
+    public enum Outcome {
+
+        /**
+         * 迁移成功
+         */
+        SUCCESS,
+
+        /**
+         * 订单不存在
+         */
+        NOT_FOUND,
+
+        /**
+         * 订单不属于当前买家/卖家
+         */
+        FORBIDDEN,
+
+        /**
+         * 订单已不在源状态（已被其他操作迁移）
+         */
+        STATUS_MISMATCH
+    }
+
+    /**
+     * 执行状态迁移，成功后发布订单状态变更事件
+     *
+     * @param orderId    订单ID
+     * @param transition 状态迁移
+     * @param buyerId    限定买家ID，为null时不校验
+     * @param sellerId   限定卖家ID，为null时不校验
+     * @param changes    随状态一起更新的字段，只写入非null字段，可为null
+     * @return 迁移结果
+     */
+    public Outcome fire(Long orderId, Transition transition, Long buyerId, Long sellerId, Order changes) {
+        int updated = orderMapper.transitStatus(orderId, transition.getFromStatus(), transition.getToStatus(),
+                buyerId, sellerId, changes);
+        if (updated > 0) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId,
+                    transition.getFromStatus(), transition.getToStatus()));
+            return Outcome.SUCCESS;
+        }
+
+        // 迁移失败时才回查订单，区分失败原因
+        Order current = orderMapper.selectById(orderId);
+        Outcome outcome;
+        if (current == null) {
+            outcome = Outcome.NOT_FOUND;
+        } else if ((buyerId != null && !buyerId.equals(current.getBuyerId()))
+                || (sellerId != null && !sellerId.equals(current.getSellerId()))) {
+            outcome = Outcome.FORBIDDEN;
+        } else {
+            outcome = Outcome.STATUS_MISMATCH;
+        }
+        log.info("订单状态迁移失败: orderId={}, transition={}, outcome={}, currentStatus={}",
+                orderId, transition, outcome, current != null ? current.getOrderStatus() : null);
+        return outcome;
+    }
+}
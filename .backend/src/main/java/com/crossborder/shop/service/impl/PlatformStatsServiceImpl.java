@@ -0,0 +1,296 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.Order;
+import com.crossborder.shop.entity.PlatformDailyStats;
+import com.crossborder.shop.event.OrderCreatedEvent;
+import com.crossborder.shop.event.OrderStatusChangedEvent;
+import com.crossborder.shop.event.UserRegisteredEvent;
+import com.crossborder.shop.mapper.OrderMapper;
+import com.crossborder.shop.mapper.SystemStatsMapper;
+import com.crossborder.shop.service.PlatformStatsService;
+import com.crossborder.shop.vo.SystemStatsVO;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 平台统计服务实现
+ * 计数器由对象锁保护；数据库查询都在锁外执行，锁内只做赋值和加减。
+ * 对账查询期间事件仍在累加：每项查询前记下事件累计值，覆盖时把查询期间到达的事件补回，不会丢失；
+ * 提交早于查询、监听晚于记录的事件会被多计一次，误差限于提交到监听之间的在途事件，下一次对账修正
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlatformStatsServiceImpl implements PlatformStatsService {
+
+    private static final int STATUS_PENDING_PAYMENT = 0;
+    private static final int STATUS_PENDING_SHIPMENT = 1;
+
+    private final SystemStatsMapper systemStatsMapper;
+    private final OrderMapper orderMapper;
+
+    /**
+     * 是否已完成首次对账；未完成前不接受增量，避免在空计数器上累加
+     */
+    private boolean loaded;
+
+    /**
+     * 今日计数对应的日期，跨天后清零
+     */
+    private LocalDate statDate;
+
+    private long totalUsers;
+    private long activeUsers;
+    private long newUsersToday;
+    private long totalProducts;
+    private long activeProducts;
+    private long totalOrders;
+    private long pendingOrders;
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+    private BigDecimal revenueToday = BigDecimal.ZERO;
+    private LocalDateTime lastUpdateTime;
+
+    /**
+     * 事件累计值，只增不减（含首次对账完成前的事件），对账据此补回查询期间的增量
+     */
+    private long userEvents;
+    private long orderEvents;
+    private long pendingEvents;
+    private BigDecimal revenueEvents = BigDecimal.ZERO;
+    private BigDecimal revenueTodayEvents = BigDecimal.ZERO;
+
+    @Override
+    public SystemStatsVO getStats() {
+        if (!isLoaded()) {
+            reconcile();
+        }
+        synchronized (this) {
+            rollDate(LocalDate.now());
+            SystemStatsVO stats = new SystemStatsVO();
+            stats.setTotalUsers(totalUsers);
+            stats.setActiveUsers(activeUsers);
+            stats.setNewUsersToday(newUsersToday);
+            stats.setTotalProducts(totalProducts);
+            stats.setActiveProducts(activeProducts);
+            stats.setTotalOrders(totalOrders);
+            stats.setPendingOrders(pendingOrders);
+            stats.setTotalRevenue(totalRevenue);
+            stats.setRevenueToday(revenueToday);
+            stats.setLastUpdateTime(lastUpdateTime);
+            return stats;
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${stats.platform.reconcile-interval-ms:60000}",
+            initialDelayString = "${stats.platform.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime from = today.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+
+        EventMark usersMark = mark();
+        long users = systemStatsMapper.countTotalUsers();
+        EventMark activeMark = mark();
+        long active = systemStatsMapper.countActiveUsers();
+        EventMark newUsersMark = mark();
+        long newUsers = systemStatsMapper.countNewUsers(from, to);
+        long products = systemStatsMapper.countTotalProducts();
+        long activeProductCount = systemStatsMapper.countActiveProducts();
+        EventMark ordersMark = mark();
+        long orders = systemStatsMapper.countTotalOrders();
+        EventMark pendingMark = mark();
+        long pending = systemStatsMapper.countPendingOrders();
+        EventMark revenueMark = mark();
+        BigDecimal revenue = nullToZero(systemStatsMapper.sumTotalRevenue());
+        EventMark todayRevenueMark = mark();
+        BigDecimal todayRevenue = nullToZero(systemStatsMapper.sumRevenue(from, to));
+
+        synchronized (this) {
+            totalUsers = users + userEvents - usersMark.users;
+            activeUsers = active + userEvents - activeMark.users;
+            newUsersToday = newUsers + userEvents - newUsersMark.users;
+            totalProducts = products;
+            activeProducts = activeProductCount;
+            totalOrders = orders + orderEvents - ordersMark.orders;
+            pendingOrders = pending + pendingEvents - pendingMark.pending;
+            totalRevenue = revenue.add(revenueEvents.subtract(revenueMark.revenue));
+            revenueToday = todayRevenue.add(revenueTodayEvents.subtract(todayRevenueMark.revenueToday));
+            statDate = today;
+            lastUpdateTime = LocalDateTime.now();
+            loaded = true;
+        }
+        log.debug("平台统计对账完成: users={}, orders={}, revenue={}", users, orders, revenue);
+    }
+
+    @Override
+    public void rollup(LocalDate date) {
+        LocalDateTime from = date.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+
+        // 累计类指标取执行时刻的值，凌晨执行时近似为前一日日终值
+        PlatformDailyStats stats = new PlatformDailyStats();
+        stats.setStatDate(date);
+        stats.setTotalUsers(systemStatsMapper.countTotalUsers());
+        stats.setActiveUsers(systemStatsMapper.countActiveUsers());
+        stats.setNewUsers(systemStatsMapper.countNewUsers(from, to));
+        stats.setTotalProducts(systemStatsMapper.countTotalProducts());
+        stats.setActiveProducts(systemStatsMapper.countActiveProducts());
+        stats.setTotalOrders(systemStatsMapper.countTotalOrders());
+        stats.setPendingOrders(systemStatsMapper.countPendingOrders());
+        stats.setTotalRevenue(nullToZero(systemStatsMapper.sumTotalRevenue()));
+        stats.setRevenue(nullToZero(systemStatsMapper.sumRevenue(from, to)));
+        systemStatsMapper.upsertDailyStats(stats);
+        log.info("平台每日统计汇总完成: date={}, newUsers={}, revenue={}", date, stats.getNewUsers(), stats.getRevenue());
+    }
+
+    /**
+     * 每日凌晨汇总前一天的统计
+     */
+    @Scheduled(cron = "${stats.platform.rollup-cron:0 5 0 * * ?}")
+    public void rollupYesterday() {
+        try {
+            rollup(LocalDate.now().minusDays(1));
+        } catch (Exception e) {
+            log.error("平台每日统计汇总失败", e);
+        }
+    }
+
+    /**
+     * 注册事务提交后计入新用户（新用户默认启用）
+     */
+    @TransactionalEventListener
+    public synchronized void onUserRegistered(UserRegisteredEvent event) {
+        userEvents++;
+        if (!loaded) {
+            return;
+        }
+        rollDate(LocalDate.now());
+        totalUsers++;
+        activeUsers++;
+        newUsersToday++;
+        lastUpdateTime = LocalDateTime.now();
+    }
+
+    /**
+     * 下单事务提交后计入新订单（新订单为待支付）
+     */
+    @TransactionalEventListener
+    public synchronized void onOrderCreated(OrderCreatedEvent event) {
+        orderEvents++;
+        pendingEvents++;
+        if (!loaded) {
+            return;
+        }
+        totalOrders++;
+        pendingOrders++;
+        lastUpdateTime = LocalDateTime.now();
+    }
+
+    /**
+     * 订单状态变更事务提交后调整待处理订单数，支付时计入营收
+     */
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        BigDecimal paidAmount = null;
+        LocalDate paidDate = null;
+        if (Integer.valueOf(STATUS_PENDING_PAYMENT).equals(event.getFromStatus())
+                && Integer.valueOf(STATUS_PENDING_SHIPMENT).equals(event.getToStatus())) {
+            Order order = orderMapper.selectById(event.getOrderId());
+            if (order != null && order.getTotalAmount() != null) {
+                paidAmount = order.getTotalAmount();
+                paidDate = order.getPaymentTime() != null ? order.getPaymentTime().toLocalDate() : LocalDate.now();
+            }
+        }
+
+        synchronized (this) {
+            boolean leftPending = isPending(event.getFromStatus()) && !isPending(event.getToStatus());
+            boolean paidToday = paidAmount != null && paidDate.equals(LocalDate.now());
+            if (leftPending) {
+                pendingEvents--;
+            }
+            if (paidAmount != null) {
+                revenueEvents = revenueEvents.add(paidAmount);
+            }
+            if (paidToday) {
+                revenueTodayEvents = revenueTodayEvents.add(paidAmount);
+            }
+            if (!loaded) {
+                return;
+            }
+
+            rollDate(LocalDate.now());
+            if (leftPending) {
+                pendingOrders--;
+            }
+            if (paidAmount != null) {
+                totalRevenue = totalRevenue.add(paidAmount);
+            }
+            if (paidToday) {
+                revenueToday = revenueToday.add(paidAmount);
+            }
+            lastUpdateTime = LocalDateTime.now();
+        }
+    }
+
+    private synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    private synchronized EventMark mark() {
+        return new EventMark(userEvents, orderEvents, pendingEvents, revenueEvents, revenueTodayEvents);
+    }
+
+    /**
+     * 跨天后清零今日计数，下一次对账会从数据库校正
+     */
+    private void rollDate(LocalDate today) {
+        if (!today.equals(statDate)) {
+            statDate = today;
+            newUsersToday = 0;
+            revenueToday = BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * 待处理订单：待支付和待发货
+     */
+    private static boolean isPending(Integer status) {
+        return status != null && (status == STATUS_PENDING_PAYMENT || status == STATUS_PENDING_SHIPMENT);
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /**
+     * 某一时刻的事件累计值
+     */
+    @AllArgsConstructor
+    private static final class EventMark {
+
+        private final long users;
+
+        private final long orders;
+
+        private final long pending;
+
+        private final BigDecimal revenue;
+
+        private final BigDecimal revenueToday;
+    }
+}
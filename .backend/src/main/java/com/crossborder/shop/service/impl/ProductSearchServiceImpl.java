@@ -0,0 +1,364 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.common.PageResult;
+import com.crossborder.shop.entity.Product;
+import com.crossborder.shop.mapper.ProductMapper;
+import com.crossborder.shop.service.ProductSearchService;
+import com.crossborder.shop.util.FacetIndex;
+import com.crossborder.shop.util.InvertedIndex;
+import com.crossborder.shop.util.SearchTokenizer;
+import com.crossborder.shop.vo.FacetCountVO;
+import com.crossborder.shop.vo.ProductFacetPageVO;
+import com.crossborder.shop.vo.ProductVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * 商品搜索服务实现
+ * 商品名称、品牌、编码经SearchTokenizer分词后写入倒排索引，分类/卖家/状态/价格等过滤排序字段保存在内存文档中；
+ * 上架商品同时写入FacetIndex，按分类/品牌/价格区间/币种维护位图，筛选和分面计数均为位图求交；
+ * 本节点的商品变更提交后增量刷新，其他节点的变更按update_time定时同步
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final String FACET_CATEGORY = "category";
+    private static final String FACET_BRAND = "brand";
+    private static final String FACET_PRICE_BAND = "priceBand";
+    private static final String FACET_CURRENCY = "currency";
+    private static final List<String> FACET_ATTRIBUTES =
+            List.of(FACET_CATEGORY, FACET_BRAND, FACET_PRICE_BAND, FACET_CURRENCY);
+
+    private final ProductMapper productMapper;
+
+    /**
+     * 增量同步时向前多取的秒数，覆盖update_time精度和节点间时钟偏差
+     */
+    @Value("${product.search.sync-overlap-seconds:5}")
+    private long syncOverlapSeconds;
+
+    /**
+     * 价格区间分界点（升序），如50,100表示0-50、50-100、100+三个区间
+     */
+    @Value("${product.facet.price-bands:50,100,200,500,1000}")
+    private BigDecimal[] priceBandBounds;
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    /**
+     * 上架商品的分面位图
+     */
+    private final FacetIndex facetIndex = new FacetIndex();
+
+    /**
+     * 商品ID -> 过滤与排序字段
+     */
+    private final Map<Long, SearchDocument> documents = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    private volatile LocalDateTime lastSyncTime;
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        LocalDateTime startTime = LocalDateTime.now();
+        long startMillis = System.currentTimeMillis();
+        index.clear();
+        facetIndex.clear();
+        documents.clear();
+        List<Product> products = productMapper.selectSearchDocuments(null);
+        products.forEach(this::apply);
+        lastSyncTime = startTime;
+        ready = true;
+        log.info("商品搜索索引构建完成: products={}, onShelf={}, costMs={}", index.size(), facetIndex.size(),
+                System.currentTimeMillis() - startMillis);
+    }
+
+    /**
+     * 同步其他节点的商品变更
+     */
+    @Scheduled(fixedDelayString = "${product.search.sync-interval-ms:30000}",
+            initialDelayString = "${product.search.sync-interval-ms:30000}")
+    public synchronized void syncChanges() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime startTime = LocalDateTime.now();
+        List<Product> changed = productMapper.selectSearchDocuments(lastSyncTime.minusSeconds(syncOverlapSeconds));
+        changed.forEach(this::apply);
+        lastSyncTime = startTime;
+        if (!changed.isEmpty()) {
+            log.debug("商品搜索索引增量同步: changed={}", changed.size());
+        }
+    }
+
+    @Override
+    public void refresh(Long productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reindex(productId);
+                }
+            });
+        } else {
+            reindex(productId);
+        }
+    }
+
+    @Override
+    public PageResult<Long> search(String keyword, Long categoryId, Integer status, Long sellerId,
+            int pageNum, int pageSize, String sortBy, String sortOrder) {
+        if (!ready) {
+            return null;
+        }
+        List<String> terms = SearchTokenizer.tokenizeForQuery(keyword);
+        if (terms.isEmpty()) {
+            return PageResult.empty(pageNum, pageSize);
+        }
+
+        LongPredicate filter = id -> {
+            SearchDocument document = documents.get(id);
+            return document != null
+                    && (categoryId == null || categoryId.equals(document.categoryId))
+                    && (status == null || status.equals(document.status))
+                    && (sellerId == null || sellerId.equals(document.sellerId));
+        };
+        Map<Long, Double> scores = scoresOf(index.search(terms, filter));
+        List<Long> ids = new ArrayList<>(scores.keySet());
+        ids.sort(comparatorOf(sortBy, "asc".equals(sortOrder), scores));
+        return PageResult.build(pageNum, pageSize, (long) ids.size(), pageOf(ids, pageNum, pageSize));
+    }
+
+    @Override
+    public ProductFacetPageVO facetSearch(String keyword, Long categoryId, String brand, String priceBand,
+            String currency, int pageNum, int pageSize, String sortBy, String sortOrder,
+            Function<List<Long>, List<ProductVO>> loader) {
+        if (!ready) {
+            return null;
+        }
+        // 有关键词时以倒排索引命中的商品作为候选集，否则为全部上架商品
+        Map<Long, Double> scores = null;
+        if (keyword != null && !keyword.isBlank()) {
+            List<String> terms = SearchTokenizer.tokenizeForQuery(keyword);
+            scores = terms.isEmpty() ? new HashMap<>() : scoresOf(index.search(terms, null));
+        }
+
+        Map<String, String> filters = new HashMap<>();
+        filters.put(FACET_CATEGORY, categoryId == null ? null : categoryId.toString());
+        filters.put(FACET_BRAND, brand);
+        filters.put(FACET_PRICE_BAND, priceBand);
+        filters.put(FACET_CURRENCY, currency);
+        FacetIndex.Result result = facetIndex.query(scores == null ? null : scores.keySet(), filters, FACET_ATTRIBUTES);
+
+        List<Long> ids = result.getMatchedIds();
+        ids.sort(comparatorOf(sortBy, "asc".equals(sortOrder), scores));
+        ProductFacetPageVO vo = new ProductFacetPageVO();
+        vo.setPage(PageResult.build(pageNum, pageSize, (long) ids.size(),
+                loader.apply(pageOf(ids, pageNum, pageSize))));
+
+        Map<String, List<FacetCountVO>> facets = new LinkedHashMap<>();
+        result.getCounts().forEach((attribute, counts) -> {
+            List<FacetCountVO> values = counts.entrySet().stream()
+                    .map(entry -> new FacetCountVO(entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList());
+            if (FACET_PRICE_BAND.equals(attribute)) {
+                List<String> bands = priceBands();
+                values.sort(Comparator.comparingInt(count -> bands.indexOf(count.getValue())));
+            } else {
+                values.sort(Comparator.comparing(FacetCountVO::getCount).reversed()
+                        .thenComparing(FacetCountVO::getValue));
+            }
+            facets.put(attribute, values);
+        });
+        vo.setFacets(facets);
+        return vo;
+    }
+
+    private static Map<Long, Double> scoresOf(List<InvertedIndex.Hit> hits) {
+        Map<Long, Double> scores = new LinkedHashMap<>(hits.size() * 2);
+        for (InvertedIndex.Hit hit : hits) {
+            scores.put(hit.getId(), hit.getScore());
+        }
+        return scores;
+    }
+
+    private static List<Long> pageOf(List<Long> ids, int pageNum, int pageSize) {
+        int from = (int) Math.min((long) Math.max(pageNum - 1, 0) * pageSize, ids.size());
+        int to = Math.min(from + pageSize, ids.size());
+        return new ArrayList<>(ids.subList(from, to));
+    }
+
+    /**
+     * 与SQL分页保持一致的排序：price/name按指定顺序，其余有相关度时按相关度，再按创建时间倒序
+     *
+     * @param scores 相关度得分，无关键词时为null
+     */
+    private Comparator<Long> comparatorOf(String sortBy, boolean asc, Map<Long, Double> scores) {
+        Comparator<SearchDocument> documentOrder;
+        if ("price".equals(sortBy)) {
+            documentOrder = Comparator.comparing(document -> document.price,
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+        } else if ("name".equals(sortBy)) {
+            documentOrder = Comparator.comparing(document -> document.productName,
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+        } else {
+            Comparator<Long> byCreateTime = byDocument(Comparator.comparing(document -> document.createTime,
+                    Comparator.nullsLast(Comparator.reverseOrder())));
+            if (scores == null) {
+                return byCreateTime;
+            }
+            Comparator<Long> byScore = Comparator.comparingDouble((Long id) -> scores.getOrDefault(id, 0D)).reversed();
+            return byScore.thenComparing(byCreateTime);
+        }
+        if (!asc) {
+            documentOrder = documentOrder.reversed();
+        }
+        return byDocument(documentOrder);
+    }
+
+    private Comparator<Long> byDocument(Comparator<SearchDocument> order) {
+        return (a, b) -> {
+            SearchDocument left = documents.get(a);
+            SearchDocument right = documents.get(b);
+            if (left == null || right == null) {
+                return Long.compare(b, a);
+            }
+            return order.compare(left, right);
+        };
+    }
+
+    /**
+     * 价格所属区间，如0-50、50-100、1000+
+     */
+    private String priceBandOf(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        String lower = "0";
+        for (BigDecimal bound : priceBandBounds) {
+            String upper = bound.stripTrailingZeros().toPlainString();
+            if (price.compareTo(bound) < 0) {
+                return lower + "-" + upper;
+            }
+            lower = upper;
+        }
+        return lower + "+";
+    }
+
+    private List<String> priceBands() {
+        List<String> bands = new ArrayList<>(priceBandBounds.length + 1);
+        String lower = "0";
+        for (BigDecimal bound : priceBandBounds) {
+            String upper = bound.stripTrailingZeros().toPlainString();
+            bands.add(lower + "-" + upper);
+            lower = upper;
+        }
+        bands.add(lower + "+");
+        return bands;
+    }
+
+    private void reindex(Long productId) {
+        Product product = productMapper.selectById(productId);
+        if (product == null) {
+            remove(productId);
+        } else {
+            apply(product);
+        }
+    }
+
+    private synchronized void apply(Product product) {
+        if (product.getDeleted() != null && product.getDeleted() == 1) {
+            remove(product.getId());
+            return;
+        }
+        SearchDocument document = new SearchDocument(product);
+        SearchDocument previous = documents.put(product.getId(), document);
+        if (document.status != null && document.status == 1) {
+            Map<String, String> attributes = new HashMap<>();
+            attributes.put(FACET_CATEGORY, document.categoryId == null ? null : document.categoryId.toString());
+            attributes.put(FACET_BRAND, document.brand == null || document.brand.isBlank() ? null : document.brand);
+            attributes.put(FACET_PRICE_BAND, priceBandOf(document.price));
+            attributes.put(FACET_CURRENCY, document.currency);
+            facetIndex.put(product.getId(), attributes);
+        } else {
+            facetIndex.remove(product.getId());
+        }
+        if (previous != null && previous.sameText(document)) {
+            return;
+        }
+        index.put(product.getId(), SearchTokenizer.tokenizeForIndex(document.text()));
+    }
+
+    private synchronized void remove(Long productId) {
+        documents.remove(productId);
+        index.remove(productId);
+        facetIndex.remove(productId);
+    }
+
+    /**
+     * 搜索文档：索引文本及过滤、排序、分面字段
+     */
+    private static final class SearchDocument {
+
+        private final String productName;
+        private final String brand;
+        private final String productCode;
+        private final Long categoryId;
+        private final Long sellerId;
+        private final Integer status;
+        private final BigDecimal price;
+        private final String currency;
+        private final LocalDateTime createTime;
+
+        private SearchDocument(Product product) {
+            this.productName = product.getProductName();
+            this.brand = product.getBrand();
+            this.productCode = product.getProductCode();
+            this.categoryId = product.getCategoryId();
+            this.sellerId = product.getSellerId();
+            this.status = product.getStatus();
+            this.price = product.getPrice();
+            this.currency = product.getCurrency();
+            this.createTime = product.getCreateTime();
+        }
+
+        String text() {
+            return String.join(" ", Objects.toString(productName, ""), Objects.toString(brand, ""),
+                    Objects.toString(productCode, ""));
+        }
+
+        boolean sameText(SearchDocument other) {
+            return Objects.equals(productName, other.productName)
+                    && Objects.equals(brand, other.brand)
+                    && Objects.equals(productCode, other.productCode);
+        }
+    }
+}
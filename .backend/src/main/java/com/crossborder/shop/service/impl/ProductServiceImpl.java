@@ -1,6 +1,7 @@
 package com.crossborder.shop.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
+import com.crossborder.shop.common.PageCursor;
 import com.crossborder.shop.common.PageResult;
 import com.crossborder.shop.common.ResultCode;
 import com.crossborder.shop.dto.ProductDTO;
@@ -9,24 +10,41 @@ import com.crossborder.shop.entity.ProductImage;
 import com.crossborder.shop.exception.BusinessException;
 import com.crossborder.shop.mapper.ProductImageMapper;
 import com.crossborder.shop.mapper.ProductMapper;
+import com.crossborder.shop.service.HotStockService;
+import com.crossborder.shop.service.ProductSearchService;
 import com.crossborder.shop.service.ProductService;
+import com.crossborder.shop.util.TinyLfuCache;
+import com.crossborder.shop.vo.CacheStatsVO;
+import com.crossborder.shop.vo.ProductFacetPageVO;
 import com.crossborder.shop.vo.ProductImageVO;
 import com.crossborder.shop.vo.ProductVO;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
  * 商品服务实现类
+ * 商品详情经本地W-TinyLFU缓存读取，本节点修改商品或库存后立即及提交后各失效一次，
+ * 其他节点的修改通过定时比对tb_product.version发现
  *
  * @author CrossBorder Shop
  * @since 2026-02-04
@@ -38,10 +56,32 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductMapper productMapper;
     private final ProductImageMapper productImageMapper;
+    private final HotStockService hotStockService;
+    private final ProductSearchService productSearchService;
+
+    /**
+     * 版本校验时每条IN查询的商品数
+     */
+    private static final int VERSION_CHECK_BATCH_SIZE = 500;
 
     @Value("${order.stock-retry-times:3}")
     private int stockRetryTimes;
 
+    @Value("${product.detail-cache.maximum-size:2000}")
+    private int detailCacheSize;
+
+    /**
+     * 商品详情缓存（缓存的ProductVO为共享实例，调用方不得修改）
+     */
+    private TinyLfuCache<Long, ProductVO> detailCache;
+
+    private final LongAdder versionInvalidations = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        detailCache = new TinyLfuCache<>(detailCacheSize);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Long publishProduct(ProductDTO productDTO, Long sellerId) {
@@ -62,6 +102,7 @@ public class ProductServiceImpl implements ProductService {
 
         // 3. 保存商品图片
         saveProductImages(product.getId(), productDTO.getImageUrls(), productDTO.getMainImageIndex());
+        productSearchService.refresh(product.getId());
 
         return product.getId();
     }
@@ -78,14 +119,19 @@ public class ProductServiceImpl implements ProductService {
             throw new BusinessException(ResultCode.PRODUCT_NOT_BELONG_TO_SELLER);
         }
 
-        // 2. 更新商品信息
+        // 2. 更新商品信息（热点商品先回写内存库存，提交后重新托管）
+        hotStockService.refresh(product.getId());
+        deleteProductCache(product.getId());
         BeanUtil.copyProperties(productDTO, product, "id", "productCode", "sellerId", "sales", "version");
         product.setVersion(productDTO.getVersion()); // 乐观锁版本号
-        productMapper.updateById(product);
+        if (productMapper.updateById(product) <= 0) {
+            throw new BusinessException(ResultCode.CONFLICT, "商品已被修改，请刷新后重试");
+        }
 
         // 3. 更新图片
         productImageMapper.deleteByProductId(product.getId());
         saveProductImages(product.getId(), productDTO.getImageUrls(), productDTO.getMainImageIndex());
+        productSearchService.refresh(product.getId());
 
         log.info("商品更新成功: productId={}", product.getId());
     }
@@ -101,8 +147,11 @@ public class ProductServiceImpl implements ProductService {
             throw new BusinessException(ResultCode.PRODUCT_NOT_BELONG_TO_SELLER);
         }
 
+        hotStockService.refresh(id);
+        deleteProductCache(id);
         productMapper.deleteById(id);
         productImageMapper.deleteByProductId(id);
+        productSearchService.refresh(id);
 
         log.info("商品删除成功: productId={}", id);
     }
@@ -119,11 +168,21 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public ProductVO getProductDetail(Long id) {
-        // 从数据库查询
-        ProductVO productVO = productMapper.selectVOById(id);
+        ProductVO productVO = detailCache.get(id, this::loadProductDetail);
         if (productVO == null) {
             throw new BusinessException(ResultCode.PRODUCT_NOT_EXISTS);
         }
+        return productVO;
+    }
+
+    /**
+     * 从数据库加载商品详情及图片，商品不存在时返回null（不缓存）
+     */
+    private ProductVO loadProductDetail(Long id) {
+        ProductVO productVO = productMapper.selectVOById(id);
+        if (productVO == null) {
+            return null;
+        }
 
         // 查询商品图片
         List<ProductImage> images = productImageMapper.selectByProductId(id);
@@ -142,6 +201,16 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public PageResult<ProductVO> getProductPage(Long categoryId, Integer status, Long sellerId,
             String keyword, int pageNum, int pageSize, String sortBy, String sortOrder) {
+        // 关键词检索走内存倒排索引，索引未就绪时回退到数据库模糊查询
+        if (keyword != null && !keyword.isBlank()) {
+            PageResult<Long> idPage = productSearchService.search(keyword, categoryId, status, sellerId,
+                    pageNum, pageSize, sortBy, sortOrder);
+            if (idPage != null) {
+                return PageResult.build(idPage.getPageNum(), idPage.getPageSize(), idPage.getTotal(),
+                        loadProductVOs(idPage.getList()));
+            }
+        }
+
         PageHelper.startPage(pageNum, pageSize);
         List<ProductVO> list = productMapper.selectPageList(categoryId, status, sellerId, keyword, sortBy, sortOrder);
         PageInfo<ProductVO> pageInfo = new PageInfo<>(list);
@@ -155,6 +224,67 @@ public class ProductServiceImpl implements ProductService {
         return pageResult;
     }
 
+    @Override
+    public ProductFacetPageVO getProductFacetPage(String keyword, Long categoryId, String brand, String priceBand,
+            String currency, int pageNum, int pageSize, String sortBy, String sortOrder) {
+        ProductFacetPageVO facetPage = productSearchService.facetSearch(keyword, categoryId, brand, priceBand,
+                currency, pageNum, pageSize, sortBy, sortOrder, this::loadProductVOs);
+        if (facetPage == null) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "商品索引加载中，请稍后重试");
+        }
+        return facetPage;
+    }
+
+    /**
+     * 按给定ID顺序批量加载商品视图
+     */
+    private List<ProductVO> loadProductVOs(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProductVO> voMap = productMapper.selectVOByIds(ids).stream()
+                .collect(Collectors.toMap(ProductVO::getId, vo -> vo, (a, b) -> a));
+        List<ProductVO> list = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductVO vo = voMap.get(id);
+            if (vo != null) {
+                list.add(vo);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public PageResult<ProductVO> getProductCursorPage(Long categoryId, Integer status, Long sellerId,
+            String keyword, String cursor, int pageSize, String sortBy, String sortOrder) {
+        if (pageSize <= 0) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "每页数量必须大于0");
+        }
+        String sortKey = PageCursor.SORT_PRICE.equals(sortBy) || PageCursor.SORT_NAME.equals(sortBy)
+                ? sortBy : PageCursor.SORT_CREATE_TIME;
+        boolean asc = !PageCursor.SORT_CREATE_TIME.equals(sortKey) && "asc".equals(sortOrder);
+        PageCursor pageCursor = PageCursor.decode(cursor, sortKey);
+
+        // 多查一条判断是否还有下一页
+        List<ProductVO> list = productMapper.selectCursorList(categoryId, status, sellerId, keyword, sortKey, asc,
+                pageCursor == null ? null : pageCursor.getValue(),
+                pageCursor == null ? null : pageCursor.getId(),
+                pageSize + 1);
+
+        String nextCursor = null;
+        if (list.size() > pageSize) {
+            list = new ArrayList<>(list.subList(0, pageSize));
+            ProductVO last = list.get(pageSize - 1);
+            Object lastValue = switch (sortKey) {
+                case PageCursor.SORT_PRICE -> last.getPrice();
+                case PageCursor.SORT_NAME -> last.getProductName();
+                default -> last.getCreateTime();
+            };
+            nextCursor = PageCursor.encode(sortKey, last.getId(), lastValue);
+        }
+        return PageResult.cursor(pageSize, list, nextCursor);
+    }
+
     @Override
     public boolean decreaseStock(Long productId, Integer quantity) {
         Product product = productMapper.selectById(productId);
@@ -162,6 +292,22 @@ public class ProductServiceImpl implements ProductService {
             throw new BusinessException(ResultCode.PRODUCT_NOT_EXISTS);
         }
 
+        deleteProductCache(productId);
+
+        // 热点商品在内存中扣减
+        if (hotStockService.isManaged(productId)) {
+            if (hotStockService.tryDeduct(Map.of(productId, quantity)).isEmpty()) {
+                log.info("热点库存扣减成功: productId={}, quantity={}", productId, quantity);
+                return true;
+            }
+            log.warn("热点库存扣减失败: productId={}, quantity={}", productId, quantity);
+            throw new BusinessException(ResultCode.PRODUCT_STOCK_NOT_ENOUGH);
+        }
+        if (hotStockService.isReservedForEngine(product)) {
+            log.warn("热销商品由其他节点托管，拒绝数据库扣减: productId={}", productId);
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "热销商品库存同步中，请稍后重试");
+        }
+
         // 乐观锁扣减库存，支持重试
         for (int i = 0; i < stockRetryTimes; i++) {
             int result = productMapper.decreaseStock(productId, quantity, product.getVersion());
@@ -191,13 +337,86 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public void releaseStock(Long productId, Integer quantity) {
-        productMapper.increaseStock(productId, quantity);
+        if (!hotStockService.release(productId, quantity)) {
+            productMapper.increaseStock(productId, quantity);
+        }
+        deleteProductCache(productId);
         log.info("库存释放成功: productId={}, quantity={}", productId, quantity);
     }
 
     @Override
     public void deleteProductCache(Long productId) {
-        // No-op: Redis cache removed
+        deleteProductCache(List.of(productId));
+    }
+
+    @Override
+    public void deleteProductCache(Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        // 立即失效一次，事务提交后再失效一次，避免提交前加载的旧数据留在缓存中
+        productIds.forEach(detailCache::invalidate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(productIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(detailCache::invalidate);
+                }
+            });
+        }
+    }
+
+    @Override
+    public CacheStatsVO getProductCacheStats() {
+        long hits = detailCache.getHitCount();
+        long misses = detailCache.getMissCount();
+        long loads = detailCache.getLoadSuccessCount() + detailCache.getLoadFailureCount();
+
+        CacheStatsVO stats = new CacheStatsVO();
+        stats.setSize(detailCache.size());
+        stats.setMaximumSize(detailCache.getMaximumSize());
+        stats.setHitCount(hits);
+        stats.setMissCount(misses);
+        stats.setHitRate(hits + misses == 0 ? 0D : (double) hits / (hits + misses));
+        stats.setLoadSuccessCount(detailCache.getLoadSuccessCount());
+        stats.setLoadFailureCount(detailCache.getLoadFailureCount());
+        stats.setAverageLoadMillis(loads == 0 ? 0D
+                : (double) detailCache.getTotalLoadNanos() / loads / TimeUnit.MILLISECONDS.toNanos(1));
+        stats.setEvictionCount(detailCache.getEvictionCount());
+        stats.setInvalidationCount(versionInvalidations.sum());
+        return stats;
+    }
+
+    /**
+     * 比对缓存商品与数据库的版本号，失效其他节点已修改或删除的商品
+     */
+    @Scheduled(fixedDelayString = "${product.detail-cache.version-check-interval-ms:5000}",
+            initialDelayString = "${product.detail-cache.version-check-interval-ms:5000}")
+    public void checkCachedVersions() {
+        Map<Long, ProductVO> cached = detailCache.asMap();
+        if (cached.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(cached.keySet());
+        int invalidated = 0;
+        for (int from = 0; from < ids.size(); from += VERSION_CHECK_BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + VERSION_CHECK_BATCH_SIZE, ids.size()));
+            Map<Long, Integer> versions = new HashMap<>();
+            for (Product product : productMapper.selectVersions(chunk)) {
+                versions.put(product.getId(), product.getVersion());
+            }
+            for (Long id : chunk) {
+                if (!Objects.equals(versions.get(id), cached.get(id).getVersion())) {
+                    detailCache.invalidate(id);
+                    invalidated++;
+                }
+            }
+        }
+        if (invalidated > 0) {
+            versionInvalidations.add(invalidated);
+            log.debug("商品详情缓存版本校验: checked={}, invalidated={}", ids.size(), invalidated);
+        }
     }
 
     /**
@@ -208,6 +427,9 @@ public class ProductServiceImpl implements ProductService {
         if (result == 0) {
             throw new BusinessException(ResultCode.PRODUCT_NOT_EXISTS);
         }
+        hotStockService.refresh(id);
+        deleteProductCache(id);
+        productSearchService.refresh(id);
 
         log.info("商品状态更新: productId={}, status={}", id, status);
     }
@@ -220,10 +442,11 @@ public class ProductServiceImpl implements ProductService {
     }
 
     /**
-     * 保存商品图片
+     * 保存商品图片，并同步商品表上冗余的主图URL（与图片在同一事务内）
      */
     private void saveProductImages(Long productId, List<String> imageUrls, Integer mainImageIndex) {
         if (imageUrls == null || imageUrls.isEmpty()) {
+            productMapper.updateMainImage(productId, null);
             return;
         }
 
@@ -243,6 +466,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         productImageMapper.batchInsert(images);
+        productMapper.updateMainImage(productId, imageUrls.get(mainIndex));
     }
 
     @Override
@@ -0,0 +1,95 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.Role;
+import com.crossborder.shop.entity.UserRole;
+import com.crossborder.shop.mapper.UserMapper;
+import com.crossborder.shop.service.RoleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 角色服务实现
+ * 目录包含已删除角色，因此只有新增角色后才会出现目录中找不到的角色ID，此时立即重新加载一次目录
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoleServiceImpl implements RoleService {
+
+    private final UserMapper userMapper;
+
+    /**
+     * 角色ID -> 角色（含已删除角色）；为null时尚未加载
+     */
+    private volatile Map<Long, Role> catalog;
+
+    @Override
+    public List<Role> getRolesByUserId(Long userId) {
+        return getRolesByUserIds(List.of(userId)).get(userId);
+    }
+
+    @Override
+    public Map<Long, List<Role>> getRolesByUserIds(Collection<Long> userIds) {
+        Map<Long, List<Role>> result = new LinkedHashMap<>();
+        if (userIds.isEmpty()) {
+            return result;
+        }
+        List<UserRole> userRoles = userMapper.selectUserRoles(userIds);
+
+        Map<Long, Role> current = catalog();
+        Map<Long, Role> roles = userRoles.stream().allMatch(userRole -> current.containsKey(userRole.getRoleId()))
+                ? current
+                : reloadCatalog();
+
+        for (Long userId : userIds) {
+            result.put(userId, new ArrayList<>());
+        }
+        for (UserRole userRole : userRoles) {
+            Role role = roles.get(userRole.getRoleId());
+            if (role != null && !Integer.valueOf(1).equals(role.getDeleted())) {
+                result.get(userRole.getUserId()).add(role);
+            }
+        }
+        Comparator<Role> bySort = Comparator.comparing(Role::getSort, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Role::getId);
+        result.values().forEach(list -> list.sort(bySort));
+        return result;
+    }
+
+    private Map<Long, Role> catalog() {
+        Map<Long, Role> current = catalog;
+        return current != null ? current : reloadCatalog();
+    }
+
+    /**
+     * 定期刷新角色目录
+     */
+    @Scheduled(fixedDelayString = "${user.role-catalog.refresh-interval-ms:300000}",
+            initialDelayString = "${user.role-catalog.refresh-interval-ms:300000}")
+    public void refreshCatalog() {
+        reloadCatalog();
+    }
+
+    private synchronized Map<Long, Role> reloadCatalog() {
+        Map<Long, Role> loaded = Collections.unmodifiableMap(userMapper.selectAllRoles().stream()
+                .collect(Collectors.toMap(Role::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new)));
+        catalog = loaded;
+        log.debug("角色目录已加载: roles={}", loaded.size());
+        return loaded;
+    }
+}
@@ -0,0 +1,298 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.Order;
+import com.crossborder.shop.entity.OrderItem;
+import com.crossborder.shop.entity.SellerDailyStats;
+import com.crossborder.shop.mapper.OrderItemMapper;
+import com.crossborder.shop.mapper.OrderMapper;
+import com.crossborder.shop.mapper.SellerStatsMapper;
+import com.crossborder.shop.service.SellerStatsService;
+import com.crossborder.shop.vo.SellerStatsVO;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * 卖家统计服务实现
+ * 订单事件提交后只入队，定期一次查询本批订单、按卖家和日期合并后以一条多行upsert写入，
+ * 订单事务内不再读写汇总表，同一卖家的并发下单不会在统计行锁上排队。
+ * 全部日期合计按主键(seller_id, stat_date)范围扫描该卖家的全部日期行，每年约365行
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SellerStatsServiceImpl implements SellerStatsService {
+
+    private static final int STATUS_PENDING_PAYMENT = 0;
+    private static final int STATUS_PENDING_SHIPMENT = 1;
+    private static final int STATUS_SHIPPED = 2;
+    private static final int STATUS_COMPLETED = 3;
+    private static final int STATUS_CANCELLED = 4;
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final SellerStatsMapper sellerStatsMapper;
+    private final OrderMapper orderMapper;
+    private final OrderItemMapper orderItemMapper;
+
+    /**
+     * 已提交、尚未汇总的订单事件
+     */
+    private final Queue<PendingEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 已汇总、尚未写入数据库的增量：卖家ID|日期 -> 增量（由flush的对象锁保护）
+     */
+    private final Map<String, SellerDailyStats> unflushed = new LinkedHashMap<>();
+
+    @Override
+    public SellerStatsVO getStats(Long sellerId) {
+        LocalDate today = LocalDate.now();
+        SellerDailyStats total = new SellerDailyStats();
+        BigDecimal revenueToday = BigDecimal.ZERO;
+        BigDecimal revenueThisMonth = BigDecimal.ZERO;
+        for (SellerDailyStats row : sellerStatsMapper.selectSummaryRows(sellerId, today.withDayOfMonth(1))) {
+            if (row.getStatDate() == null) {
+                total = row;
+                continue;
+            }
+            BigDecimal revenue = nullToZero(row.getRevenue());
+            revenueThisMonth = revenueThisMonth.add(revenue);
+            if (today.equals(row.getStatDate())) {
+                revenueToday = revenueToday.add(revenue);
+            }
+        }
+
+        SellerStatsVO stats = new SellerStatsVO();
+        stats.setTotalOrders((long) nullToZero(total.getOrderCount()));
+        stats.setPendingOrders(pendingOrders(total));
+        stats.setCompletedOrders((long) nullToZero(total.getCompletedOrderCount()));
+        stats.setTotalRevenue(nullToZero(total.getRevenue()));
+        stats.setRevenueToday(revenueToday);
+        stats.setRevenueThisMonth(revenueThisMonth);
+        stats.setTotalSales((long) nullToZero(total.getUnits()));
+        stats.setTotalProducts(sellerStatsMapper.countTotalProducts(sellerId));
+        stats.setActiveProducts(sellerStatsMapper.countActiveProducts(sellerId));
+        return stats;
+    }
+
+    @Override
+    public void recordOrderCreated(Long orderId) {
+        if (orderId != null) {
+            pendingEvents.offer(new PendingEvent(orderId, null));
+        }
+    }
+
+    @Override
+    public void recordStatusChanged(Long orderId, Integer fromStatus, Integer toStatus) {
+        if (orderId == null || toStatus == null) {
+            return;
+        }
+        boolean counted = switch (toStatus) {
+            case STATUS_PENDING_SHIPMENT -> Integer.valueOf(STATUS_PENDING_PAYMENT).equals(fromStatus);
+            case STATUS_SHIPPED, STATUS_COMPLETED, STATUS_CANCELLED -> true;
+            default -> false;
+        };
+        if (counted) {
+            pendingEvents.offer(new PendingEvent(orderId, toStatus));
+        }
+    }
+
+    @Override
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${stats.seller.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<PendingEvent> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+        boolean aggregated = true;
+        PendingEvent event;
+        while (aggregated && (event = pendingEvents.poll()) != null) {
+            batch.add(event);
+            if (batch.size() == FLUSH_BATCH_SIZE) {
+                aggregated = aggregate(batch);
+                batch.clear();
+            }
+        }
+        if (aggregated && !batch.isEmpty()) {
+            aggregate(batch);
+        }
+        if (unflushed.isEmpty()) {
+            return;
+        }
+
+        List<SellerDailyStats> rows = new ArrayList<>(unflushed.values());
+        for (int from = 0; from < rows.size(); from += FLUSH_BATCH_SIZE) {
+            List<SellerDailyStats> chunk = rows.subList(from, Math.min(from + FLUSH_BATCH_SIZE, rows.size()));
+            try {
+                sellerStatsMapper.batchIncrementDaily(chunk);
+                chunk.forEach(row -> unflushed.remove(key(row.getSellerId(), row.getStatDate())));
+            } catch (Exception e) {
+                // 留在缓冲中等待下一轮
+                log.error("卖家每日统计写入失败，稍后重试: rows={}", chunk.size(), e);
+            }
+        }
+        log.debug("卖家每日统计写入完成: rows={}", rows.size());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void backfill(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return;
+        }
+        flush();
+        int deleted = sellerStatsMapper.deleteDaily(from, to);
+        int inserted = sellerStatsMapper.insertDailyFromOrders(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        log.info("卖家每日统计重建完成: from={}, to={}, deleted={}, inserted={}", from, to, deleted, inserted);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void backfillIfEmpty() {
+        if (sellerStatsMapper.existsDaily()) {
+            return;
+        }
+        LocalDate earliest = sellerStatsMapper.selectEarliestOrderDate();
+        if (earliest == null) {
+            return;
+        }
+        // 表为空时当天也一并补建，之后的增量在此基础上累加
+        backfill(earliest, LocalDate.now());
+    }
+
+    /**
+     * 一次查询本批事件涉及的订单（支付事件再查一次明细），增量按卖家和事件发生日期合并到unflushed
+     *
+     * @return 查询失败时放回事件并返回false
+     */
+    private boolean aggregate(List<PendingEvent> batch) {
+        Map<Long, Order> orders;
+        Map<Long, Integer> units;
+        try {
+            Set<Long> orderIds = new HashSet<>();
+            Set<Long> paidOrderIds = new HashSet<>();
+            for (PendingEvent event : batch) {
+                orderIds.add(event.getOrderId());
+                if (Integer.valueOf(STATUS_PENDING_SHIPMENT).equals(event.getToStatus())) {
+                    paidOrderIds.add(event.getOrderId());
+                }
+            }
+            orders = orderMapper.selectByIds(orderIds).stream()
+                    .collect(Collectors.toMap(Order::getId, order -> order));
+            units = new HashMap<>();
+            if (!paidOrderIds.isEmpty()) {
+                for (OrderItem item : orderItemMapper.selectByOrderIds(paidOrderIds)) {
+                    if (item.getQuantity() != null) {
+                        units.merge(item.getOrderId(), item.getQuantity(), Integer::sum);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            pendingEvents.addAll(batch);
+            log.error("卖家每日统计汇总失败，稍后重试: events={}", batch.size(), e);
+            return false;
+        }
+
+        for (PendingEvent event : batch) {
+            Order order = orders.get(event.getOrderId());
+            if (order == null) {
+                continue;
+            }
+            if (event.getToStatus() == null) {
+                SellerDailyStats delta = delta(order, order.getCreateTime());
+                delta.setOrderCount(delta.getOrderCount() + 1);
+                continue;
+            }
+            switch (event.getToStatus()) {
+                case STATUS_PENDING_SHIPMENT -> {
+                    SellerDailyStats delta = delta(order, order.getPaymentTime());
+                    delta.setPaidOrderCount(delta.getPaidOrderCount() + 1);
+                    delta.setRevenue(delta.getRevenue().add(nullToZero(order.getTotalAmount())));
+                    delta.setUnits(delta.getUnits() + units.getOrDefault(order.getId(), 0));
+                }
+                case STATUS_SHIPPED -> {
+                    SellerDailyStats delta = delta(order, order.getShipTime());
+                    delta.setShippedOrderCount(delta.getShippedOrderCount() + 1);
+                }
+                case STATUS_COMPLETED -> {
+                    SellerDailyStats delta = delta(order, order.getCompleteTime());
+                    delta.setCompletedOrderCount(delta.getCompletedOrderCount() + 1);
+                }
+                case STATUS_CANCELLED -> {
+                    SellerDailyStats delta = delta(order, order.getCancelTime());
+                    delta.setCancelledOrderCount(delta.getCancelledOrderCount() + 1);
+                }
+                default -> {
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 事件发生当天该卖家的增量行，没有时间时计入当天
+     */
+    private SellerDailyStats delta(Order order, LocalDateTime eventTime) {
+        LocalDate statDate = eventTime != null ? eventTime.toLocalDate() : LocalDate.now();
+        return unflushed.computeIfAbsent(key(order.getSellerId(), statDate), k -> {
+            SellerDailyStats delta = new SellerDailyStats();
+            delta.setSellerId(order.getSellerId());
+            delta.setStatDate(statDate);
+            return delta;
+        });
+    }
+
+    /**
+     * 待发货订单 = 下单 - 发货 - 取消（含待支付订单）
+     */
+    static long pendingOrders(SellerDailyStats total) {
+        return (long) nullToZero(total.getOrderCount())
+                - nullToZero(total.getShippedOrderCount())
+                - nullToZero(total.getCancelledOrderCount());
+    }
+
+    private static String key(Long sellerId, LocalDate statDate) {
+        return sellerId + "|" + statDate;
+    }
+
+    private static int nullToZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /**
+     * 已提交的订单事件，toStatus为null表示下单
+     */
+    @Getter
+    @AllArgsConstructor
+    private static final class PendingEvent {
+
+        private final Long orderId;
+
+        private final Integer toStatus;
+    }
+}
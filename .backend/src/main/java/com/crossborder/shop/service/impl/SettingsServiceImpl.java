@@ -6,25 +6,30 @@ import com.crossborder.shop.dto.SystemSettingDTO;
 import com.crossborder.shop.entity.SystemConfig;
 import com.crossborder.shop.exception.BusinessException;
 import com.crossborder.shop.mapper.SystemConfigMapper;
-import com.crossborder.shop.mapper.SystemStatsMapper;
-import com.crossborder.shop.mapper.SellerStatsMapper;
+import com.crossborder.shop.service.PlatformStatsService;
+import com.crossborder.shop.service.SellerStatsService;
 import com.crossborder.shop.service.SettingsService;
 import com.crossborder.shop.vo.AppConfigVO;
 import com.crossborder.shop.vo.SystemSettingVO;
 import com.crossborder.shop.vo.SystemStatsVO;
 import com.crossborder.shop.vo.SellerStatsVO;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * 系统设置服务实现
+ * 配置读取走内存中的不可变快照，数值/布尔配置在加载时预先解析；
+ * 本节点修改配置提交后重建快照，其他节点定时比对配置表版本，有变化时才重新加载
  *
  * @author CrossBorder Team
  * @since 2026-02-09
@@ -48,20 +53,49 @@ public class SettingsServiceImpl implements SettingsService {
     private static final String KEY_HOME_CAROUSEL_IMAGES = "home.carousel.images";
 
     private final SystemConfigMapper systemConfigMapper;
-    private final SystemStatsMapper systemStatsMapper;
-    private final SellerStatsMapper sellerStatsMapper;
+    private final PlatformStatsService platformStatsService;
+    private final SellerStatsService sellerStatsService;
+
+    private volatile ConfigSnapshot snapshot = ConfigSnapshot.EMPTY;
+
+    @PostConstruct
+    public void init() {
+        reloadSnapshot();
+    }
+
+    /**
+     * 比对配置表版本，其他节点修改配置后重新加载快照
+     */
+    @Scheduled(fixedDelayString = "${settings.refresh-interval-ms:10000}",
+            initialDelayString = "${settings.refresh-interval-ms:10000}")
+    public void refreshIfChanged() {
+        String version = systemConfigMapper.selectVersion();
+        if (!Objects.equals(version, snapshot.version)) {
+            reloadSnapshot();
+        }
+    }
+
+    /**
+     * 重新加载配置快照
+     */
+    public synchronized void reloadSnapshot() {
+        // 先取版本再取数据，加载期间发生的修改会在下次比对时被发现
+        String version = systemConfigMapper.selectVersion();
+        ConfigSnapshot loaded = ConfigSnapshot.build(systemConfigMapper.selectAll(), version);
+        snapshot = loaded;
+        log.debug("系统配置快照已加载: version={}, configs={}", version, loaded.configs.size());
+    }
 
     @Override
     public List<SystemSettingVO> getAllSettings() {
-        List<SystemConfig> configs = systemConfigMapper.selectAll();
-        return configs.stream()
+        return snapshot.configs.stream()
                 .map(this::convertToSettingVO)
                 .collect(Collectors.toList());
     }
 
     @Override
     public SystemSettingVO getSettingByKey(String key) {
-        SystemConfig config = systemConfigMapper.selectByKey(key);
+        SystemConfig config = snapshot.configsByKey.get(key);
         if (config == null) {
             throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "配置不存在");
         }
@@ -84,7 +118,7 @@ public class SettingsServiceImpl implements SettingsService {
 
     @Override
     public AppConfigVO getAppConfig() {
-        return buildAppConfig();
+        return snapshot.appConfig;
     }
 
     @Override
@@ -138,76 +172,36 @@ public class SettingsServiceImpl implements SettingsService {
 
     @Override
     public SystemStatsVO getSystemStats() {
-        SystemStatsVO stats = new SystemStatsVO();
-        stats.setTotalUsers(systemStatsMapper.countTotalUsers());
-        stats.setActiveUsers(systemStatsMapper.countActiveUsers());
-        stats.setNewUsersToday(systemStatsMapper.countNewUsersToday());
-        stats.setTotalProducts(systemStatsMapper.countTotalProducts());
-        stats.setActiveProducts(systemStatsMapper.countActiveProducts());
-        stats.setTotalOrders(systemStatsMapper.countTotalOrders());
-        stats.setPendingOrders(systemStatsMapper.countPendingOrders());
-        stats.setTotalRevenue(systemStatsMapper.sumTotalRevenue());
-        stats.setRevenueToday(systemStatsMapper.sumRevenueToday());
-        stats.setLastUpdateTime(LocalDateTime.now());
-        return stats;
+        return platformStatsService.getStats();
     }
 
     @Override
     public SellerStatsVO getSellerStats(Long sellerId) {
-        SellerStatsVO stats = new SellerStatsVO();
-        stats.setTotalProducts(sellerStatsMapper.countTotalProducts(sellerId));
-        stats.setActiveProducts(sellerStatsMapper.countActiveProducts(sellerId));
-        stats.setTotalOrders(sellerStatsMapper.countTotalOrders(sellerId));
-        stats.setPendingOrders(sellerStatsMapper.countPendingOrders(sellerId));
-        stats.setCompletedOrders(sellerStatsMapper.countCompletedOrders(sellerId));
-        stats.setTotalRevenue(sellerStatsMapper.sumTotalRevenue(sellerId));
-        stats.setRevenueToday(sellerStatsMapper.sumRevenueToday(sellerId));
-        stats.setRevenueThisMonth(sellerStatsMapper.sumRevenueThisMonth(sellerId));
-        stats.setTotalSales(sellerStatsMapper.countTotalSales(sellerId));
-        return stats;
+        return sellerStatsService.getStats(sellerId);
     }
 
-    private AppConfigVO buildAppConfig() {
-        List<String> keys = Arrays.asList(
-                KEY_APP_NAME,
-                KEY_APP_VERSION,
-                KEY_APP_DESCRIPTION,
-                KEY_SUPPORT_EMAIL,
-                KEY_SUPPORT_PHONE,
-                KEY_DEFAULT_CURRENCY,
-                KEY_FREE_SHIPPING_THRESHOLD,
-                KEY_SHIPPING_FEE,
-                KEY_MAX_UPLOAD_SIZE,
-                KEY_ENABLE_USER_REGISTRATION,
-                KEY_ENABLE_SELLER_REGISTRATION,
-                KEY_HOME_CAROUSEL_IMAGES);
-
-        List<SystemConfig> configs = systemConfigMapper.selectByKeys(keys);
-        Map<String, SystemConfig> map = configs.stream()
-                .collect(Collectors.toMap(SystemConfig::getConfigKey, c -> c, (a, b) -> a));
-
+    private static AppConfigVO buildAppConfig(ConfigSnapshot snapshot) {
         AppConfigVO vo = new AppConfigVO();
-        vo.setAppName(getStringValue(map, KEY_APP_NAME));
-        vo.setAppVersion(getStringValue(map, KEY_APP_VERSION));
-        vo.setAppDescription(getStringValue(map, KEY_APP_DESCRIPTION));
-        vo.setSupportEmail(getStringValue(map, KEY_SUPPORT_EMAIL));
-        vo.setSupportPhone(getStringValue(map, KEY_SUPPORT_PHONE));
-        vo.setDefaultCurrency(getStringValue(map, KEY_DEFAULT_CURRENCY));
-        vo.setFreeshippingThreshold(getBigDecimalValue(map, KEY_FREE_SHIPPING_THRESHOLD));
-        vo.setShippingFee(getBigDecimalValue(map, KEY_SHIPPING_FEE));
-        vo.setMaxUploadSize(getIntegerValue(map, KEY_MAX_UPLOAD_SIZE));
-        vo.setEnableUserRegistration(getBooleanValue(map, KEY_ENABLE_USER_REGISTRATION));
-        vo.setEnableSellerRegistration(getBooleanValue(map, KEY_ENABLE_SELLER_REGISTRATION));
-
-        String carouselValue = getStringValue(map, KEY_HOME_CAROUSEL_IMAGES);
-        List<String> carouselImages = parseCarouselImages(carouselValue);
+        vo.setAppName(snapshot.getString(KEY_APP_NAME));
+        vo.setAppVersion(snapshot.getString(KEY_APP_VERSION));
+        vo.setAppDescription(snapshot.getString(KEY_APP_DESCRIPTION));
+        vo.setSupportEmail(snapshot.getString(KEY_SUPPORT_EMAIL));
+        vo.setSupportPhone(snapshot.getString(KEY_SUPPORT_PHONE));
+        vo.setDefaultCurrency(snapshot.getString(KEY_DEFAULT_CURRENCY));
+        vo.setFreeshippingThreshold(snapshot.decimals.get(KEY_FREE_SHIPPING_THRESHOLD));
+        vo.setShippingFee(snapshot.decimals.get(KEY_SHIPPING_FEE));
+        vo.setMaxUploadSize(snapshot.integers.get(KEY_MAX_UPLOAD_SIZE));
+        vo.setEnableUserRegistration(snapshot.booleans.get(KEY_ENABLE_USER_REGISTRATION));
+        vo.setEnableSellerRegistration(snapshot.booleans.get(KEY_ENABLE_SELLER_REGISTRATION));
+
+        List<String> carouselImages = List.copyOf(parseCarouselImages(snapshot.getString(KEY_HOME_CAROUSEL_IMAGES)));
         vo.setCarouselImages(carouselImages);
         vo.setCarouselImageCount(carouselImages.size());
 
         return vo;
     }
 
-    private List<String> parseCarouselImages(String value) {
+    private static List<String> parseCarouselImages(String value) {
         if (value == null || value.trim().isEmpty()) {
             return new ArrayList<>();
         }
@@ -224,12 +218,26 @@ public class SettingsServiceImpl implements SettingsService {
 
     @Override
     public boolean getBooleanConfig(String key, boolean defaultValue) {
-        SystemConfig config = systemConfigMapper.selectByKey(key);
-        if (config == null || config.getConfigValue() == null) {
-            return defaultValue;
-        }
-        String value = config.getConfigValue().trim();
-        return "1".equals(value) || "true".equalsIgnoreCase(value);
+        Boolean value = snapshot.booleans.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public String getStringConfig(String key, String defaultValue) {
+        String value = snapshot.getString(key);
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public BigDecimal getDecimalConfig(String key, BigDecimal defaultValue) {
+        BigDecimal value = snapshot.decimals.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public Integer getIntegerConfig(String key, Integer defaultValue) {
+        Integer value = snapshot.integers.get(key);
+        return value != null ? value : defaultValue;
     }
 
     @Override
@@ -252,46 +260,6 @@ public class SettingsServiceImpl implements SettingsService {
         return vo;
     }
 
-    private String getStringValue(Map<String, SystemConfig> map, String key) {
-        SystemConfig config = map.get(key);
-        return config != null ? config.getConfigValue() : null;
-    }
-
-    private BigDecimal getBigDecimalValue(Map<String, SystemConfig> map, String key) {
-        SystemConfig config = map.get(key);
-        if (config == null || config.getConfigValue() == null) {
-            return null;
-        }
-        try {
-            return new BigDecimal(config.getConfigValue());
-        } catch (Exception e) {
-            log.warn("配置值不是合法数字: key={}, value={}", key, config.getConfigValue());
-            return null;
-        }
-    }
-
-    private Integer getIntegerValue(Map<String, SystemConfig> map, String key) {
-        SystemConfig config = map.get(key);
-        if (config == null || config.getConfigValue() == null) {
-            return null;
-        }
-        try {
-            return Integer.parseInt(config.getConfigValue());
-        } catch (Exception e) {
-            log.warn("配置值不是合法整数: key={}, value={}", key, config.getConfigValue());
-            return null;
-        }
-    }
-
-    private Boolean getBooleanValue(Map<String, SystemConfig> map, String key) {
-        SystemConfig config = map.get(key);
-        if (config == null || config.getConfigValue() == null) {
-            return null;
-        }
-        String value = config.getConfigValue().trim();
-        return "1".equals(value) || "true".equalsIgnoreCase(value);
-    }
-
     private void upsertConfig(String key, String value, String type, String group, String description) {
         SystemConfig existing = systemConfigMapper.selectByKey(key);
         if (existing == null) {
@@ -303,6 +271,7 @@ public class SettingsServiceImpl implements SettingsService {
             config.setDescription(description);
             config.setStatus(1);
             systemConfigMapper.insert(config);
+            reloadSnapshotAfterCommit();
             return;
         }
 
@@ -313,5 +282,95 @@ public class SettingsServiceImpl implements SettingsService {
         update.setGroupName(group);
         update.setDescription(description);
         systemConfigMapper.updateByKey(update);
+        reloadSnapshotAfterCommit();
+    }
+
+    /**
+     * 事务提交后重建配置快照，同一事务内多次修改只重建一次
+     */
+    private void reloadSnapshotAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reloadSnapshot();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(SettingsServiceImpl.this);
+                if (status == STATUS_COMMITTED) {
+                    reloadSnapshot();
+                }
+            }
+        });
+    }
+
+    /**
+     * 不可变配置快照
+     */
+    private static final class ConfigSnapshot {
+
+        private static final ConfigSnapshot EMPTY = build(List.of(), null);
+
+        private final String version;
+        private final List<SystemConfig> configs;
+        private final Map<String, SystemConfig> configsByKey;
+        private final Map<String, BigDecimal> decimals;
+        private final Map<String, Integer> integers;
+        private final Map<String, Boolean> booleans;
+        private final AppConfigVO appConfig;
+
+        private ConfigSnapshot(String version, List<SystemConfig> configs, Map<String, SystemConfig> configsByKey,
+                Map<String, BigDecimal> decimals, Map<String, Integer> integers, Map<String, Boolean> booleans) {
+            this.version = version;
+            this.configs = configs;
+            this.configsByKey = configsByKey;
+            this.decimals = decimals;
+            this.integers = integers;
+            this.booleans = booleans;
+            this.appConfig = buildAppConfig(this);
+        }
+
+        static ConfigSnapshot build(List<SystemConfig> configs, String version) {
+            Map<String, SystemConfig> configsByKey = new HashMap<>();
+            Map<String, BigDecimal> decimals = new HashMap<>();
+            Map<String, Integer> integers = new HashMap<>();
+            Map<String, Boolean> booleans = new HashMap<>();
+            for (SystemConfig config : configs) {
+                String key = config.getConfigKey();
+                if (key == null || configsByKey.putIfAbsent(key, config) != null) {
+                    continue;
+                }
+                String value = config.getConfigValue();
+                if (value == null) {
+                    continue;
+                }
+                String trimmed = value.trim();
+                booleans.put(key, "1".equals(trimmed) || "true".equalsIgnoreCase(trimmed));
+                try {
+                    decimals.put(key, new BigDecimal(trimmed));
+                } catch (NumberFormatException e) {
+                    if ("number".equals(config.getConfigType())) {
+                        log.warn("配置值不是合法数字: key={}, value={}", key, value);
+                    }
+                    continue;
+                }
+                try {
+                    integers.put(key, Integer.parseInt(trimmed));
+                } catch (NumberFormatException ignored) {
+                    // 小数或超出范围，只提供BigDecimal值
+                }
+            }
+            return new ConfigSnapshot(version, List.copyOf(configs), Map.copyOf(configsByKey),
+                    Map.copyOf(decimals), Map.copyOf(integers), Map.copyOf(booleans));
+        }
+
+        String getString(String key) {
+            SystemConfig config = configsByKey.get(key);
+            return config != null ? config.getConfigValue() : null;
+        }
     }
 }
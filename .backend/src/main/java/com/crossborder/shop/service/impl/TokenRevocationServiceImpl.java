@@ -0,0 +1,252 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.common.ResultCode;
+import com.crossborder.shop.entity.TokenRevocation;
+import com.crossborder.shop.exception.BusinessException;
+import com.crossborder.shop.mapper.TokenRevocationMapper;
+import com.crossborder.shop.service.TokenRevocationService;
+import com.crossborder.shop.util.BloomFilter;
+import com.crossborder.shop.util.JwtUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token吊销服务实现
+ * 写入方在同步锁内维护可变的吊销集合，每次变化后重建布隆过滤器并发布不可变快照；
+ * 鉴权线程只读取volatile快照，布隆过滤器判定不存在时直接放行；
+ * 启动时同步全量加载，加载成功前没有快照，鉴权一律失败（不能用空集合放行已吊销的Token）
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final TokenRevocationMapper tokenRevocationMapper;
+    private final JwtUtil jwtUtil;
+
+    @Value("${security.token-revocation.sync-overlap-seconds:10}")
+    private long syncOverlapSeconds;
+
+    /**
+     * jti -> 失效时间（毫秒）
+     */
+    private final Map<String, Long> revokedTokens = new HashMap<>();
+
+    /**
+     * 用户ID -> 整体吊销记录，同一用户只保留最晚的一次
+     */
+    private final Map<Long, UserRevocation> revokedUsers = new HashMap<>();
+
+    /**
+     * 首次全量加载成功前为null
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 已同步记录的最大创建时间（数据库时钟），为null时需全量加载
+     */
+    private LocalDateTime syncedCreateTime;
+
+    /**
+     * 启动时同步加载；失败时不阻止启动，由定时同步重试，期间鉴权失败
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Token吊销列表加载失败，加载成功前拒绝鉴权", e);
+        }
+    }
+
+    @Override
+    public void revokeToken(JwtUtil.VerifiedToken token) {
+        if (token == null || token.getTokenId() == null) {
+            return;
+        }
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setTokenId(token.getTokenId());
+        revocation.setUserId(token.getUserId());
+        revocation.setRevokeTime(LocalDateTime.now());
+        revocation.setExpireTime(toLocalDateTime(token.getExpiresAt()));
+        save(revocation);
+        log.info("Token已吊销: userId={}, tokenType={}", token.getUserId(), token.getTokenType());
+    }
+
+    @Override
+    public void revokeUser(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId(userId);
+        revocation.setRevokeTime(now);
+        // 此前签发的Token最晚在RefreshToken有效期后全部过期
+        revocation.setExpireTime(now.plusNanos(jwtUtil.getRefreshTokenExpiration() * 1_000_000));
+        save(revocation);
+        log.info("用户全部Token已吊销: userId={}", userId);
+    }
+
+    private void save(TokenRevocation revocation) {
+        tokenRevocationMapper.insert(revocation);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyLocally(revocation);
+                }
+            });
+        } else {
+            applyLocally(revocation);
+        }
+    }
+
+    private synchronized void applyLocally(TokenRevocation revocation) {
+        apply(revocation);
+        if (snapshot != null) {
+            publish();
+        }
+    }
+
+    @Override
+    public boolean isRevoked(JwtUtil.VerifiedToken token) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "Token吊销列表加载中，请稍后重试");
+        }
+        String tokenId = token.getTokenId();
+        if (tokenId != null && current.filter.mightContain(tokenKey(tokenId))
+                && current.tokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (current.filter.mightContain(userKey(token.getUserId()))) {
+            Long revokedBefore = current.users.get(token.getUserId());
+            // iat只精确到秒，同一秒内签发的Token也视为已吊销
+            return revokedBefore != null && token.getIssuedAt() <= revokedBefore;
+        }
+        return false;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${security.token-revocation.sync-interval-ms:2000}")
+    public synchronized void refresh() {
+        LocalDateTime since = syncedCreateTime != null ? syncedCreateTime.minusSeconds(syncOverlapSeconds) : null;
+        List<TokenRevocation> revocations = tokenRevocationMapper.selectActiveSince(since);
+        for (TokenRevocation revocation : revocations) {
+            apply(revocation);
+            if (syncedCreateTime == null || revocation.getCreateTime().isAfter(syncedCreateTime)) {
+                syncedCreateTime = revocation.getCreateTime();
+            }
+        }
+        boolean pruned = prune();
+        if (snapshot == null) {
+            publish();
+            log.info("Token吊销列表加载完成: tokens={}, users={}", revokedTokens.size(), revokedUsers.size());
+        } else if (!revocations.isEmpty() || pruned) {
+            publish();
+        }
+    }
+
+    /**
+     * 清理已失效的吊销记录
+     */
+    @Scheduled(fixedDelayString = "${security.token-revocation.purge-interval-ms:3600000}",
+            initialDelayString = "${security.token-revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = tokenRevocationMapper.deleteExpired();
+        if (deleted > 0) {
+            log.info("清理已失效的Token吊销记录: {}", deleted);
+        }
+    }
+
+    private void apply(TokenRevocation revocation) {
+        long expireAt = toEpochMilli(revocation.getExpireTime());
+        if (revocation.getTokenId() != null) {
+            revokedTokens.put(revocation.getTokenId(), expireAt);
+            return;
+        }
+        long revokedAt = toEpochMilli(revocation.getRevokeTime());
+        revokedUsers.merge(revocation.getUserId(), new UserRevocation(revokedAt, expireAt),
+                (a, b) -> a.revokedAt >= b.revokedAt ? a : b);
+    }
+
+    private boolean prune() {
+        long now = System.currentTimeMillis();
+        boolean tokensPruned = revokedTokens.values().removeIf(expireAt -> expireAt <= now);
+        boolean usersPruned = revokedUsers.values().removeIf(user -> user.expireAt <= now);
+        return tokensPruned || usersPruned;
+    }
+
+    private void publish() {
+        Map<Long, Long> users = new HashMap<>(revokedUsers.size() * 2);
+        revokedUsers.forEach((userId, user) -> users.put(userId, user.revokedAt));
+        snapshot = Snapshot.build(new HashMap<>(revokedTokens), users);
+    }
+
+    private static String tokenKey(String tokenId) {
+        return "t:" + tokenId;
+    }
+
+    private static String userKey(Long userId) {
+        return "u:" + userId;
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+
+    private static final class UserRevocation {
+
+        private final long revokedAt;
+        private final long expireAt;
+
+        private UserRevocation(long revokedAt, long expireAt) {
+            this.revokedAt = revokedAt;
+            this.expireAt = expireAt;
+        }
+    }
+
+    /**
+     * 不可变的吊销快照
+     */
+    private static final class Snapshot {
+
+        private final BloomFilter filter;
+        private final Map<String, Long> tokens;
+        private final Map<Long, Long> users;
+
+        private Snapshot(BloomFilter filter, Map<String, Long> tokens, Map<Long, Long> users) {
+            this.filter = filter;
+            this.tokens = tokens;
+            this.users = users;
+        }
+
+        static Snapshot build(Map<String, Long> tokens, Map<Long, Long> users) {
+            BloomFilter filter = new BloomFilter(Math.max(1024, (tokens.size() + users.size()) * 2),
+                    FALSE_POSITIVE_RATE);
+            tokens.keySet().forEach(tokenId -> filter.put(tokenKey(tokenId)));
+            users.keySet().forEach(userId -> filter.put(userKey(userId)));
+            return new Snapshot(filter, tokens, users);
+        }
+    }
+}
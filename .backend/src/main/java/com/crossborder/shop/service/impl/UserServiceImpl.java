@@ -8,10 +8,16 @@ import com.crossborder.shop.dto.UserRegisterDTO;
 import com.crossborder.shop.dto.UserUpdateDTO;
 import com.crossborder.shop.entity.Role;
 import com.crossborder.shop.entity.User;
+import com.crossborder.shop.event.UserRegisteredEvent;
 import com.crossborder.shop.exception.BusinessException;
 import com.crossborder.shop.mapper.UserMapper;
 import com.crossborder.shop.security.UserPrincipal;
+import com.crossborder.shop.service.LoginLimitService;
+import com.crossborder.shop.service.LoginRecordService;
+import com.crossborder.shop.service.PasswordService;
+import com.crossborder.shop.service.RoleService;
 import com.crossborder.shop.service.SettingsService;
+import com.crossborder.shop.service.TokenRevocationService;
 import com.crossborder.shop.service.UserService;
 import com.crossborder.shop.util.JwtUtil;
 import com.crossborder.shop.vo.LoginVO;
@@ -19,13 +25,14 @@ import com.crossborder.shop.vo.RoleVO;
 import com.crossborder.shop.vo.UserVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -40,9 +47,14 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordService passwordService;
+    private final LoginLimitService loginLimitService;
+    private final LoginRecordService loginRecordService;
+    private final RoleService roleService;
     private final JwtUtil jwtUtil;
     private final SettingsService settingsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -64,7 +76,7 @@ public class UserServiceImpl implements UserService {
         // 创建用户
         User user = new User();
         user.setUsername(dto.getUsername());
-        user.setPassword(passwordEncoder.encode(dto.getPassword()));
+        user.setPassword(passwordService.encode(dto.getPassword()));
         user.setNickname(dto.getNickname() != null ? dto.getNickname() : dto.getUsername());
         user.setEmail(dto.getEmail());
         user.setPhone(dto.getPhone());
@@ -79,19 +91,25 @@ public class UserServiceImpl implements UserService {
         // 绑定角色
         userMapper.insertUserRole(user.getId(), dto.getRoleId());
 
+        eventPublisher.publishEvent(new UserRegisteredEvent(user.getId()));
         log.info("用户注册成功: {}", dto.getUsername());
     }
 
     @Override
-    public LoginVO login(UserLoginDTO dto) {
+    public LoginVO login(UserLoginDTO dto, String clientIp) {
+        // 限流准入（在查询用户和计算哈希之前）
+        loginLimitService.acquire(clientIp, dto.getUsername());
+
         // 查询用户
         User user = userMapper.selectByUsername(dto.getUsername());
         if (user == null) {
+            loginLimitService.recordFailure(clientIp, dto.getUsername());
             throw new BusinessException(ResultCode.USERNAME_OR_PASSWORD_ERROR);
         }
 
-        // 校验密码
-        if (!passwordEncoder.matches(dto.getPassword(), user.getPassword())) {
+        // 校验密码（只有失败才计入该用户名在此IP上的限流）
+        if (!passwordService.matches(dto.getPassword(), user.getPassword())) {
+            loginLimitService.recordFailure(clientIp, dto.getUsername());
             throw new BusinessException(ResultCode.USERNAME_OR_PASSWORD_ERROR);
         }
 
@@ -102,13 +120,19 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException(ResultCode.ACCOUNT_LOCKED);
         }
 
-        // 更新登录信息
+        // 记录登录信息（异步批量回写）
         user.setLastLoginTime(LocalDateTime.now());
-        user.setLastLoginIp("127.0.0.1"); // TODO: 获取真实IP
-        userMapper.updateById(user);
+        user.setLastLoginIp(clientIp);
+        loginRecordService.record(user.getId(), clientIp);
+
+        // BCrypt强度调整后，登录时在后台按新强度重新计算哈希
+        Long userId = user.getId();
+        String encodedPassword = user.getPassword();
+        passwordService.upgradeAsync(dto.getPassword(), encodedPassword,
+                newPassword -> userMapper.updatePassword(userId, newPassword, encodedPassword));
 
-        // 生成Token
-        List<Role> roles = userMapper.selectRolesByUserId(user.getId());
+        // 生成Token（角色只查询一次，同时用于Token和用户信息）
+        List<Role> roles = roleService.getRolesByUserId(user.getId());
         List<String> roleCodes = roles.stream()
                 .map(Role::getRoleCode)
                 .collect(Collectors.toList());
@@ -116,7 +140,7 @@ public class UserServiceImpl implements UserService {
         String refreshToken = jwtUtil.generateRefreshToken(user.getId(), user.getUsername());
 
         // 封装用户信息
-        UserVO userVO = convertToUserVO(user);
+        UserVO userVO = convertToUserVO(user, roles);
 
         log.info("用户登录成功: {}", dto.getUsername());
 
@@ -132,25 +156,23 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public LoginVO refreshToken(String refreshToken) {
-        // 校验RefreshToken是否过期
-        if (jwtUtil.isTokenExpired(refreshToken)) {
+        // 校验RefreshToken（过期或无法解析均视为过期）
+        JwtUtil.VerifiedToken verified = jwtUtil.verify(refreshToken);
+        if (verified == null) {
             throw new BusinessException(ResultCode.TOKEN_EXPIRED);
         }
-
-        // 校验RefreshToken是否有效
-        if (!jwtUtil.validateToken(refreshToken)) {
+        if (tokenRevocationService.isRevoked(verified)) {
             throw new BusinessException(ResultCode.TOKEN_INVALID);
         }
 
         // 校验Token类型
-        String tokenType = jwtUtil.getTokenTypeFromToken(refreshToken);
-        if (!"refresh".equals(tokenType)) {
+        if (!"refresh".equals(verified.getTokenType())) {
             throw new BusinessException(ResultCode.TOKEN_INVALID.getCode(), "Token类型错误");
         }
 
         // 获取用户信息
-        Long userId = jwtUtil.getUserIdFromToken(refreshToken);
-        String username = jwtUtil.getUsernameFromToken(refreshToken);
+        Long userId = verified.getUserId();
+        String username = verified.getUsername();
 
         User user = userMapper.selectById(userId);
         if (user == null) {
@@ -163,14 +185,14 @@ public class UserServiceImpl implements UserService {
         }
 
         // 生成新Token
-        List<Role> roles = userMapper.selectRolesByUserId(userId);
+        List<Role> roles = roleService.getRolesByUserId(userId);
         List<String> roleCodes = roles.stream()
                 .map(Role::getRoleCode)
                 .collect(Collectors.toList());
         String newAccessToken = jwtUtil.generateAccessToken(userId, username, roleCodes);
         String newRefreshToken = jwtUtil.generateRefreshToken(userId, username);
 
-        UserVO userVO = convertToUserVO(user);
+        UserVO userVO = convertToUserVO(user, roles);
 
         log.info("Token刷新成功: {}", username);
 
@@ -185,8 +207,15 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public void logout() {
-        log.info("用户登出");
+    public void logout(String accessToken, String refreshToken) {
+        JwtUtil.VerifiedToken access = jwtUtil.verify(accessToken);
+        tokenRevocationService.revokeToken(access);
+        JwtUtil.VerifiedToken refresh = jwtUtil.verify(refreshToken);
+        // 只吊销属于当前用户的RefreshToken
+        if (refresh != null && (access == null || refresh.getUserId().equals(access.getUserId()))) {
+            tokenRevocationService.revokeToken(refresh);
+        }
+        log.info("用户登出: userId={}", access != null ? access.getUserId() : null);
     }
 
     @Override
@@ -196,7 +225,7 @@ public class UserServiceImpl implements UserService {
         if (user == null) {
             throw new BusinessException(ResultCode.USER_NOT_FOUND);
         }
-        return convertToUserVO(user);
+        return convertToUserVO(user, roleService.getRolesByUserId(user.getId()));
     }
 
     @Override
@@ -229,16 +258,12 @@ public class UserServiceImpl implements UserService {
         }
 
         // 校验旧密码
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordService.matches(oldPassword, user.getPassword())) {
             throw new BusinessException(ResultCode.PASSWORD_ERROR);
         }
 
         // 更新密码
-        User updateUser = new User();
-        updateUser.setId(userId);
-        updateUser.setPassword(passwordEncoder.encode(newPassword));
-
-        int result = userMapper.updateById(updateUser);
+        int result = userMapper.updatePassword(userId, passwordService.encode(newPassword), user.getPassword());
         if (result <= 0) {
             throw new BusinessException("密码修改失败");
         }
@@ -252,7 +277,7 @@ public class UserServiceImpl implements UserService {
         if (user == null) {
             throw new BusinessException(ResultCode.USER_NOT_FOUND);
         }
-        return convertToUserVO(user);
+        return convertToUserVO(user, roleService.getRolesByUserId(user.getId()));
     }
 
     @Override
@@ -261,18 +286,16 @@ public class UserServiceImpl implements UserService {
         if (user == null) {
             throw new BusinessException(ResultCode.USER_NOT_FOUND);
         }
-        return convertToUserVO(user);
+        return convertToUserVO(user, roleService.getRolesByUserId(user.getId()));
     }
 
     /**
      * User转UserVO
      */
-    private UserVO convertToUserVO(User user) {
+    private UserVO convertToUserVO(User user, List<Role> roles) {
         UserVO vo = new UserVO();
         BeanUtil.copyProperties(user, vo);
 
-        // 查询角色
-        List<Role> roles = userMapper.selectRolesByUserId(user.getId());
         List<RoleVO> roleVOs = roles.stream()
                 .map(role -> {
                     RoleVO roleVO = new RoleVO();
@@ -302,8 +325,11 @@ public class UserServiceImpl implements UserService {
 
         // 查询数据
         List<User> users = userMapper.selectPage(offset, pageSize, username, status);
+        // 整页用户的角色一次批量查询
+        Map<Long, List<Role>> rolesByUser = roleService.getRolesByUserIds(
+                users.stream().map(User::getId).collect(Collectors.toList()));
         List<UserVO> userVOs = users.stream()
-                .map(this::convertToUserVO)
+                .map(user -> convertToUserVO(user, rolesByUser.get(user.getId())))
                 .collect(Collectors.toList());
 
         log.info("分页查询用户列表: pageNum={}, pageSize={}, username={}, status={}", pageNum, pageSize, username, status);
@@ -344,6 +370,7 @@ public class UserServiceImpl implements UserService {
         if (result <= 0) {
             throw new BusinessException("用户删除失败");
         }
+        tokenRevocationService.revokeUser(userId);
 
         log.info("管理员删除用户: {}", userId);
     }
@@ -369,6 +396,10 @@ public class UserServiceImpl implements UserService {
         if (result <= 0) {
             throw new BusinessException("用户状态更新失败");
         }
+        // 禁用或锁定后立即吊销已签发的Token
+        if (status != 1) {
+            tokenRevocationService.revokeUser(userId);
+        }
 
         log.info("管理员更新用户状态: userId={}, status={}", userId, status);
     }
@@ -0,0 +1,278 @@
+package com.crossborder.shop.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存分面索引
+ * 每个文档分配一个序号，每个属性值对应一个按序号编址的位图；
+ * 筛选即位图求交，分面计数即候选位图与各属性值位图求交后统计位数。
+ * 某属性的计数不应用该属性自身的筛选条件，便于前端多选切换
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public class FacetIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<Long, Map<String, String>> documentAttributes = new HashMap<>();
+
+    /**
+     * 属性 -> 属性值 -> 位图
+     */
+    private final Map<String, Map<String, long[]>> bitsets = new LinkedHashMap<>();
+
+    private long[] ids = new long[64];
+    private long[] live = new long[1];
+    private int nextOrdinal;
+
+    /**
+     * 添加或替换文档
+     *
+     * @param id         文档ID
+     * @param attributes 属性 -> 属性值，值为null的属性不参与分面
+     */
+    public void put(long id, Map<String, String> attributes) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            Integer reused = freeOrdinals.poll();
+            int ordinal = reused != null ? reused : nextOrdinal++;
+            ensureCapacity(ordinal);
+            ordinals.put(id, ordinal);
+            ids[ordinal] = id;
+            set(live, ordinal);
+
+            Map<String, String> copy = new HashMap<>();
+            attributes.forEach((attribute, value) -> {
+                if (value != null) {
+                    copy.put(attribute, value);
+                    long[] bitset = bitsets.computeIfAbsent(attribute, a -> new LinkedHashMap<>())
+                            .computeIfAbsent(value, v -> new long[live.length]);
+                    set(bitset, ordinal);
+                }
+            });
+            documentAttributes.put(id, copy);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            freeOrdinals.clear();
+            documentAttributes.clear();
+            bitsets.clear();
+            ids = new long[64];
+            live = new long[1];
+            nextOrdinal = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 筛选并统计分面
+     *
+     * @param candidateIds 候选文档ID，为null时表示全部文档
+     * @param filters      属性 -> 筛选值
+     * @param attributes   需要统计的属性
+     * @return 命中文档ID及各属性值计数
+     */
+    public Result query(Collection<Long> candidateIds, Map<String, String> filters, Collection<String> attributes) {
+        lock.readLock().lock();
+        try {
+            long[] base;
+            if (candidateIds == null) {
+                base = live.clone();
+            } else {
+                base = new long[live.length];
+                for (Long id : candidateIds) {
+                    Integer ordinal = ordinals.get(id);
+                    if (ordinal != null) {
+                        set(base, ordinal);
+                    }
+                }
+            }
+
+            // 各属性的计数只应用其他属性的筛选条件
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (String attribute : attributes) {
+                long[] scope = applyFilters(base, filters, attribute);
+                Map<String, Integer> valueCounts = new LinkedHashMap<>();
+                if (scope != null) {
+                    for (Map.Entry<String, long[]> entry : bitsets.getOrDefault(attribute, Map.of()).entrySet()) {
+                        int count = andCardinality(scope, entry.getValue());
+                        if (count > 0) {
+                            valueCounts.put(entry.getKey(), count);
+                        }
+                    }
+                }
+                counts.put(attribute, valueCounts);
+            }
+
+            List<Long> matchedIds = new ArrayList<>();
+            long[] matched = applyFilters(base, filters, null);
+            if (matched != null) {
+                for (int word = 0; word < matched.length; word++) {
+                    long bits = matched[word];
+                    while (bits != 0) {
+                        int ordinal = word * 64 + Long.numberOfTrailingZeros(bits);
+                        matchedIds.add(ids[ordinal]);
+                        bits &= bits - 1;
+                    }
+                }
+            }
+            return new Result(matchedIds, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 存活文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在base上应用筛选条件（跳过excludedAttribute），任一筛选值不存在时返回null
+     */
+    private long[] applyFilters(long[] base, Map<String, String> filters, String excludedAttribute) {
+        long[] result = base.clone();
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            if (filter.getValue() == null || filter.getKey().equals(excludedAttribute)) {
+                continue;
+            }
+            long[] bitset = bitsets.getOrDefault(filter.getKey(), Map.of()).get(filter.getValue());
+            if (bitset == null) {
+                return null;
+            }
+            for (int i = 0; i < result.length; i++) {
+                result[i] &= bitset[i];
+            }
+        }
+        return result;
+    }
+
+    private void removeInternal(long id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        clear(live, ordinal);
+        Map<String, String> attributes = documentAttributes.remove(id);
+        attributes.forEach((attribute, value) -> {
+            Map<String, long[]> values = bitsets.get(attribute);
+            long[] bitset = values.get(value);
+            clear(bitset, ordinal);
+            if (isEmpty(bitset)) {
+                values.remove(value);
+            }
+        });
+        freeOrdinals.push(ordinal);
+    }
+
+    private void ensureCapacity(int ordinal) {
+        if (ordinal >= ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(ids.length * 2, ordinal + 1));
+        }
+        int words = (ordinal >>> 6) + 1;
+        if (words <= live.length) {
+            return;
+        }
+        int newLength = Math.max(live.length * 2, words);
+        live = Arrays.copyOf(live, newLength);
+        for (Map<String, long[]> values : bitsets.values()) {
+            values.replaceAll((value, bitset) -> Arrays.copyOf(bitset, newLength));
+        }
+    }
+
+    private static void set(long[] bitset, int ordinal) {
+        bitset[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    private static void clear(long[] bitset, int ordinal) {
+        bitset[ordinal >>> 6] &= ~(1L << ordinal);
+    }
+
+    private static boolean isEmpty(long[] bitset) {
+        for (long word : bitset) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int andCardinality(long[] a, long[] b) {
+        int count = 0;
+        for (int i = 0; i < a.length; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    /**
+     * 分面查询结果
+     */
+    public static final class Result {
+
+        private final List<Long> matchedIds;
+        private final Map<String, Map<String, Integer>> counts;
+
+        private Result(List<Long> matchedIds, Map<String, Map<String, Integer>> counts) {
+            this.matchedIds = matchedIds;
+            this.counts = counts;
+        }
+
+        /**
+         * 满足全部筛选条件的文档ID（按序号顺序）
+         */
+        public List<Long> getMatchedIds() {
+            return matchedIds;
+        }
+
+        /**
+         * 属性 -> 属性值 -> 文档数
+         */
+        public Map<String, Map<String, Integer>> getCounts() {
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.crossborder.shop.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * 内存倒排索引（BM25排序）
+ * 文档按加入顺序分配内部编号，倒排表按编号递增以变长整数压缩存储（编号差值 + 词频），
+ * 新文档只需追加到倒排表末尾；更新文档时旧编号标记删除后重新追加，
+ * 删除的文档占比过高时整体压缩重排。
+ * 倒排表在压缩前仍包含已删除文档，BM25使用的文档频率单独按存活文档维护，删除时同步递减
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * 已删除文档数超过该值且超过存活文档的1/4时压缩
+     */
+    private static final int COMPACT_MIN_DELETED = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Posting> postings = new HashMap<>();
+    private final Map<Long, Integer> docNums = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    private long[] docIds = new long[1024];
+    private int[] docLengths = new int[1024];
+
+    /**
+     * 文档的不重复词项，删除时据此递减存活文档频率
+     */
+    private String[][] docTerms = new String[1024][];
+
+    private int docCount;
+    private int deletedCount;
+    private long totalLength;
+
+    /**
+     * 添加或替换文档
+     *
+     * @param id    文档ID
+     * @param terms 文档词项（含重复）
+     */
+    public void put(long id, List<String> terms) {
+        Map<String, Integer> termFrequencies = new LinkedHashMap<>();
+        for (String term : terms) {
+            termFrequencies.merge(term, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (termFrequencies.isEmpty()) {
+                return;
+            }
+            if (docCount == docIds.length) {
+                docIds = Arrays.copyOf(docIds, docCount * 2);
+                docLengths = Arrays.copyOf(docLengths, docCount * 2);
+                docTerms = Arrays.copyOf(docTerms, docCount * 2);
+            }
+            int doc = docCount++;
+            docIds[doc] = id;
+            docLengths[doc] = terms.size();
+            docTerms[doc] = termFrequencies.keySet().toArray(new String[0]);
+            totalLength += terms.size();
+            docNums.put(id, doc);
+            termFrequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new Posting()).add(doc, tf));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docNums.clear();
+            deleted.clear();
+            docIds = new long[1024];
+            docLengths = new int[1024];
+            docTerms = new String[1024][];
+            docCount = 0;
+            deletedCount = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 检索同时包含全部查询词项的文档，按BM25得分降序返回
+     *
+     * @param terms  查询词项（已去重）
+     * @param filter 文档ID过滤条件，可为null
+     * @return 命中文档
+     */
+    public List<Hit> search(Collection<String> terms, LongPredicate filter) {
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            List<Posting> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Posting posting = postings.get(term);
+                if (posting == null) {
+                    return new ArrayList<>();
+                }
+                lists.add(posting);
+            }
+            // 从最短的倒排表开始求交集
+            lists.sort(Comparator.comparingInt(posting -> posting.liveFrequency));
+
+            int liveCount = docCount - deletedCount;
+            double averageLength = liveCount == 0 ? 1 : (double) totalLength / liveCount;
+            int[] candidates = null;
+            double[] scores = null;
+            int candidateCount = 0;
+            for (Posting posting : lists) {
+                int frequency = Math.min(posting.liveFrequency, liveCount);
+                double idf = Math.log(1 + (liveCount - frequency + 0.5) / (frequency + 0.5));
+                int[] nextCandidates = new int[candidates == null ? posting.docFrequency : candidateCount];
+                double[] nextScores = new double[nextCandidates.length];
+                int nextCount = 0;
+                int cursor = 0;
+                Posting.Reader reader = posting.reader();
+                while (reader.next()) {
+                    int doc = reader.doc;
+                    if (candidates != null) {
+                        while (cursor < candidateCount && candidates[cursor] < doc) {
+                            cursor++;
+                        }
+                        if (cursor == candidateCount) {
+                            break;
+                        }
+                        if (candidates[cursor] != doc) {
+                            continue;
+                        }
+                    } else if (deleted.get(doc) || (filter != null && !filter.test(docIds[doc]))) {
+                        continue;
+                    }
+                    double tf = reader.tf;
+                    double norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+                    nextCandidates[nextCount] = doc;
+                    nextScores[nextCount] = (candidates == null ? 0 : scores[cursor])
+                            + idf * tf * (K1 + 1) / (tf + norm);
+                    nextCount++;
+                }
+                candidates = nextCandidates;
+                scores = nextScores;
+                candidateCount = nextCount;
+                if (candidateCount == 0) {
+                    break;
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(candidateCount);
+            for (int i = 0; i < candidateCount; i++) {
+                hits.add(new Hit(docIds[candidates[i]], scores[i]));
+            }
+            hits.sort(Comparator.comparingDouble(Hit::getScore).reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 存活文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long id) {
+        Integer doc = docNums.remove(id);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        deletedCount++;
+        totalLength -= docLengths[doc];
+        for (String term : docTerms[doc]) {
+            postings.get(term).liveFrequency--;
+        }
+        docTerms[doc] = null;
+        if (deletedCount > COMPACT_MIN_DELETED && deletedCount > (docCount - deletedCount) / 4) {
+            compact();
+        }
+    }
+
+    /**
+     * 去掉已删除文档并重新编号
+     */
+    private void compact() {
+        int[] remap = new int[docCount];
+        int liveCount = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = liveCount;
+                docIds[liveCount] = docIds[doc];
+                docLengths[liveCount] = docLengths[doc];
+                docTerms[liveCount] = docTerms[doc];
+                docNums.put(docIds[liveCount], liveCount);
+                liveCount++;
+            }
+        }
+
+        Iterator<Map.Entry<String, Posting>> iterator = postings.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Posting> entry = iterator.next();
+            Posting compacted = new Posting();
+            Posting.Reader reader = entry.getValue().reader();
+            while (reader.next()) {
+                if (remap[reader.doc] >= 0) {
+                    compacted.add(remap[reader.doc], reader.tf);
+                }
+            }
+            if (compacted.docFrequency == 0) {
+                iterator.remove();
+            } else {
+                compacted.trim();
+                entry.setValue(compacted);
+            }
+        }
+
+        Arrays.fill(docTerms, liveCount, docCount, null);
+        docCount = liveCount;
+        deletedCount = 0;
+        deleted.clear();
+    }
+
+    /**
+     * 检索命中
+     */
+    public static final class Hit {
+
+        private final long id;
+        private final double score;
+
+        private Hit(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * 压缩倒排表：依次存放 (文档编号差值, 词频) 的变长整数编码
+     */
+    private static final class Posting {
+
+        private byte[] data = new byte[8];
+        private int size;
+        private int lastDoc = -1;
+
+        /**
+         * 倒排表中的文档数（含尚未压缩掉的已删除文档）
+         */
+        private int docFrequency;
+
+        /**
+         * 包含该词项的存活文档数
+         */
+        private int liveFrequency;
+
+        void add(int doc, int tf) {
+            writeVarint(doc - lastDoc);
+            writeVarint(tf);
+            lastDoc = doc;
+            docFrequency++;
+            liveFrequency++;
+        }
+
+        void trim() {
+            data = Arrays.copyOf(data, size);
+        }
+
+        Reader reader() {
+            return new Reader();
+        }
+
+        private void writeVarint(int value) {
+            if (size + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        private final class Reader {
+
+            private int position;
+            private int doc = -1;
+            private int tf;
+
+            boolean next() {
+                if (position >= size) {
+                    return false;
+                }
+                doc += readVarint();
+                tf = readVarint();
+                return true;
+            }
+
+            private int readVarint() {
+                int value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.crossborder.shop.util;
+
+import cn.hutool.core.lang.Validator;
+import cn.hutool.core.net.NetUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.StringUtils;
+
+/**
+ * 客户端IP工具
+ * 仅当直连地址是内网/回环地址（即来自本机房的反向代理）时才信任X-Forwarded-For和X-Real-IP，
+ * 避免公网客户端伪造请求头绕过按IP的限流
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public final class IpUtil {
+
+    private static final String UNKNOWN = "unknown";
+
+    private IpUtil() {
+    }
+
+    /**
+     * 获取客户端真实IP
+     * X-Forwarded-For从右向左跳过内网代理地址，取第一个公网地址；全部为内网地址时取最左侧地址
+     *
+     * @param request HTTP请求
+     * @return 客户端IP
+     */
+    public static String getClientIp(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(forwardedFor)) {
+            String[] hops = forwardedFor.split(",");
+            String leftmost = null;
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (!StringUtils.hasText(hop) || UNKNOWN.equalsIgnoreCase(hop)) {
+                    continue;
+                }
+                if (!isTrustedProxy(hop)) {
+                    return hop;
+                }
+                leftmost = hop;
+            }
+            if (leftmost != null) {
+                return leftmost;
+            }
+        }
+
+        String realIp = request.getHeader("X-Real-IP");
+        if (StringUtils.hasText(realIp) && !UNKNOWN.equalsIgnoreCase(realIp)) {
+            return realIp.trim();
+        }
+        return remoteAddr;
+    }
+
+    private static boolean isTrustedProxy(String ip) {
+        if (ip == null) {
+            return false;
+        }
+        if (Validator.isIpv4(ip)) {
+            return NetUtil.isInnerIP(ip);
+        }
+        // IPv6：回环、唯一本地地址（fc00::/7）、链路本地地址（fe80::/10）
+        String lower = ip.toLowerCase();
+        return "::1".equals(lower) || "0:0:0:0:0:0:0:1".equals(lower)
+                || lower.startsWith("fc") || lower.startsWith("fd") || lower.startsWith("fe80:");
+    }
+}
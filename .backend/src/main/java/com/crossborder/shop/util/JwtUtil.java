@@ -1,8 +1,12 @@
 package com.crossborder.shop.util;
 
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,8 +23,9 @@ import java.util.Map;
 
 /**
  * JWT工具类
- * 支持AccessToken和RefreshToken双Token机制
- * 
+ * 支持AccessToken和RefreshToken双Token机制。
+ * 签名密钥和解析器在启动时构建一次；验签结果按Token摘要缓存在有界本地缓存中，命中时只需检查过期时间
+ *
  * @author CrossBorder Team
  * @since 2026-02-04
  */
@@ -43,6 +48,25 @@ public class JwtUtil {
     @Value("${jwt.prefix}")
     private String prefix;
 
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    private SecretKey key;
+
+    private JwtParser parser;
+
+    /**
+     * Token摘要 -> 已验签的Token
+     */
+    private TinyLfuCache<String, VerifiedToken> verifiedCache;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
+        verifiedCache = new TinyLfuCache<>(verifiedCacheSize);
+    }
+
     /**
      * 生成AccessToken
      *
@@ -96,10 +120,9 @@ public class JwtUtil {
             claims.put("roles", roleCodes);
         }
 
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-
         return Jwts.builder()
                 .claims(claims)
+                .id(IdUtil.fastSimpleUUID())
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
@@ -107,6 +130,36 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * 验签并解析Token（每个Token只验签一次，结果缓存至过期）
+     *
+     * @param token Token
+     * @return 已验签的Token；签名无效、格式错误或已过期时返回null
+     */
+    public VerifiedToken verify(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        String digest = DigestUtil.sha256Hex(token);
+        VerifiedToken verified = verifiedCache.get(digest, d -> parse(token));
+        if (verified != null && verified.isExpired()) {
+            verifiedCache.invalidate(digest);
+            return null;
+        }
+        return verified;
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims = getClaimsFromToken(token);
+        if (claims == null || claims.getExpiration() == null) {
+            return null;
+        }
+        long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+        return new VerifiedToken(claims.getId(), claims.get("userId", Long.class), claims.getSubject(),
+                claims.get("tokenType", String.class), roleCodesOf(claims), issuedAt,
+                claims.getExpiration().getTime());
+    }
+
     /**
      * 从Token中获取Claims
      *
@@ -115,12 +168,7 @@ public class JwtUtil {
      */
     public Claims getClaimsFromToken(String token) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-            return Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (Exception e) {
             log.error("解析Token失败: {}", e.getMessage());
             return null;
@@ -134,8 +182,8 @@ public class JwtUtil {
      * @return 用户ID
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims != null ? claims.get("userId", Long.class) : null;
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.getUserId() : null;
     }
 
     /**
@@ -145,8 +193,8 @@ public class JwtUtil {
      * @return 用户名
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims != null ? claims.getSubject() : null;
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.getUsername() : null;
     }
 
     /**
@@ -156,8 +204,8 @@ public class JwtUtil {
      * @return Token类型
      */
     public String getTokenTypeFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims != null ? claims.get("tokenType", String.class) : null;
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.getTokenType() : null;
     }
 
     /**
@@ -166,15 +214,16 @@ public class JwtUtil {
      * @param token Token
      * @return 角色编码列表
      */
-    @SuppressWarnings("unchecked")
     public List<String> getRoleCodesFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        if (claims == null) {
-            return Collections.emptyList();
-        }
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.getRoleCodes() : Collections.emptyList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> roleCodesOf(Claims claims) {
         Object roles = claims.get("roles");
         if (roles instanceof List) {
-            return (List<String>) roles;
+            return List.copyOf((List<String>) roles);
         }
         return Collections.emptyList();
     }
@@ -186,40 +235,17 @@ public class JwtUtil {
      * @return 是否有效
      */
     public boolean validateToken(String token) {
-        try {
-            Claims claims = getClaimsFromToken(token);
-            return claims != null && !isTokenExpired(claims);
-        } catch (Exception e) {
-            log.error("Token验证失败: {}", e.getMessage())  ;
-            return false;
-        }
+        return verify(token) != null;
     }
 
     /**
-     * 判断Token是否过期
+     * 判断Token是否过期（无法解析的Token同样视为过期）
      *
      * @param token Token字符串
      * @return 是否过期
      */
     public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = getClaimsFromToken(token);
-            return claims == null && isTokenExpired(claims);
-        } catch (Exception e) {
-            log.error("Token过期检查失败: {}", e.getMessage());
-            return true; // 如果解析失败，认为已过期
-        }
-    }
-
-    /**
-     * 判断Token是否过期
-     *
-     * @param claims Claims
-     * @return 是否过期
-     */
-    private boolean isTokenExpired(Claims claims) {
-        Date expiration = claims.getExpiration();
-        return expiration.before(new Date());
+        return verify(token) == null;
     }
 
     /**
@@ -253,4 +279,74 @@ public class JwtUtil {
     public Long getRefreshTokenExpiration() {
         return refreshTokenExpiration;
     }
+
+    /**
+     * 已验签的Token
+     */
+    public static final class VerifiedToken {
+
+        private final String tokenId;
+        private final Long userId;
+        private final String username;
+        private final String tokenType;
+        private final List<String> roleCodes;
+        private final long issuedAt;
+        private final long expiresAt;
+
+        private VerifiedToken(String tokenId, Long userId, String username, String tokenType,
+                List<String> roleCodes, long issuedAt, long expiresAt) {
+            this.tokenId = tokenId;
+            this.userId = userId;
+            this.username = username;
+            this.tokenType = tokenType;
+            this.roleCodes = roleCodes;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Token标识（jti），旧版本签发的Token为null
+         */
+        public String getTokenId() {
+            return tokenId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getTokenType() {
+            return tokenType;
+        }
+
+        public List<String> getRoleCodes() {
+            return roleCodes;
+        }
+
+        /**
+         * 签发时间（毫秒时间戳，精确到秒）
+         */
+        public long getIssuedAt() {
+            return issuedAt;
+        }
+
+        /**
+         * 过期时间（毫秒时间戳）
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public boolean isAccessToken() {
+            return "access".equals(tokenType);
+        }
+
+        public boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+    }
 }
@@ -1,16 +1,26 @@
 package com.crossborder.shop.util;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.atomic.AtomicLong;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 订单号生成器
- * 格式: yyyyMMddHHmmss + userId后4位 + 自增序列3位
- * 示例: 20260204123456789001
+ * 格式: yyyyMMddHHmmss + userId后4位 + 序列3位
+ * 示例: 202602041234567890001
+ * <p>
+ * 序列3位按节点分段：节点N使用 [N * 1000 / 节点数, (N + 1) * 1000 / 节点数) 区间，
+ * 同一秒内同一userId后4位的序列在本节点内单调递增，用尽后等待下一秒，
+ * 因此多节点、高并发下不会产生重复订单号
  *
  * @author CrossBorder Shop
  * @since 2026-02-04
@@ -19,15 +29,50 @@ import java.util.concurrent.atomic.AtomicLong;
 @Component
 public class OrderNumberGenerator {
 
+    private static final int USER_SUFFIX_BUCKETS = 10000;
+    private static final int SEQUENCE_RANGE = 1000;
+    private static final int SEQUENCE_BITS = 20;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
     /**
-     * 内存自增序列号
+     * 当前节点编号（0 ~ worker-count - 1）
      */
-    private final AtomicLong sequence = new AtomicLong(0);
+    @Value("${order.number.worker-id:0}")
+    private int workerId;
 
     /**
-     * 当前日期标记，用于按天重置序列号
+     * 节点总数
      */
-    private volatile String currentDate = "";
+    @Value("${order.number.worker-count:1}")
+    private int workerCount;
+
+    /**
+     * 每个userId后4位一个槽位：高位为秒级时间戳，低位为该秒已用序列
+     */
+    private final AtomicLongArray slots = new AtomicLongArray(USER_SUFFIX_BUCKETS);
+
+    private int sequenceOffset;
+
+    private int sequenceCapacity;
+
+    /**
+     * 最近一秒的时间戳字符缓存，每秒只格式化一次
+     */
+    private volatile TimestampDigits timestampDigits = new TimestampDigits(-1, null);
+
+    @PostConstruct
+    public void init() {
+        if (workerCount < 1 || workerCount > SEQUENCE_RANGE) {
+            throw new IllegalStateException("order.number.worker-count必须在1~" + SEQUENCE_RANGE + "之间");
+        }
+        if (workerId < 0 || workerId >= workerCount) {
+            throw new IllegalStateException("order.number.worker-id必须在0~" + (workerCount - 1) + "之间");
+        }
+        sequenceCapacity = SEQUENCE_RANGE / workerCount;
+        sequenceOffset = workerId * sequenceCapacity;
+        log.info("订单号生成器初始化: workerId={}, workerCount={}, sequencePerSecond={}",
+                workerId, workerCount, sequenceCapacity);
+    }
 
     /**
      * 生成订单号
@@ -36,32 +81,41 @@ public class OrderNumberGenerator {
      * @return 订单号
      */
     public String generateOrderNumber(Long userId) {
-        // 1. 获取当前时间戳（yyyyMMddHHmmss）
-        String timestamp = DateTimeFormatter.ofPattern("yyyyMMddHHmmss")
-                .format(java.time.LocalDateTime.now());
-
-        // 2. 取userId后4位（不足4位左补0）
-        String userIdSuffix = String.format("%04d", userId % 10000);
-
-        // 3. 获取自增序列号（按天重置）
-        String today = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        if (!today.equals(currentDate)) {
-            synchronized (this) {
-                if (!today.equals(currentDate)) {
-                    sequence.set(0);
-                    currentDate = today;
+        int userSuffix = (int) Math.floorMod(userId, (long) USER_SUFFIX_BUCKETS);
+
+        // 1. 在userId后4位对应的槽位上CAS获取（秒, 序列）
+        long second;
+        int sequence;
+        while (true) {
+            long nowSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+            long slot = slots.get(userSuffix);
+            long slotSecond = slot >>> SEQUENCE_BITS;
+            if (nowSecond > slotSecond) {
+                second = nowSecond;
+                sequence = 0;
+            } else {
+                // 时钟回拨时沿用槽位中的秒，保证单调
+                second = slotSecond;
+                sequence = (int) (slot & SEQUENCE_MASK) + 1;
+                if (sequence >= sequenceCapacity) {
+                    // 本秒序列已用尽，等待下一秒
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    continue;
                 }
             }
+            if (slots.compareAndSet(userSuffix, slot, (second << SEQUENCE_BITS) | sequence)) {
+                break;
+            }
         }
-        long seq = sequence.incrementAndGet();
 
-        // 序列号取后3位（不足3位左补0，超过3位取模）
-        String sequenceSuffix = String.format("%03d", seq % 1000);
+        // 2. 拼接订单号：时间戳14位 + userId后4位 + 序列3位
+        char[] digits = new char[21];
+        System.arraycopy(timestampDigitsOf(second), 0, digits, 0, 14);
+        writeDigits(digits, 14, 4, userSuffix);
+        writeDigits(digits, 18, 3, sequenceOffset + sequence);
+        String orderNumber = new String(digits);
 
-        // 4. 拼接订单号
-        String orderNumber = timestamp + userIdSuffix + sequenceSuffix;
-
-        log.debug("生成订单号: userId={}, orderNumber={}, sequence={}", userId, orderNumber, seq);
+        log.debug("生成订单号: userId={}, orderNumber={}", userId, orderNumber);
 
         return orderNumber;
     }
@@ -104,4 +158,51 @@ public class OrderNumberGenerator {
         }
         return orderNumber.substring(0, 14);
     }
+
+    /**
+     * 获取指定秒的yyyyMMddHHmmss字符
+     */
+    private char[] timestampDigitsOf(long epochSecond) {
+        TimestampDigits cached = timestampDigits;
+        if (cached.epochSecond == epochSecond) {
+            return cached.digits;
+        }
+
+        ZoneOffset offset = ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochSecond(epochSecond));
+        LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, offset);
+        char[] digits = new char[14];
+        writeDigits(digits, 0, 4, time.getYear());
+        writeDigits(digits, 4, 2, time.getMonthValue());
+        writeDigits(digits, 6, 2, time.getDayOfMonth());
+        writeDigits(digits, 8, 2, time.getHour());
+        writeDigits(digits, 10, 2, time.getMinute());
+        writeDigits(digits, 12, 2, time.getSecond());
+
+        // 只缓存最新的一秒，时钟回拨的请求不覆盖缓存
+        if (epochSecond > cached.epochSecond) {
+            timestampDigits = new TimestampDigits(epochSecond, digits);
+        }
+        return digits;
+    }
+
+    /**
+     * 按固定宽度左补0写入十进制数字
+     */
+    private static void writeDigits(char[] target, int offset, int width, int value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static final class TimestampDigits {
+
+        private final long epochSecond;
+        private final char[] digits;
+
+        private TimestampDigits(long epochSecond, char[] digits) {
+            this.epochSecond = epochSecond;
+            this.digits = digits;
+        }
+    }
 }
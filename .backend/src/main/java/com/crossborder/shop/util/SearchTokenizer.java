@@ -0,0 +1,100 @@
+package com.crossborder.shop.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索分词器
+ * 中日韩文字按字切分为单字和相邻二字组（n-gram），拉丁字母和数字按连续片段切分为小写单词，
+ * 其余字符视为分隔符
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 索引分词：中日韩文字同时产出单字和二字组，使单字与多字查询都能命中
+     *
+     * @param text 文本
+     * @return 词项列表（含重复，用于统计词频）
+     */
+    public static List<String> tokenizeForIndex(String text) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, terms, true);
+        return terms;
+    }
+
+    /**
+     * 查询分词：中日韩文字片段长度大于1时只取二字组，单字片段取单字
+     *
+     * @param text 查询文本
+     * @return 去重后的词项列表
+     */
+    public static List<String> tokenizeForQuery(String text) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, terms, false);
+        return new ArrayList<>(new LinkedHashSet<>(terms));
+    }
+
+    private static void tokenize(String text, List<String> terms, boolean forIndex) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        StringBuilder cjkRun = new StringBuilder();
+        StringBuilder wordRun = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isCjk(codePoint)) {
+                flushWord(wordRun, terms);
+                cjkRun.appendCodePoint(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, terms, forIndex);
+                wordRun.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                flushWord(wordRun, terms);
+                flushCjk(cjkRun, terms, forIndex);
+            }
+        }
+        flushWord(wordRun, terms);
+        flushCjk(cjkRun, terms, forIndex);
+    }
+
+    private static void flushWord(StringBuilder run, List<String> terms) {
+        if (run.length() > 0) {
+            terms.add(run.toString().toLowerCase(Locale.ROOT));
+            run.setLength(0);
+        }
+    }
+
+    private static void flushCjk(StringBuilder run, List<String> terms, boolean forIndex) {
+        if (run.length() == 0) {
+            return;
+        }
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1 || forIndex) {
+            for (int codePoint : codePoints) {
+                terms.add(new String(Character.toChars(codePoint)));
+            }
+        }
+        for (int j = 0; j + 1 < codePoints.length; j++) {
+            terms.add(new String(codePoints, j, 2));
+        }
+        run.setLength(0);
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,136 @@
+package com.crossborder.shop.util;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮
+ * 底层时间轮按tickMs推进并触发到期任务；超出底层范围的任务放入上层时间轮，
+ * 上层槽位到达时整体降级到下层，因此添加与触发都是O(1)
+ * 非线程安全，由调用方保证同一时刻只有一个线程访问
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long intervalMs;
+    private final ArrayDeque<Entry<T>>[] buckets;
+
+    /**
+     * 下一个待处理槽位的起始时间
+     */
+    private long cursor;
+
+    private TimingWheel<T> overflowWheel;
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.intervalMs = tickMs * wheelSize;
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.cursor = startMs - startMs % tickMs;
+    }
+
+    /**
+     * 添加任务
+     *
+     * @param key        任务标识
+     * @param expireAtMs 到期时间（毫秒时间戳）
+     * @return 已经到期时返回false，调用方应立即处理
+     */
+    public boolean add(T key, long expireAtMs) {
+        if (!addEntry(new Entry<>(key, expireAtMs))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * 推进时间轮到指定时间，依次回调到期任务
+     *
+     * @param nowMs   当前时间（毫秒时间戳）
+     * @param expired 到期回调
+     */
+    public void advance(long nowMs, Consumer<T> expired) {
+        Consumer<T> fire = key -> {
+            size--;
+            expired.accept(key);
+        };
+        while (cursor + tickMs <= nowMs) {
+            ArrayDeque<Entry<T>> bucket = bucketOf(cursor);
+            Entry<T> entry;
+            while ((entry = bucket.poll()) != null) {
+                fire.accept(entry.key);
+            }
+            cursor += tickMs;
+            if (overflowWheel != null) {
+                overflowWheel.cascadeTo(this, fire);
+            }
+        }
+    }
+
+    /**
+     * 未到期的任务数
+     */
+    public int size() {
+        return size;
+    }
+
+    private boolean addEntry(Entry<T> entry) {
+        if (entry.expireAtMs < cursor) {
+            return false;
+        }
+        if (entry.expireAtMs < cursor + intervalMs) {
+            bucketOf(entry.expireAtMs).add(entry);
+            return true;
+        }
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel<>(intervalMs, wheelSize, cursor + intervalMs);
+        }
+        return overflowWheel.addEntry(entry);
+    }
+
+    /**
+     * 将起始时间已被下层时间轮追上的槽位降级到下层；降级时已经到期的任务立即回调，与add返回false时一致
+     */
+    private void cascadeTo(TimingWheel<T> lower, Consumer<T> expired) {
+        while (cursor <= lower.cursor) {
+            ArrayDeque<Entry<T>> bucket = bucketOf(cursor);
+            Entry<T> entry;
+            while ((entry = bucket.poll()) != null) {
+                if (!lower.addEntry(entry)) {
+                    expired.accept(entry.key);
+                }
+            }
+            cursor += tickMs;
+            if (overflowWheel != null) {
+                overflowWheel.cascadeTo(this, expired);
+            }
+        }
+    }
+
+    private ArrayDeque<Entry<T>> bucketOf(long timeMs) {
+        return buckets[(int) ((timeMs / tickMs) % wheelSize)];
+    }
+
+    private static final class Entry<T> {
+
+        private final T key;
+        private final long expireAtMs;
+
+        private Entry(T key, long expireAtMs) {
+            this.key = key;
+            this.expireAtMs = expireAtMs;
+        }
+    }
+}
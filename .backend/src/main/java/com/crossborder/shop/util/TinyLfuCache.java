@@ -0,0 +1,470 @@
+package com.crossborder.shop.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 有界本地缓存（W-TinyLFU淘汰）
+ * 新条目先进入约占1%容量的窗口LRU，被挤出窗口时与主区试用段最久未访问的条目比较访问频率，
+ * 频率高者留下；主区分为试用段（20%）和保护段（80%），试用段条目再次命中后晋升保护段。
+ * 访问频率由4位计数的Count-Min Sketch近似统计，累计一定次数后整体减半以适应热点变化。
+ * <p>
+ * 条目存放在ConcurrentHashMap中，读取不加锁；每次访问记入按线程分片的有损环形缓冲区，
+ * 缓冲区写满一轮时以tryLock抢到淘汰锁的线程统一回放到频率统计和LRU顺序，抢不到则直接返回，
+ * 缓冲区溢出时覆盖旧记录（只影响频率和顺序的精度）。写入和失效持有淘汰锁，并先回放缓冲区。
+ * <p>
+ * 同一key未命中时只有一个线程执行加载，其余线程等待其结果；加载期间key被失效时，
+ * 加载结果只返回给本次调用方，不写入缓存
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int RETIRED = -1;
+
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+    /**
+     * 三个分段均为访问顺序的LinkedHashMap，首个元素即最久未访问的条目；仅在持有淘汰锁时访问
+     */
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final FrequencySketch sketch;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer[] readBuffers;
+
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public TinyLfuCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize必须大于0");
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        int mainMaximum = Math.max(0, maximumSize - windowMaximum);
+        this.protectedMaximum = mainMaximum * 4 / 5;
+        this.sketch = new FrequencySketch(maximumSize);
+
+        int stripes = Integer.highestOneBit(Math.min(64, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.readBuffers = new ReadBuffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    /**
+     * 查询缓存，未命中时通过loader加载（同一key并发未命中只加载一次）
+     *
+     * @param key    键
+     * @param loader 加载函数，返回null时不缓存
+     * @return 缓存值或加载结果
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = loading.putIfAbsent(key, future);
+        if (running != null) {
+            return await(running);
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            value = loader.apply(key);
+            loadSuccessCount.increment();
+        } catch (RuntimeException | Error e) {
+            loadFailureCount.increment();
+            loading.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            totalLoadNanos.add(System.nanoTime() - startNanos);
+        }
+
+        evictionLock.lock();
+        try {
+            // 加载期间被失效时future已被移除，结果不写入缓存
+            if (loading.remove(key, future) && value != null) {
+                drainReadBuffers();
+                put(key, value);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        future.complete(value);
+        return value;
+    }
+
+    /**
+     * 查询缓存，不触发加载；不会阻塞在淘汰锁上
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        // 未命中也记录key，作为之后准入比较的频率
+        if (readBuffers[stripe()].offer(node != null ? node : key) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        if (node != null) {
+            hitCount.increment();
+            return node.value;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * 失效指定key，正在进行的加载结果也不会写入缓存
+     */
+    public void invalidate(K key) {
+        evictionLock.lock();
+        try {
+            loading.remove(key);
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                segmentOf(node).remove(key);
+                node.segment = RETIRED;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            loading.clear();
+            for (Node<K, V> node : data.values()) {
+                node.segment = RETIRED;
+            }
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 当前缓存的全部key快照
+     */
+    public List<K> keys() {
+        return new ArrayList<>(data.keySet());
+    }
+
+    /**
+     * 当前缓存的全部条目快照
+     */
+    public Map<K, V> asMap() {
+        Map<K, V> map = new LinkedHashMap<>(data.size() * 2);
+        data.forEach((key, node) -> map.put(key, node.value));
+        return map;
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    public long getTotalLoadNanos() {
+        return totalLoadNanos.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 持有淘汰锁时调用
+     */
+    private void put(K key, V value) {
+        Node<K, V> node = new Node<>(key, value);
+        if (data.putIfAbsent(key, node) != null) {
+            return;
+        }
+        node.segment = WINDOW;
+        window.put(key, node);
+        if (window.size() <= windowMaximum) {
+            return;
+        }
+
+        // 窗口溢出：最久未访问的窗口条目作为候选者进入主区
+        Node<K, V> candidate = pollFirst(window);
+        candidate.segment = PROBATION;
+        probation.put(candidate.key, candidate);
+        if (data.size() <= maximumSize) {
+            return;
+        }
+
+        // 主区已满：候选者与试用段最久未访问的条目比较频率，淘汰频率低者
+        Node<K, V> victim = probation.values().iterator().next();
+        if (victim != candidate && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            evict(victim);
+        } else {
+            evict(candidate);
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        probation.remove(node.key);
+        data.remove(node.key, node);
+        node.segment = RETIRED;
+        evictionCount.increment();
+    }
+
+    /**
+     * 回放读缓冲区中的访问记录，持有淘汰锁时调用
+     */
+    @SuppressWarnings("unchecked")
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drain(element -> {
+                if (element instanceof Node<?, ?> accessed) {
+                    onAccess((Node<K, V>) accessed);
+                } else {
+                    sketch.increment(element);
+                }
+            });
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        sketch.increment(node.key);
+        switch (node.segment) {
+            case WINDOW -> window.get(node.key);
+            case PROTECTED -> protectedSegment.get(node.key);
+            case PROBATION -> {
+                probation.remove(node.key);
+                promote(node);
+            }
+            default -> {
+                // 已被淘汰或失效
+            }
+        }
+    }
+
+    /**
+     * 试用段条目再次命中，晋升到保护段；保护段溢出时将其最久未访问的条目降回试用段
+     */
+    private void promote(Node<K, V> node) {
+        node.segment = PROTECTED;
+        protectedSegment.put(node.key, node);
+        if (protectedSegment.size() > protectedMaximum) {
+            Node<K, V> demoted = pollFirst(protectedSegment);
+            demoted.segment = PROBATION;
+            probation.put(demoted.key, demoted);
+        }
+    }
+
+    private LinkedHashMap<K, Node<K, V>> segmentOf(Node<K, V> node) {
+        return switch (node.segment) {
+            case WINDOW -> window;
+            case PROTECTED -> protectedSegment;
+            default -> probation;
+        };
+    }
+
+    private static <K, N> N pollFirst(LinkedHashMap<K, N> segment) {
+        Iterator<N> iterator = segment.values().iterator();
+        N first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+
+    private int stripe() {
+        int h = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (readBuffers.length - 1);
+    }
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 缓存条目，segment仅在持有淘汰锁时读写
+     */
+    private static final class Node<K, V> {
+
+        private final K key;
+        private final V value;
+        private int segment = RETIRED;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 有损环形读缓冲区：写入只做一次原子自增，写满一轮提示回放；回放前被覆盖的记录直接丢弃
+     */
+    private static final class ReadBuffer {
+
+        private static final int SIZE = 32;
+        private static final int MASK = SIZE - 1;
+
+        private final AtomicLong writes = new AtomicLong();
+        private final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(SIZE);
+
+        /**
+         * 已回放的位置，仅在持有淘汰锁时访问
+         */
+        private long reads;
+
+        /**
+         * @return 是否应当回放
+         */
+        boolean offer(Object element) {
+            long index = writes.getAndIncrement();
+            slots.lazySet((int) (index & MASK), element);
+            return (index & MASK) == MASK;
+        }
+
+        void drain(Consumer<Object> consumer) {
+            long end = writes.get();
+            for (long index = Math.max(reads, end - SIZE); index < end; index++) {
+                Object element = slots.getAndSet((int) (index & MASK), null);
+                if (element != null) {
+                    consumer.accept(element);
+                }
+            }
+            reads = end;
+        }
+    }
+
+    /**
+     * 4位计数的Count-Min Sketch
+     */
+    private static final class FrequencySketch {
+
+        private static final int MAX_COUNT = 15;
+
+        private final int[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int maximumSize) {
+            int length = Integer.highestOneBit(Math.max(16, maximumSize * 2 - 1));
+            this.table = new int[length];
+            this.mask = length - 1;
+            this.sampleSize = 10 * Math.max(maximumSize, 16);
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < 4; i++) {
+                frequency = Math.min(frequency, table[indexOf(hash, i)]);
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                if (table[index] < MAX_COUNT) {
+                    table[index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        /**
+         * 所有计数减半，使过去的热点逐渐冷却
+         */
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] >>>= 1;
+            }
+            additions >>>= 1;
+        }
+
+        private int indexOf(int hash, int row) {
+            int h = hash * (0x9E3779B9 + row * 0x7F4A7C16) + row;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private static int spread(int hash) {
+            int h = hash * 0x85EBCA6B;
+            return h ^ (h >>> 15);
+        }
+    }
+}
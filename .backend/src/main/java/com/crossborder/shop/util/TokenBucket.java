@@ -0,0 +1,59 @@
+package com.crossborder.shop.util;
+
+/**
+ * 令牌桶
+ * 按固定速率补充令牌，桶满后不再累积；每次请求消耗一个令牌，无令牌时拒绝
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param capacity        桶容量（允许的突发请求数）
+     * @param refillPerMinute 每分钟补充的令牌数
+     */
+    public TokenBucket(int capacity, int refillPerMinute) {
+        if (capacity < 1 || refillPerMinute < 1) {
+            throw new IllegalArgumentException("capacity和refillPerMinute必须大于0");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / 60_000_000_000.0;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @return 是否获取成功
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * 是否还有可用令牌（不消耗）
+     */
+    public synchronized boolean hasToken() {
+        refill();
+        return tokens >= 1;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
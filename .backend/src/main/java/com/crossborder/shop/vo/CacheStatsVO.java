@@ -0,0 +1,49 @@
+package com.crossborder.shop.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 本地缓存统计视图对象
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+@Schema(description = "本地缓存统计视图对象")
+public class CacheStatsVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "当前条目数", example = "1200")
+    private Integer size;
+
+    @Schema(description = "最大条目数", example = "2000")
+    private Integer maximumSize;
+
+    @Schema(description = "命中次数", example = "98000")
+    private Long hitCount;
+
+    @Schema(description = "未命中次数", example = "2000")
+    private Long missCount;
+
+    @Schema(description = "命中率", example = "0.98")
+    private Double hitRate;
+
+    @Schema(description = "加载成功次数", example = "1990")
+    private Long loadSuccessCount;
+
+    @Schema(description = "加载失败次数", example = "10")
+    private Long loadFailureCount;
+
+    @Schema(description = "平均加载耗时（毫秒）", example = "3.5")
+    private Double averageLoadMillis;
+
+    @Schema(description = "淘汰次数", example = "150")
+    private Long evictionCount;
+
+    @Schema(description = "版本校验失效次数", example = "42")
+    private Long invalidationCount;
+}
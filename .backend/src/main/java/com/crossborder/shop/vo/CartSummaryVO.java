@@ -0,0 +1,29 @@
+package com.crossborder.shop.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * 购物车汇总VO（购物车角标等轻量展示）
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+@Schema(description = "购物车汇总")
+public class CartSummaryVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "明细条数", example = "3")
+    private Integer itemCount;
+
+    @Schema(description = "商品总数", example = "5")
+    private Integer totalQuantity;
+
+    @Schema(description = "购物车总价", example = "299.00")
+    private BigDecimal totalPrice;
+}
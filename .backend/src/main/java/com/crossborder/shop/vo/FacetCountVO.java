@@ -0,0 +1,29 @@
+package com.crossborder.shop.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 分面计数视图对象
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "分面计数视图对象")
+public class FacetCountVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "属性值（分类为分类ID，价格区间如50-100、1000+）", example = "50-100")
+    private String value;
+
+    @Schema(description = "商品数量", example = "36")
+    private Integer count;
+}
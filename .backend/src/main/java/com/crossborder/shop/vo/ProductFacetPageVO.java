@@ -0,0 +1,28 @@
+package com.crossborder.shop.vo;
+
+import com.crossborder.shop.common.PageResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品分面分页视图对象
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@Data
+@Schema(description = "商品分面分页视图对象")
+public class ProductFacetPageVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "商品分页结果")
+    private PageResult<ProductVO> page;
+
+    @Schema(description = "分面计数：category, brand, priceBand, currency -> 各属性值的商品数量")
+    private Map<String, List<FacetCountVO>> facets;
+}
@@ -87,6 +87,9 @@ public class ProductVO implements Serializable {
     @Schema(description = "是否热销", example = "1")
     private Integer isHot;
 
+    @Schema(description = "版本号（乐观锁）", example = "3")
+    private Integer version;
+
     @Schema(description = "创建时间", example = "2026-02-06T12:00:00")
     private LocalDateTime createTime;
 
@@ -16,6 +16,7 @@ CREATE TABLE tb_cart_item (
     user_id BIGINT NOT NULL COMMENT '用户ID',
     product_id BIGINT NOT NULL COMMENT '商品ID',
     sku_id BIGINT COMMENT 'SKU ID',
+    sku_key BIGINT AS (IFNULL(sku_id, 0)) STORED COMMENT 'SKU唯一键（无SKU时为0，使唯一索引对无SKU明细同样生效）',
     quantity INT NOT NULL DEFAULT 1 COMMENT '数量',
     selected TINYINT DEFAULT 1 COMMENT '是否选中：0-未选中，1-选中',
     create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
@@ -24,5 +25,5 @@ CREATE TABLE tb_cart_item (
     KEY idx_cart_id (cart_id),
     KEY idx_user_id (user_id),
     KEY idx_product_id (product_id),
-    UNIQUE KEY uk_user_product (user_id, product_id, sku_id)
+    UNIQUE KEY uk_user_product (user_id, product_id, sku_key)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='购物车明细表';
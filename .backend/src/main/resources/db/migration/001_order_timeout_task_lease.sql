@@ -0,0 +1,15 @@
+-- ========================================
+-- 升级脚本：订单超时任务认领租约
+-- 已有库执行一次；新库直接使用order.sql
+-- ========================================
+
+USE `crossborder_shop`;
+
+-- 各节点按租约认领到期任务，替换原有的单列索引
+ALTER TABLE tb_order_timeout_task
+    ADD COLUMN owner VARCHAR(64) COMMENT '认领节点' AFTER status,
+    ADD COLUMN lease_until DATETIME COMMENT '认领有效期，过期后其他节点可重新认领' AFTER owner,
+    DROP INDEX idx_timeout_time,
+    DROP INDEX idx_status,
+    ADD KEY idx_status_timeout (status, timeout_time),
+    ADD KEY idx_owner (owner);
@@ -0,0 +1,18 @@
+-- ========================================
+-- 升级脚本：游标分页索引
+-- 已有库执行一次；新库直接使用order.sql、product.sql
+-- ========================================
+
+USE `crossborder_shop`;
+
+-- 按买家/卖家游标分页（create_time, id）倒序；新的联合索引覆盖原单列索引
+ALTER TABLE tb_order
+    ADD KEY idx_buyer_create_time (buyer_id, create_time),
+    ADD KEY idx_seller_create_time (seller_id, create_time),
+    DROP INDEX idx_buyer_id,
+    DROP INDEX idx_seller_id;
+
+-- 商品按价格、名称排序的游标分页
+ALTER TABLE tb_product
+    ADD KEY idx_price (price),
+    ADD KEY idx_product_name (product_name);
@@ -0,0 +1,17 @@
+-- ========================================
+-- 升级脚本：下单幂等记录表
+-- 已有库执行一次；新库直接使用order.sql
+-- ========================================
+
+USE `crossborder_shop`;
+
+-- 下单幂等记录表（Idempotency-Key去重，多节点共享）
+CREATE TABLE IF NOT EXISTS tb_order_idempotency (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    idempotency_key VARCHAR(64) NOT NULL COMMENT '幂等键',
+    order_id BIGINT COMMENT '订单ID',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    UNIQUE KEY uk_user_key (user_id, idempotency_key),
+    KEY idx_create_time (create_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='下单幂等记录表';
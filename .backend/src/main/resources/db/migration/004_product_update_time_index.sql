@@ -0,0 +1,10 @@
+-- ========================================
+-- 升级脚本：商品更新时间索引
+-- 已有库执行一次；新库直接使用product.sql
+-- ========================================
+
+USE `crossborder_shop`;
+
+-- 搜索索引按update_time增量同步变更的商品
+ALTER TABLE tb_product
+    ADD KEY idx_update_time (update_time);
@@ -0,0 +1,21 @@
+-- ========================================
+-- 升级脚本：商品冗余主图
+-- 已有库执行一次；新库直接使用product.sql
+-- ========================================
+
+USE `crossborder_shop`;
+
+ALTER TABLE tb_product
+    ADD COLUMN main_image VARCHAR(500) COMMENT '主图URL（冗余tb_product_image中的主图，随图片保存同步更新）' AFTER detail;
+
+-- 回填已有商品，与原先列表查询中的主图子查询口径一致
+UPDATE tb_product p
+SET p.main_image = (
+    SELECT i.image_url
+    FROM tb_product_image i
+    WHERE i.product_id = p.id
+      AND i.is_main = 1
+      AND i.deleted = 0
+    LIMIT 1
+)
+WHERE p.main_image IS NULL;
@@ -0,0 +1,30 @@
+-- ========================================
+-- 升级脚本：购物车明细唯一键
+-- 已有库执行一次；新库直接使用cart.sql
+-- ========================================
+
+USE `crossborder_shop`;
+
+-- 原唯一键含可空的sku_id，无SKU的明细可能已有重复行：数量合并到最早的一行后删除其余行
+UPDATE tb_cart_item k
+JOIN (
+    SELECT MIN(id) AS id, SUM(quantity) AS quantity
+    FROM tb_cart_item
+    GROUP BY user_id, product_id, IFNULL(sku_id, 0)
+    HAVING COUNT(*) > 1
+) d ON d.id = k.id
+SET k.quantity = d.quantity;
+
+DELETE t
+FROM tb_cart_item t
+JOIN tb_cart_item k
+  ON k.user_id = t.user_id
+ AND k.product_id = t.product_id
+ AND IFNULL(k.sku_id, 0) = IFNULL(t.sku_id, 0)
+ AND k.id < t.id;
+
+-- 无SKU时sku_key为0，使唯一索引对无SKU明细同样生效，加购插入可用INSERT IGNORE去重
+ALTER TABLE tb_cart_item
+    ADD COLUMN sku_key BIGINT AS (IFNULL(sku_id, 0)) STORED COMMENT 'SKU唯一键（无SKU时为0，使唯一索引对无SKU明细同样生效）' AFTER sku_id,
+    DROP INDEX uk_user_product,
+    ADD UNIQUE KEY uk_user_product (user_id, product_id, sku_key);
@@ -0,0 +1,19 @@
+-- ========================================
+-- 升级脚本：Token吊销表
+-- 已有库执行一次；新库直接使用init.sql
+-- ========================================
+
+USE `crossborder_shop`;
+
+-- token_id为NULL的记录表示吊销该用户在revoke_time之前签发的全部Token（禁用/删除用户）
+CREATE TABLE IF NOT EXISTS `tb_token_revocation` (
+  `id` BIGINT(20) NOT NULL AUTO_INCREMENT COMMENT 'ID',
+  `token_id` VARCHAR(64) DEFAULT NULL COMMENT 'Token标识（jti）',
+  `user_id` BIGINT(20) NOT NULL COMMENT '用户ID',
+  `revoke_time` DATETIME(3) NOT NULL COMMENT '吊销时间',
+  `expire_time` DATETIME NOT NULL COMMENT '失效时间（被吊销Token的最晚过期时间，之后记录可清理）',
+  `create_time` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间（数据库时钟，用于各节点增量同步）',
+  PRIMARY KEY (`id`),
+  KEY `idx_create_time` (`create_time`),
+  KEY `idx_expire_time` (`expire_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Token吊销表';
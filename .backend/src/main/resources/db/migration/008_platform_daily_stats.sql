@@ -0,0 +1,26 @@
+-- ========================================
+-- 升级脚本：平台每日统计
+-- 已有库执行一次；新库直接使用order.sql、system.sql
+-- ========================================
+
+USE `crossborder_shop`;
+
+-- 平台每日统计汇总表（每日凌晨汇总前一天）
+CREATE TABLE IF NOT EXISTS tb_platform_daily_stats (
+    stat_date DATE PRIMARY KEY COMMENT '统计日期',
+    total_users BIGINT DEFAULT 0 COMMENT '总用户数',
+    active_users BIGINT DEFAULT 0 COMMENT '活跃用户数',
+    new_users BIGINT DEFAULT 0 COMMENT '当日新用户',
+    total_products BIGINT DEFAULT 0 COMMENT '商品总数',
+    active_products BIGINT DEFAULT 0 COMMENT '上架商品数',
+    total_orders BIGINT DEFAULT 0 COMMENT '订单总数',
+    pending_orders BIGINT DEFAULT 0 COMMENT '待处理订单数',
+    total_revenue DECIMAL(15, 2) DEFAULT 0 COMMENT '累计营收',
+    revenue DECIMAL(15, 2) DEFAULT 0 COMMENT '当日营收',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='平台每日统计汇总表';
+
+-- 对账与每日汇总按支付时间统计当日营收
+ALTER TABLE tb_order
+    ADD KEY idx_payment_time (payment_time);
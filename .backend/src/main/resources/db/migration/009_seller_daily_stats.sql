@@ -0,0 +1,24 @@
+-- ========================================
+-- 升级脚本：卖家每日统计
+-- 已有库执行一次；新库直接使用system.sql
+-- 表为空时应用启动会从订单表补建全部历史，无需手工回填
+-- ========================================
+
+USE `crossborder_shop`;
+
+-- 卖家每日统计汇总表（订单事件提交后批量增量维护，各指标按对应事件发生的日期归集）
+CREATE TABLE IF NOT EXISTS tb_seller_daily_stats (
+    seller_id BIGINT NOT NULL COMMENT '卖家ID',
+    stat_date DATE NOT NULL COMMENT '统计日期',
+    order_count INT DEFAULT 0 COMMENT '下单数（按下单时间）',
+    paid_order_count INT DEFAULT 0 COMMENT '支付订单数（按支付时间）',
+    shipped_order_count INT DEFAULT 0 COMMENT '发货订单数（按发货时间）',
+    completed_order_count INT DEFAULT 0 COMMENT '完成订单数（按完成时间）',
+    cancelled_order_count INT DEFAULT 0 COMMENT '取消订单数（按取消时间）',
+    revenue DECIMAL(15, 2) DEFAULT 0 COMMENT '销售额（按支付时间）',
+    units INT DEFAULT 0 COMMENT '销售件数（按支付时间）',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (seller_id, stat_date),
+    KEY idx_stat_date (stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='卖家每日统计汇总表';
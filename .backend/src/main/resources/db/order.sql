@@ -34,10 +34,11 @@ CREATE TABLE tb_order (
     update_by VARCHAR(50) COMMENT '更新人',
     deleted TINYINT DEFAULT 0 COMMENT '删除标记：0-未删除，1-已删除',
     UNIQUE KEY uk_order_no (order_number),
-    KEY idx_buyer_id (buyer_id),
-    KEY idx_seller_id (seller_id),
+    KEY idx_buyer_create_time (buyer_id, create_time),
+    KEY idx_seller_create_time (seller_id, create_time),
     KEY idx_order_status (order_status),
     KEY idx_payment_status (payment_status),
+    KEY idx_payment_time (payment_time),
     KEY idx_create_time (create_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='订单主表';
 
@@ -98,10 +99,24 @@ CREATE TABLE tb_order_timeout_task (
     user_id BIGINT NOT NULL COMMENT '用户ID',
     timeout_time DATETIME NOT NULL COMMENT '超时时间',
     status TINYINT DEFAULT 0 COMMENT '任务状态：0-待处理，1-已处理，2-已取消',
+    owner VARCHAR(64) COMMENT '认领节点',
+    lease_until DATETIME COMMENT '认领有效期，过期后其他节点可重新认领',
     process_time DATETIME COMMENT '处理时间',
     create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     UNIQUE KEY uk_order_id (order_id),
     KEY idx_order_no (order_number),
-    KEY idx_timeout_time (timeout_time),
-    KEY idx_status (status)
+    KEY idx_status_timeout (status, timeout_time),
+    KEY idx_owner (owner)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='订单超时任务表';
+
+-- 下单幂等记录表（Idempotency-Key去重，多节点共享）
+DROP TABLE IF EXISTS tb_order_idempotency;
+CREATE TABLE tb_order_idempotency (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    idempotency_key VARCHAR(64) NOT NULL COMMENT '幂等键',
+    order_id BIGINT COMMENT '订单ID',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    UNIQUE KEY uk_user_key (user_id, idempotency_key),
+    KEY idx_create_time (create_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='下单幂等记录表';
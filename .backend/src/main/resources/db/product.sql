@@ -18,6 +18,7 @@ CREATE TABLE tb_product (
     volume DECIMAL(10, 2) COMMENT '体积（立方厘米）',
     description TEXT COMMENT '商品描述',
     detail TEXT COMMENT '商品详情',
+    main_image VARCHAR(500) COMMENT '主图URL（冗余tb_product_image中的主图，随图片保存同步更新）',
     status TINYINT DEFAULT 0 COMMENT '状态：0-草稿，1-上架，2-下架，3-售罄',
     is_recommend TINYINT DEFAULT 0 COMMENT '是否推荐：0-否，1-是',
     is_new TINYINT DEFAULT 0 COMMENT '是否新品：0-否，1-是',
@@ -32,7 +33,10 @@ CREATE TABLE tb_product (
     KEY idx_category_id (category_id),
     KEY idx_seller_id (seller_id),
     KEY idx_status (status),
-    KEY idx_create_time (create_time)
+    KEY idx_create_time (create_time),
+    KEY idx_price (price),
+    KEY idx_product_name (product_name),
+    KEY idx_update_time (update_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='商品主表';
 
 -- 商品图片表
@@ -80,3 +80,38 @@ CREATE TABLE tb_daily_statistics (
     KEY idx_stat_date (stat_date),
     KEY idx_seller_id (seller_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='每日销售统计表';
+
+-- 平台每日统计汇总表（每日凌晨汇总前一天）
+DROP TABLE IF EXISTS tb_platform_daily_stats;
+CREATE TABLE tb_platform_daily_stats (
+    stat_date DATE PRIMARY KEY COMMENT '统计日期',
+    total_users BIGINT DEFAULT 0 COMMENT '总用户数',
+    active_users BIGINT DEFAULT 0 COMMENT '活跃用户数',
+    new_users BIGINT DEFAULT 0 COMMENT '当日新用户',
+    total_products BIGINT DEFAULT 0 COMMENT '商品总数',
+    active_products BIGINT DEFAULT 0 COMMENT '上架商品数',
+    total_orders BIGINT DEFAULT 0 COMMENT '订单总数',
+    pending_orders BIGINT DEFAULT 0 COMMENT '待处理订单数',
+    total_revenue DECIMAL(15, 2) DEFAULT 0 COMMENT '累计营收',
+    revenue DECIMAL(15, 2) DEFAULT 0 COMMENT '当日营收',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='平台每日统计汇总表';
+
+-- 卖家每日统计汇总表（订单事件提交后批量增量维护，各指标按对应事件发生的日期归集）
+DROP TABLE IF EXISTS tb_seller_daily_stats;
+CREATE TABLE tb_seller_daily_stats (
+    seller_id BIGINT NOT NULL COMMENT '卖家ID',
+    stat_date DATE NOT NULL COMMENT '统计日期',
+    order_count INT DEFAULT 0 COMMENT '下单数（按下单时间）',
+    paid_order_count INT DEFAULT 0 COMMENT '支付订单数（按支付时间）',
+    shipped_order_count INT DEFAULT 0 COMMENT '发货订单数（按发货时间）',
+    completed_order_count INT DEFAULT 0 COMMENT '完成订单数（按完成时间）',
+    cancelled_order_count INT DEFAULT 0 COMMENT '取消订单数（按取消时间）',
+    revenue DECIMAL(15, 2) DEFAULT 0 COMMENT '销售额（按支付时间）',
+    units INT DEFAULT 0 COMMENT '销售件数（按支付时间）',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (seller_id, stat_date),
+    KEY idx_stat_date (stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='卖家每日统计汇总表';
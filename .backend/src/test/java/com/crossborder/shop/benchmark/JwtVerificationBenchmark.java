@@ -0,0 +1,105 @@
+package com.crossborder.shop.benchmark;
+
+import com.crossborder.shop.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT认证过滤器每个请求的验签开销：
+ * 改造前过滤器依次调用validateToken、getUsername、getTokenType、getUserId、getRoleCodes，
+ * 每次都重建HMAC密钥并完整验签解析；改造后每个请求调用一次verify，命中缓存时只检查过期时间
+ * <p>
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.crossborder.shop.benchmark.JwtVerificationBenchmark
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "accessTokenExpiration", TimeUnit.HOURS.toMillis(2));
+        ReflectionTestUtils.setField(jwtUtil, "refreshTokenExpiration", TimeUnit.DAYS.toMillis(7));
+        ReflectionTestUtils.setField(jwtUtil, "header", "Authorization");
+        ReflectionTestUtils.setField(jwtUtil, "prefix", "Bearer");
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", 10_000);
+        jwtUtil.init();
+        token = jwtUtil.generateAccessToken(1001L, "benchmark-user", List.of("BUYER", "SELLER"));
+    }
+
+    /**
+     * 改造前：每个请求5次重建密钥 + 验签解析
+     */
+    @Benchmark
+    public void legacyFiveParses(Blackhole blackhole) {
+        blackhole.consume(legacyClaims(token) != null);
+        blackhole.consume(legacyClaims(token).getSubject());
+        blackhole.consume(legacyClaims(token).get("tokenType", String.class));
+        blackhole.consume(legacyClaims(token).get("userId", Long.class));
+        blackhole.consume(legacyClaims(token).get("roles"));
+    }
+
+    /**
+     * 改造后缓存未命中：复用启动时构建的解析器，验签一次
+     */
+    @Benchmark
+    public Object verifyOnceUncached() {
+        return jwtUtil.getClaimsFromToken(token);
+    }
+
+    /**
+     * 改造后缓存命中：计算Token摘要并检查过期时间
+     */
+    @Benchmark
+    public Object verifyOnceCached() {
+        return jwtUtil.verify(token);
+    }
+
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.crossborder.shop.listener;
+
+import com.crossborder.shop.mapper.OrderTimeoutTaskMapper;
+import com.crossborder.shop.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 订单超时任务认领测试
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class OrderTimeoutListenerTest {
+
+    private final OrderTimeoutTaskMapper taskMapper = mock(OrderTimeoutTaskMapper.class);
+    private final OrderService orderService = mock(OrderService.class);
+
+    private OrderTimeoutListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new OrderTimeoutListener(taskMapper, orderService);
+        ReflectionTestUtils.setField(listener, "batchSize", 2);
+        ReflectionTestUtils.setField(listener, "claimGraceSeconds", 30);
+        ReflectionTestUtils.setField(listener, "claimLeaseSeconds", 60);
+    }
+
+    @Test
+    void claimsBatchesUntilLessThanFullBatch() {
+        when(taskMapper.claimOverdue(anyString(), eq(30), eq(60), eq(2))).thenReturn(2, 1);
+        when(taskMapper.selectClaimedOrderIds(anyString())).thenReturn(List.of(1L, 2L), List.of(3L));
+
+        listener.claimOverdue();
+
+        verify(orderService).cancelTimeoutOrders(List.of(1L, 2L));
+        verify(orderService).cancelTimeoutOrders(List.of(3L));
+        verify(taskMapper, times(2)).claimOverdue(anyString(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void nothingClaimedDoesNothing() {
+        listener.claimOverdue();
+
+        verify(taskMapper, never()).selectClaimedOrderIds(anyString());
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void failedCancellationStopsAndLeavesLeaseToExpire() {
+        when(taskMapper.claimOverdue(anyString(), anyInt(), anyInt(), anyInt())).thenReturn(2);
+        when(taskMapper.selectClaimedOrderIds(anyString())).thenReturn(List.of(1L, 2L));
+        when(orderService.cancelTimeoutOrders(List.of(1L, 2L))).thenThrow(new IllegalStateException("db down"));
+
+        listener.claimOverdue();
+
+        verify(taskMapper, times(1)).claimOverdue(anyString(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void backfillIsSkippedUnlessEnabled() {
+        listener.backfill();
+        verifyNoInteractions(taskMapper);
+
+        ReflectionTestUtils.setField(listener, "backfillEnabled", true);
+        ReflectionTestUtils.setField(listener, "orderTimeoutMinutes", 15);
+        listener.backfill();
+        verify(taskMapper).backfillPendingOrders(15);
+    }
+}
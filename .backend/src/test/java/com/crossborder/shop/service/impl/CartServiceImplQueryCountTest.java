@@ -0,0 +1,107 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.Cart;
+import com.crossborder.shop.entity.CartItem;
+import com.crossborder.shop.entity.Product;
+import com.crossborder.shop.mapper.CartItemMapper;
+import com.crossborder.shop.mapper.CartMapper;
+import com.crossborder.shop.mapper.ProductMapper;
+import com.crossborder.shop.service.CartStoreService;
+import com.crossborder.shop.vo.CartSummaryVO;
+import com.crossborder.shop.vo.CartVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 购物车服务SQL条数测试：购物车详情的SQL条数不随明细数增长，汇总命中缓存时不查库
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class CartServiceImplQueryCountTest {
+
+    private static final long USER_ID = 1001L;
+
+    private final CartMapper cartMapper = mock(CartMapper.class);
+    private final CartItemMapper cartItemMapper = mock(CartItemMapper.class);
+    private final ProductMapper productMapper = mock(ProductMapper.class);
+
+    private final MapperInvocations queries = new MapperInvocations(cartMapper, cartItemMapper, productMapper);
+
+    private CartServiceImpl cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartServiceImpl(cartMapper, cartItemMapper, productMapper, mock(CartStoreService.class));
+        ReflectionTestUtils.setField(cartService, "summaryCacheSize", 100);
+        ReflectionTestUtils.setField(cartService, "summaryTtlSeconds", 60L);
+        cartService.init();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void getCartUsesConstantQueries(int itemCount) {
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setUserId(USER_ID);
+        List<CartItem> items = new ArrayList<>();
+        List<Product> products = new ArrayList<>();
+        for (long i = 0; i < itemCount; i++) {
+            CartItem item = new CartItem();
+            item.setId(i);
+            item.setCartId(1L);
+            item.setProductId(i);
+            item.setQuantity(1);
+            item.setSelected(true);
+            items.add(item);
+
+            Product product = new Product();
+            product.setId(i);
+            product.setName("product-" + i);
+            product.setPrice(new BigDecimal("5.00"));
+            product.setStock(10);
+            product.setOnShelf(true);
+            products.add(product);
+        }
+        when(cartMapper.selectByUserId(USER_ID)).thenReturn(cart);
+        when(cartItemMapper.selectByCartId(1L)).thenReturn(items);
+        when(productMapper.selectByIds(any())).thenReturn(products);
+
+        CartVO cartVO = cartService.getCart(USER_ID);
+
+        assertEquals(itemCount, cartVO.getItems().size());
+        assertEquals(new BigDecimal("5.00").multiply(new BigDecimal(itemCount)), cartVO.getTotalPrice());
+        // 购物车、明细、商品（含主图）各一次
+        assertEquals(3, queries.count());
+    }
+
+    @Test
+    void summaryIsServedFromCacheUntilEvicted() {
+        CartSummaryVO summary = new CartSummaryVO();
+        summary.setItemCount(3);
+        summary.setTotalQuantity(5);
+        summary.setTotalPrice(new BigDecimal("42.00"));
+        when(cartItemMapper.selectSummaryByUserId(USER_ID)).thenReturn(summary);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(3, cartService.getCartSummary(USER_ID).getItemCount());
+        }
+        assertEquals(1, queries.count());
+
+        cartService.evictCartCache(USER_ID);
+        cartService.getCartSummary(USER_ID);
+        assertEquals(2, queries.count());
+    }
+}
@@ -0,0 +1,185 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.common.ResultCode;
+import com.crossborder.shop.dto.AddCartDTO;
+import com.crossborder.shop.dto.CartBatchDTO;
+import com.crossborder.shop.dto.UpdateCartItemDTO;
+import com.crossborder.shop.entity.CartItem;
+import com.crossborder.shop.entity.Product;
+import com.crossborder.shop.exception.BusinessException;
+import com.crossborder.shop.mapper.CartItemMapper;
+import com.crossborder.shop.mapper.CartMapper;
+import com.crossborder.shop.mapper.ProductMapper;
+import com.crossborder.shop.service.CartStoreService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 购物车服务测试：批量修改校验失败时不改动内存购物车，加购超过库存时拒绝而不是截断
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class CartServiceImplTest {
+
+    private static final long USER_ID = 1001L;
+
+    private final CartMapper cartMapper = mock(CartMapper.class);
+    private final CartItemMapper cartItemMapper = mock(CartItemMapper.class);
+    private final ProductMapper productMapper = mock(ProductMapper.class);
+    private final CartStoreService cartStoreService = mock(CartStoreService.class);
+
+    private CartServiceImpl cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartServiceImpl(cartMapper, cartItemMapper, productMapper, cartStoreService);
+        ReflectionTestUtils.setField(cartService, "summaryCacheSize", 100);
+        ReflectionTestUtils.setField(cartService, "summaryTtlSeconds", 60L);
+        cartService.init();
+
+        when(cartStoreService.isEnabled()).thenReturn(true);
+        CartItem item = new CartItem();
+        item.setId(1L);
+        item.setProductId(10L);
+        item.setQuantity(1);
+        when(cartStoreService.getItem(USER_ID, 1L)).thenReturn(item);
+        when(productMapper.selectByIds(any())).thenReturn(List.of(product(10L, 5), product(20L, 5)));
+    }
+
+    @Test
+    void missingItemLeavesMemoryUntouched() {
+        CartBatchDTO dto = new CartBatchDTO();
+        dto.setAdds(List.of(add(20L, 1)));
+        dto.setUpdates(List.of(update(1L, 2), update(2L, 1)));
+        dto.setRemoveIds(List.of(1L));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> cartService.batchUpdateCart(USER_ID, dto));
+
+        assertEquals(ResultCode.NOT_FOUND.getCode(), e.getCode());
+        verifyMemoryUntouched();
+    }
+
+    @Test
+    void stockShortageInLaterUpdateLeavesMemoryUntouched() {
+        CartBatchDTO dto = new CartBatchDTO();
+        dto.setAdds(List.of(add(20L, 1)));
+        dto.setUpdates(List.of(update(1L, 6)));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> cartService.batchUpdateCart(USER_ID, dto));
+
+        assertEquals(ResultCode.PRODUCT_STOCK_NOT_ENOUGH.getCode(), e.getCode());
+        verifyMemoryUntouched();
+    }
+
+    @Test
+    void validBatchIsApplied() {
+        when(cartStoreService.addQuantity(USER_ID, 20L, null, 1, 5)).thenReturn(true);
+        CartBatchDTO dto = new CartBatchDTO();
+        dto.setAdds(List.of(add(20L, 1)));
+        dto.setUpdates(List.of(update(1L, 3)));
+        dto.setRemoveIds(List.of(1L));
+
+        cartService.batchUpdateCart(USER_ID, dto);
+
+        verify(cartStoreService).addQuantity(USER_ID, 20L, null, 1, 5);
+        verify(cartStoreService).updateItem(USER_ID, 1L, 3, null);
+        verify(cartStoreService).removeItems(USER_ID, List.of(1L));
+    }
+
+    @Test
+    void batchAddsExceedingStockWithMemoryQuantityAreRejectedUpFront() {
+        CartItem existing = new CartItem();
+        existing.setId(2L);
+        existing.setProductId(20L);
+        existing.setQuantity(3);
+        when(cartStoreService.getItems(USER_ID)).thenReturn(List.of(existing));
+        CartBatchDTO dto = new CartBatchDTO();
+        dto.setAdds(List.of(add(10L, 1), add(20L, 1), add(20L, 2)));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> cartService.batchUpdateCart(USER_ID, dto));
+
+        assertEquals(ResultCode.PRODUCT_STOCK_NOT_ENOUGH.getCode(), e.getCode());
+        verifyMemoryUntouched();
+    }
+
+    @Test
+    void databaseAddWithinStockIncreasesExistingItem() {
+        when(cartStoreService.isEnabled()).thenReturn(false);
+        when(productMapper.selectById(20L)).thenReturn(product(20L, 5));
+        when(cartItemMapper.increaseQuantity(any(), eq(5))).thenReturn(1);
+
+        cartService.addToCart(USER_ID, add(20L, 2));
+
+        verify(cartItemMapper, never()).insertIgnore(any());
+        verify(cartMapper, never()).insertIgnore(anyLong());
+    }
+
+    @Test
+    void databaseAddCreatesMissingCartAndRetries() {
+        when(cartStoreService.isEnabled()).thenReturn(false);
+        when(productMapper.selectById(20L)).thenReturn(product(20L, 5));
+        when(cartItemMapper.insertIgnore(any())).thenReturn(0, 1);
+
+        cartService.addToCart(USER_ID, add(20L, 2));
+
+        verify(cartMapper).insertIgnore(USER_ID);
+        verify(cartItemMapper, times(2)).insertIgnore(any());
+    }
+
+    @Test
+    void databaseAddExceedingStockIsRejectedNotClamped() {
+        when(cartStoreService.isEnabled()).thenReturn(false);
+        when(productMapper.selectById(20L)).thenReturn(product(20L, 5));
+        // 已有明细累加后超过库存：UPDATE不命中，插入因明细已存在被忽略
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> cartService.addToCart(USER_ID, add(20L, 2)));
+
+        assertEquals(ResultCode.PRODUCT_STOCK_NOT_ENOUGH.getCode(), e.getCode());
+        verify(cartItemMapper, times(2)).increaseQuantity(any(), eq(5));
+    }
+
+    private void verifyMemoryUntouched() {
+        verify(cartStoreService, never()).addQuantity(anyLong(), anyLong(), any(), anyInt(), anyInt());
+        verify(cartStoreService, never()).updateItem(anyLong(), anyLong(), any(), any());
+        verify(cartStoreService, never()).removeItems(anyLong(), any());
+    }
+
+    private static Product product(Long id, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setStock(stock);
+        product.setOnShelf(true);
+        return product;
+    }
+
+    private static AddCartDTO add(Long productId, int quantity) {
+        AddCartDTO dto = new AddCartDTO();
+        dto.setProductId(productId);
+        dto.setQuantity(quantity);
+        return dto;
+    }
+
+    private static UpdateCartItemDTO update(Long itemId, int quantity) {
+        UpdateCartItemDTO dto = new UpdateCartItemDTO();
+        dto.setId(itemId);
+        dto.setQuantity(quantity);
+        return dto;
+    }
+}
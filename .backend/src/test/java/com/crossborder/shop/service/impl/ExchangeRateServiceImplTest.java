@@ -0,0 +1,68 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.ExchangeRate;
+import com.crossborder.shop.mapper.CurrencyMapper;
+import com.crossborder.shop.mapper.ExchangeRateMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 汇率矩阵推导测试
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class ExchangeRateServiceImplTest {
+
+    private ExchangeRateServiceImpl service(String pivot, ExchangeRate... rates) {
+        ExchangeRateMapper exchangeRateMapper = mock(ExchangeRateMapper.class);
+        when(exchangeRateMapper.selectAll()).thenReturn(List.of(rates));
+        ExchangeRateServiceImpl service = new ExchangeRateServiceImpl(exchangeRateMapper, mock(CurrencyMapper.class));
+        ReflectionTestUtils.setField(service, "pivotCurrency", pivot);
+        service.reloadRates();
+        return service;
+    }
+
+    private static ExchangeRate rate(String from, String to, String value) {
+        ExchangeRate rate = new ExchangeRate();
+        rate.setFromCurrency(from);
+        rate.setToCurrency(to);
+        rate.setRate(new BigDecimal(value));
+        return rate;
+    }
+
+    @Test
+    void derivesFromPivotCurrency() {
+        ExchangeRateServiceImpl service = service("CNY",
+                rate("CNY", "USD", "0.1400"), rate("USD", "EUR", "0.9000"));
+
+        assertEquals(new BigDecimal("0.1260"), service.findExchangeRate("CNY", "EUR"));
+        assertEquals(new BigDecimal("7.9365"), service.findExchangeRate("EUR", "CNY"));
+    }
+
+    @Test
+    void derivesAcrossSeveralIntermediateCurrencies() {
+        ExchangeRateServiceImpl service = service("CNY",
+                rate("JPY", "USD", "0.0067"), rate("USD", "EUR", "0.9000"), rate("EUR", "GBP", "0.8500"));
+
+        assertEquals(new BigDecimal("0.0051"), service.findExchangeRate("JPY", "GBP"));
+        assertEquals(new BigDecimal("195.1029"), service.findExchangeRate("GBP", "JPY"));
+    }
+
+    @Test
+    void keepsDirectRatesAndLeavesDisconnectedPairsEmpty() {
+        ExchangeRateServiceImpl service = service("CNY",
+                rate("CNY", "USD", "0.1400"), rate("USD", "CNY", "7.1000"), rate("EUR", "GBP", "0.8500"));
+
+        assertEquals(new BigDecimal("7.1000"), service.findExchangeRate("USD", "CNY"));
+        assertNull(service.findExchangeRate("CNY", "GBP"));
+    }
+}
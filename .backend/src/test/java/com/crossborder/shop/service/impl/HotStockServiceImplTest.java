@@ -0,0 +1,324 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.Product;
+import com.crossborder.shop.mapper.ProductMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 热点商品库存引擎测试
+ * 商品库存保存在模拟的数据库中，校验内存扣减与回写后的库存一致且不会为负
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class HotStockServiceImplTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    @TempDir
+    Path tempDir;
+
+    private final ProductMapper productMapper = mock(ProductMapper.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    /**
+     * 模拟的tb_product.stock
+     */
+    private final Map<Long, Integer> dbStock = new ConcurrentHashMap<>();
+
+    private final List<HotStockServiceImpl> engines = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(productMapper.selectHotProducts()).thenAnswer(invocation -> products(dbStock.keySet()));
+        when(productMapper.selectById(anyLong())).thenAnswer(invocation -> product(invocation.getArgument(0)));
+        when(productMapper.selectByIdsForUpdate(anyCollection()))
+                .thenAnswer(invocation -> products(invocation.getArgument(0)));
+        when(productMapper.batchAdjustStock(anyMap())).thenAnswer(invocation -> {
+            Map<Long, Integer> deltas = invocation.getArgument(0);
+            int updated = 0;
+            for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+                Integer stock = dbStock.get(entry.getKey());
+                if (stock != null && stock >= entry.getValue()) {
+                    dbStock.put(entry.getKey(), stock - entry.getValue());
+                    updated++;
+                }
+            }
+            return updated;
+        });
+        when(productMapper.increaseStock(anyLong(), anyInt())).thenAnswer(invocation -> {
+            dbStock.merge(invocation.getArgument(0), invocation.getArgument(1), Integer::sum);
+            return 1;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        engines.forEach(HotStockServiceImpl::stop);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void concurrentDeductNeverGoesBelowZero() throws Exception {
+        dbStock.put(PRODUCT_ID, 500);
+        HotStockServiceImpl engine = start();
+
+        AtomicInteger sold = new AtomicInteger();
+        runConcurrently(8, () -> {
+            for (int i = 0; i < 200; i++) {
+                if (engine.tryDeduct(Map.of(PRODUCT_ID, 1 + i % 3)).isEmpty()) {
+                    sold.addAndGet(1 + i % 3);
+                }
+            }
+        });
+        engine.flush();
+
+        assertTrue(sold.get() <= 500);
+        assertEquals(500 - sold.get(), dbStock.get(PRODUCT_ID));
+        // 8个线程共请求3200件，库存应被卖到剩余不足3件
+        assertTrue(dbStock.get(PRODUCT_ID) < 3);
+    }
+
+    @Test
+    void rollbackRestoresStock() {
+        dbStock.put(PRODUCT_ID, 10);
+        HotStockServiceImpl engine = start();
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(engine.tryDeduct(Map.of(PRODUCT_ID, 10)).isEmpty());
+        assertEquals(List.of(PRODUCT_ID), engine.tryDeduct(Map.of(PRODUCT_ID, 1)));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        engine.flush();
+        // 扣减与归还相互抵消，不回写数据库
+        verify(productMapper, never()).batchAdjustStock(anyMap());
+        assertEquals(10, dbStock.get(PRODUCT_ID));
+        assertTrue(engine.tryDeduct(Map.of(PRODUCT_ID, 10)).isEmpty());
+    }
+
+    @Test
+    void partialFailureReleasesAcquiredStock() {
+        dbStock.put(PRODUCT_ID, 5);
+        dbStock.put(2L, 1);
+        HotStockServiceImpl engine = start();
+
+        assertEquals(List.of(2L), engine.tryDeduct(Map.of(PRODUCT_ID, 5, 2L, 2)));
+
+        engine.flush();
+        verify(productMapper, never()).batchAdjustStock(anyMap());
+        assertTrue(engine.tryDeduct(Map.of(PRODUCT_ID, 5, 2L, 1)).isEmpty());
+    }
+
+    @Test
+    void journalIsReplayedOnceAfterCrash() throws Exception {
+        dbStock.put(PRODUCT_ID, 100);
+        HotStockServiceImpl crashed = start();
+        assertTrue(crashed.tryDeduct(Map.of(PRODUCT_ID, 5)).isEmpty());
+        assertTrue(crashed.tryDeduct(Map.of(PRODUCT_ID, 3)).isEmpty());
+        crashed.release(PRODUCT_ID, 2);
+        awaitJournalLines(3);
+        crash(crashed);
+        // 崩溃时写了一半的最后一行
+        Files.writeString(journal(), "1,", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertEquals(100, dbStock.get(PRODUCT_ID));
+
+        HotStockServiceImpl recovered = start();
+        assertEquals(94, dbStock.get(PRODUCT_ID));
+        assertTrue(recovered.tryDeduct(Map.of(PRODUCT_ID, 94)).isEmpty());
+        assertFalse(recovered.tryDeduct(Map.of(PRODUCT_ID, 1)).isEmpty());
+        recovered.release(PRODUCT_ID, 94);
+        recovered.stop();
+        engines.remove(recovered);
+
+        // 正常停止后再次启动不会重复重放
+        start();
+        assertEquals(94, dbStock.get(PRODUCT_ID));
+    }
+
+    @Test
+    void refreshDuringInFlightDeductionsKeepsStockConsistent() throws Exception {
+        dbStock.put(PRODUCT_ID, 2_000);
+        HotStockServiceImpl engine = start();
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicBoolean refreshing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    while (refreshing.get()) {
+                        if (engine.tryDeduct(Map.of(PRODUCT_ID, 1)).isEmpty()) {
+                            sold.incrementAndGet();
+                        }
+                        Thread.yield();
+                    }
+                }));
+            }
+            for (int i = 0; i < 20; i++) {
+                engine.refresh(PRODUCT_ID);
+                Thread.sleep(5);
+            }
+            refreshing.set(false);
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        engine.flush();
+
+        int remaining = dbStock.get(PRODUCT_ID);
+        assertTrue(remaining >= 0);
+        assertEquals(2_000, remaining + sold.get());
+        // 重新托管后的内存库存与数据库一致
+        if (remaining > 0) {
+            assertTrue(engine.tryDeduct(Map.of(PRODUCT_ID, remaining)).isEmpty());
+        }
+        assertFalse(engine.tryDeduct(Map.of(PRODUCT_ID, 1)).isEmpty());
+    }
+
+    @Test
+    void flushClampsWhenDatabaseStockWasDeductedElsewhere() {
+        dbStock.put(PRODUCT_ID, 10);
+        HotStockServiceImpl engine = start();
+        assertTrue(engine.tryDeduct(Map.of(PRODUCT_ID, 8)).isEmpty());
+        // 其他节点绕过引擎扣了数据库库存
+        dbStock.put(PRODUCT_ID, 5);
+
+        engine.flush();
+
+        assertEquals(0, dbStock.get(PRODUCT_ID));
+        verify(productMapper, times(1)).batchAdjustStock(Map.of(PRODUCT_ID, 5));
+    }
+
+    @Test
+    void unmanagedHotProductIsReservedOnlyInCluster() {
+        Product hot = product(PRODUCT_ID);
+        HotStockServiceImpl engine = new HotStockServiceImpl(productMapper, transactionManager);
+        assertFalse(engine.isReservedForEngine(hot));
+
+        ReflectionTestUtils.setField(engine, "clusterEnabled", true);
+        assertTrue(engine.isReservedForEngine(hot));
+        hot.setIsHot(0);
+        assertFalse(engine.isReservedForEngine(hot));
+    }
+
+    private HotStockServiceImpl start() {
+        HotStockServiceImpl engine = new HotStockServiceImpl(productMapper, transactionManager);
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "stripeCount", 4);
+        // 测试中只通过flush()显式回写
+        ReflectionTestUtils.setField(engine, "flushIntervalMs", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(engine, "journalPath", journal().toString());
+        engine.start();
+        engines.add(engine);
+        return engine;
+    }
+
+    /**
+     * 停止后台线程但不回写、不关闭日志，模拟进程崩溃
+     */
+    private void crash(HotStockServiceImpl engine) throws InterruptedException {
+        ReflectionTestUtils.setField(engine, "running", false);
+        Thread writer = (Thread) ReflectionTestUtils.getField(engine, "writerThread");
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        engines.remove(engine);
+    }
+
+    private void awaitJournalLines(int lines) throws Exception {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (System.currentTimeMillis() < deadline) {
+            if (Files.exists(journal()) && Files.readAllLines(journal()).size() >= lines) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("journal not written");
+    }
+
+    private void runConcurrently(int threads, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Path journal() {
+        return tempDir.resolve("hot-stock.journal");
+    }
+
+    private List<Product> products(Collection<Long> ids) {
+        List<Product> products = new ArrayList<>();
+        for (Long id : ids) {
+            if (dbStock.containsKey(id)) {
+                products.add(product(id));
+            }
+        }
+        return products;
+    }
+
+    private Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setStock(dbStock.get(id));
+        product.setIsHot(1);
+        product.setStatus(1);
+        return product;
+    }
+}
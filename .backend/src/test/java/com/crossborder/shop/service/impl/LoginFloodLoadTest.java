@@ -0,0 +1,145 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.common.ResultCode;
+import com.crossborder.shop.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 登录洪峰压测：撞库请求与商品浏览共用同一组请求线程，
+ * 验证哈希排队受限、超出部分立即拒绝，浏览请求的延迟不被登录拖垮，且受害用户仍能从自己的IP登录
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class LoginFloodLoadTest {
+
+    private static final int REQUEST_THREADS = 16;
+    private static final int FLOOD_REQUESTS = 400;
+    private static final int CATALOG_REQUESTS = 100;
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(8);
+
+    private PasswordServiceImpl passwordService;
+    private LoginLimitServiceImpl loginLimitService;
+    private ExecutorService requestThreads;
+
+    @BeforeEach
+    void setUp() {
+        passwordService = new PasswordServiceImpl(encoder);
+        ReflectionTestUtils.setField(passwordService, "bcryptStrength", 8);
+        ReflectionTestUtils.setField(passwordService, "hashThreads", 1);
+        ReflectionTestUtils.setField(passwordService, "queueCapacity", 4);
+        ReflectionTestUtils.setField(passwordService, "waitTimeoutMs", 5000L);
+        passwordService.init();
+
+        loginLimitService = new LoginLimitServiceImpl();
+        ReflectionTestUtils.setField(loginLimitService, "enabled", true);
+        ReflectionTestUtils.setField(loginLimitService, "ipCapacity", 20);
+        ReflectionTestUtils.setField(loginLimitService, "ipRefillPerMinute", 20);
+        ReflectionTestUtils.setField(loginLimitService, "usernameCapacity", 5);
+        ReflectionTestUtils.setField(loginLimitService, "usernameRefillPerMinute", 5);
+        ReflectionTestUtils.setField(loginLimitService, "maximumKeys", 10_000);
+        loginLimitService.init();
+
+        requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestThreads.shutdownNow();
+        passwordService.shutdown();
+    }
+
+    @Test
+    void catalogStaysResponsiveUnderLoginFlood() throws Exception {
+        String storedHash = encoder.encode("correct-password");
+        AtomicInteger hashed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> flood = new ArrayList<>(FLOOD_REQUESTS);
+        List<Future<Long>> catalog = new ArrayList<>(CATALOG_REQUESTS);
+        for (int i = 0; i < FLOOD_REQUESTS; i++) {
+            // 撞库请求来自大量不同IP，IP限流挡不住，只能靠哈希线程池的有界队列
+            String ip = "198.51.100." + (i % 200);
+            flood.add(requestThreads.submit(() -> {
+                try {
+                    login(ip, "victim", "guess", storedHash);
+                } catch (BusinessException e) {
+                    if (ResultCode.USERNAME_OR_PASSWORD_ERROR.getCode().equals(e.getCode())) {
+                        hashed.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+            if (i % (FLOOD_REQUESTS / CATALOG_REQUESTS) == 0) {
+                long submitted = System.nanoTime();
+                catalog.add(requestThreads.submit(() -> {
+                    browseCatalog();
+                    return System.nanoTime() - submitted;
+                }));
+            }
+        }
+
+        List<Long> latencies = new ArrayList<>(CATALOG_REQUESTS);
+        for (Future<Long> future : catalog) {
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(future.get(30, TimeUnit.SECONDS)));
+        }
+        for (Future<?> future : flood) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        Collections.sort(latencies);
+        long p50 = latencies.get(latencies.size() / 2);
+        long p99 = latencies.get(latencies.size() * 99 / 100);
+        System.out.printf("login flood: hashed=%d, rejected=%d, catalog p50=%dms, p99=%dms%n",
+                hashed.get(), rejected.get(), p50, p99);
+
+        assertEquals(FLOOD_REQUESTS, hashed.get() + rejected.get());
+        // 队列满后直接拒绝，请求线程不会排队等待哈希
+        assertTrue(hashed.get() > 0);
+        assertTrue(rejected.get() > 0);
+        // 请求线程最多被一个排满的哈希队列占住，浏览请求不应等待到哈希超时
+        assertTrue(p99 < 5000, "catalog p99=" + p99 + "ms");
+
+        // 受害用户从自己的IP仍能正常登录
+        assertDoesNotThrow(() -> login("10.0.0.1", "victim", "correct-password", storedHash));
+    }
+
+    /**
+     * 与UserServiceImpl.login相同的准入、校验和失败计数顺序
+     */
+    private void login(String ip, String username, String password, String storedHash) {
+        loginLimitService.acquire(ip, username);
+        if (!passwordService.matches(password, storedHash)) {
+            loginLimitService.recordFailure(ip, username);
+            throw new BusinessException(ResultCode.USERNAME_OR_PASSWORD_ERROR);
+        }
+    }
+
+    private void browseCatalog() {
+        long checksum = 0;
+        for (int i = 0; i < 10_000; i++) {
+            checksum += Long.hashCode(checksum * 31 + i);
+        }
+        if (checksum == 42) {
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 登录限流测试
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class LoginLimitServiceImplTest {
+
+    private LoginLimitServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LoginLimitServiceImpl();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "ipCapacity", 1000);
+        ReflectionTestUtils.setField(service, "ipRefillPerMinute", 1000);
+        ReflectionTestUtils.setField(service, "usernameCapacity", 5);
+        ReflectionTestUtils.setField(service, "usernameRefillPerMinute", 5);
+        ReflectionTestUtils.setField(service, "maximumKeys", 1000);
+        service.init();
+    }
+
+    @Test
+    void successfulLoginsAreNotCharged() {
+        for (int i = 0; i < 50; i++) {
+            assertDoesNotThrow(() -> service.acquire("10.0.0.1", "alice"));
+        }
+    }
+
+    @Test
+    void failuresBeyondCapacityAreRejectedForThatIp() {
+        for (int i = 0; i < 5; i++) {
+            service.acquire("10.0.0.1", "alice");
+            service.recordFailure("10.0.0.1", "alice");
+        }
+
+        assertThrows(BusinessException.class, () -> service.acquire("10.0.0.1", "alice"));
+        // 大小写变体共用同一个桶
+        assertThrows(BusinessException.class, () -> service.acquire("10.0.0.1", "ALICE"));
+    }
+
+    @Test
+    void failuresFromAnotherIpDoNotLockOutUser() {
+        for (int i = 0; i < 100; i++) {
+            service.recordFailure("203.0.113.7", "alice");
+        }
+
+        assertThrows(BusinessException.class, () -> service.acquire("203.0.113.7", "alice"));
+        assertDoesNotThrow(() -> service.acquire("10.0.0.1", "alice"));
+    }
+
+    @Test
+    void ipBucketIsChargedOnEveryAttempt() {
+        ReflectionTestUtils.setField(service, "ipCapacity", 3);
+        ReflectionTestUtils.setField(service, "ipRefillPerMinute", 3);
+        service.init();
+
+        for (int i = 0; i < 3; i++) {
+            service.acquire("10.0.0.1", "user" + i);
+        }
+
+        assertThrows(BusinessException.class, () -> service.acquire("10.0.0.1", "someone-else"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.crossborder.shop.service.impl;
+
+import java.util.Arrays;
+
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * 统计Mock Mapper上的调用次数，每次Mapper调用对应一条SQL
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+final class MapperInvocations {
+
+    private final Object[] mappers;
+
+    MapperInvocations(Object... mappers) {
+        this.mappers = mappers;
+    }
+
+    /**
+     * 自上次reset以来的SQL条数
+     */
+    int count() {
+        return Arrays.stream(mappers).mapToInt(mapper -> mockingDetails(mapper).getInvocations().size()).sum();
+    }
+
+    void reset() {
+        clearInvocations(mappers);
+    }
+}
@@ -0,0 +1,254 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.dto.CreateOrderDTO;
+import com.crossborder.shop.entity.Cart;
+import com.crossborder.shop.common.PageResult;
+import com.crossborder.shop.entity.CartItem;
+import com.crossborder.shop.entity.Order;
+import com.crossborder.shop.entity.OrderItem;
+import com.crossborder.shop.entity.Product;
+import com.crossborder.shop.entity.ShippingAddress;
+import com.crossborder.shop.mapper.CartItemMapper;
+import com.crossborder.shop.mapper.CartMapper;
+import com.crossborder.shop.mapper.LogisticsCompanyMapper;
+import com.crossborder.shop.mapper.OrderAddressMapper;
+import com.crossborder.shop.mapper.OrderIdempotencyMapper;
+import com.crossborder.shop.mapper.OrderItemMapper;
+import com.crossborder.shop.mapper.OrderMapper;
+import com.crossborder.shop.mapper.OrderTimeoutTaskMapper;
+import com.crossborder.shop.mapper.ProductMapper;
+import com.crossborder.shop.mapper.ShippingAddressMapper;
+import com.crossborder.shop.service.CartService;
+import com.crossborder.shop.service.ExchangeRateService;
+import com.crossborder.shop.service.HotStockService;
+import com.crossborder.shop.service.LogisticsService;
+import com.crossborder.shop.service.ProductService;
+import com.crossborder.shop.service.SettingsService;
+import com.crossborder.shop.util.OrderNumberGenerator;
+import com.crossborder.shop.vo.OrderVO;
+import com.github.pagehelper.PageHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 订单服务SQL条数测试：每个请求的SQL条数不随明细数/订单数增长
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class OrderServiceImplQueryCountTest {
+
+    private static final long BUYER_ID = 1001L;
+    private static final long SELLER_ID = 2001L;
+
+    private final OrderMapper orderMapper = mock(OrderMapper.class);
+    private final OrderItemMapper orderItemMapper = mock(OrderItemMapper.class);
+    private final OrderAddressMapper orderAddressMapper = mock(OrderAddressMapper.class);
+    private final ShippingAddressMapper shippingAddressMapper = mock(ShippingAddressMapper.class);
+    private final CartMapper cartMapper = mock(CartMapper.class);
+    private final CartItemMapper cartItemMapper = mock(CartItemMapper.class);
+    private final ProductMapper productMapper = mock(ProductMapper.class);
+    private final LogisticsCompanyMapper logisticsCompanyMapper = mock(LogisticsCompanyMapper.class);
+    private final OrderTimeoutTaskMapper orderTimeoutTaskMapper = mock(OrderTimeoutTaskMapper.class);
+    private final OrderIdempotencyMapper orderIdempotencyMapper = mock(OrderIdempotencyMapper.class);
+    private final SettingsService settingsService = mock(SettingsService.class);
+
+    private final MapperInvocations queries = new MapperInvocations(orderMapper, orderItemMapper,
+            orderAddressMapper, shippingAddressMapper, cartMapper, cartItemMapper, productMapper,
+            logisticsCompanyMapper, orderTimeoutTaskMapper, orderIdempotencyMapper);
+
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        OrderNumberGenerator orderNumberGenerator = new OrderNumberGenerator();
+        ReflectionTestUtils.setField(orderNumberGenerator, "workerCount", 1);
+        orderNumberGenerator.init();
+
+        orderService = new OrderServiceImpl(orderMapper, orderItemMapper, orderAddressMapper,
+                shippingAddressMapper, cartMapper, cartItemMapper, productMapper, logisticsCompanyMapper,
+                mock(LogisticsService.class), orderNumberGenerator, settingsService,
+                mock(ExchangeRateService.class), mock(HotStockService.class), mock(ProductService.class),
+                mock(CartService.class), orderTimeoutTaskMapper, orderIdempotencyMapper,
+                mock(ApplicationEventPublisher.class), mock(OrderStateMachine.class));
+        ReflectionTestUtils.setField(orderService, "orderTimeoutMinutes", 15);
+
+        ShippingAddress address = new ShippingAddress();
+        address.setId(1L);
+        address.setUserId(BUYER_ID);
+        when(shippingAddressMapper.selectById(anyLong())).thenReturn(address);
+        when(settingsService.getDecimalConfig(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void createOrderFromCartUsesConstantQueries(int lineItems) {
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setUserId(BUYER_ID);
+        List<CartItem> cartItems = new ArrayList<>();
+        for (int i = 0; i < lineItems; i++) {
+            CartItem item = new CartItem();
+            item.setId((long) i);
+            item.setProductId((long) i);
+            item.setQuantity(2);
+            item.setSelected(true);
+            cartItems.add(item);
+        }
+        when(cartMapper.selectByUserId(BUYER_ID)).thenReturn(cart);
+        when(cartItemMapper.selectSelectedByCartId(1L)).thenReturn(cartItems);
+        stubProducts(lineItems);
+
+        CreateOrderDTO dto = new CreateOrderDTO();
+        dto.setAddressId(1L);
+        orderService.createOrder(BUYER_ID, dto);
+
+        // 地址、购物车、选中明细、商品加锁、批量扣减、订单、明细批量插入、地址快照、
+        // 卖家默认地址、卖家地址列表、超时任务、删除购物车明细
+        assertEquals(12, queries.count());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void createOrderFromProductIdsUsesConstantQueries(int lineItems) {
+        List<Long> productIds = new ArrayList<>();
+        for (long i = 0; i < lineItems; i++) {
+            productIds.add(i);
+        }
+        stubProducts(lineItems);
+
+        CreateOrderDTO dto = new CreateOrderDTO();
+        dto.setAddressId(1L);
+        dto.setProductIds(productIds);
+        orderService.createOrder(BUYER_ID, dto);
+
+        // 地址、商品加锁、批量扣减、订单、明细批量插入、地址快照、卖家默认地址、卖家地址列表、超时任务
+        assertEquals(9, queries.count());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 500})
+    void cancelTimeoutOrdersUsesConstantQueriesPerChunk(int orderCount) {
+        List<Long> orderIds = new ArrayList<>();
+        List<OrderItem> items = new ArrayList<>();
+        for (long i = 0; i < orderCount; i++) {
+            orderIds.add(i);
+            // 每个订单两条明细，商品在订单之间重复，按商品汇总后恢复
+            for (long j = 0; j < 2; j++) {
+                OrderItem item = new OrderItem();
+                item.setOrderId(i);
+                item.setProductId((i + j) % 20);
+                item.setQuantity(1);
+                items.add(item);
+            }
+        }
+        when(orderMapper.selectPendingIdsForUpdate(orderIds)).thenReturn(orderIds);
+        when(orderItemMapper.selectByOrderIds(orderIds)).thenReturn(items);
+        when(orderMapper.batchCancelPending(any(), anyString())).thenReturn(orderCount);
+
+        assertEquals(orderCount, orderService.cancelTimeoutOrders(orderIds));
+
+        // 锁定待支付订单、查询明细、批量恢复库存、批量翻转状态、批量结束超时任务
+        assertEquals(5, queries.count());
+        verify(productMapper).batchIncreaseStock(argThat(quantities -> quantities.size() == Math.min(20, orderCount + 1)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void orderListPagesUseConstantQueries(int pageSize) {
+        List<Order> orders = orders(pageSize);
+        when(orderMapper.selectByBuyerId(BUYER_ID, null)).thenReturn(orders);
+        when(orderMapper.selectBySellerId(SELLER_ID, null)).thenReturn(orders);
+        when(orderItemMapper.selectByOrderIds(any())).thenReturn(orderItems(orders));
+
+        try {
+            assertEquals(pageSize, orderService.getBuyerOrders(BUYER_ID, null, 1, pageSize).getList().size());
+            // 订单分页、明细IN查询、地址IN查询
+            assertEquals(3, queries.count());
+
+            queries.reset();
+            PageResult<OrderVO> page = orderService.getSellerOrders(SELLER_ID, null, 1, pageSize);
+            assertEquals(3, queries.count());
+            assertEquals(2, page.getList().get(pageSize - 1).getItems().size());
+        } finally {
+            PageHelper.clearPage();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void orderCursorPagesUseConstantQueries(int pageSize) {
+        List<Order> orders = orders(pageSize + 1);
+        when(orderMapper.selectCursorList(any(), any(), any(), any(), any(), anyInt())).thenReturn(orders);
+        when(orderItemMapper.selectByOrderIds(any())).thenReturn(orderItems(orders));
+
+        PageResult<OrderVO> page = orderService.getBuyerOrdersByCursor(BUYER_ID, null, null, pageSize);
+
+        assertEquals(pageSize, page.getList().size());
+        assertEquals(3, queries.count());
+    }
+
+    private static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setId(i);
+            order.setBuyerId(BUYER_ID);
+            order.setSellerId(SELLER_ID);
+            order.setCreateTime(LocalDateTime.now().minusMinutes(i));
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private static List<OrderItem> orderItems(List<Order> orders) {
+        List<OrderItem> items = new ArrayList<>();
+        for (Order order : orders) {
+            for (long j = 0; j < 2; j++) {
+                OrderItem item = new OrderItem();
+                item.setOrderId(order.getId());
+                item.setProductId(j);
+                item.setQuantity(1);
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private void stubProducts(int count) {
+        List<Product> products = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId(i);
+            product.setName("product-" + i);
+            product.setSellerId(SELLER_ID);
+            product.setPrice(new BigDecimal("9.90"));
+            product.setStock(1000);
+            product.setOnShelf(true);
+            products.add(product);
+        }
+        when(productMapper.selectByIdsForUpdate(any())).thenReturn(products);
+        when(productMapper.batchDecreaseStock(anyMap()))
+                .thenAnswer(invocation -> ((Map<?, ?>) invocation.getArgument(0)).size());
+    }
+}
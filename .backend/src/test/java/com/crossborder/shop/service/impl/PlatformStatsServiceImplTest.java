@@ -0,0 +1,164 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.Order;
+import com.crossborder.shop.event.OrderCreatedEvent;
+import com.crossborder.shop.event.OrderStatusChangedEvent;
+import com.crossborder.shop.event.UserRegisteredEvent;
+import com.crossborder.shop.mapper.OrderMapper;
+import com.crossborder.shop.mapper.SystemStatsMapper;
+import com.crossborder.shop.vo.SystemStatsVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 平台统计服务测试
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class PlatformStatsServiceImplTest {
+
+    private final SystemStatsMapper systemStatsMapper = mock(SystemStatsMapper.class);
+    private final OrderMapper orderMapper = mock(OrderMapper.class);
+
+    private PlatformStatsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PlatformStatsServiceImpl(systemStatsMapper, orderMapper);
+        when(systemStatsMapper.countTotalUsers()).thenReturn(100L);
+        when(systemStatsMapper.countActiveUsers()).thenReturn(90L);
+        when(systemStatsMapper.countNewUsers(any(), any())).thenReturn(5L);
+        when(systemStatsMapper.countTotalProducts()).thenReturn(40L);
+        when(systemStatsMapper.countActiveProducts()).thenReturn(30L);
+        when(systemStatsMapper.countTotalOrders()).thenReturn(200L);
+        when(systemStatsMapper.countPendingOrders()).thenReturn(20L);
+        when(systemStatsMapper.sumTotalRevenue()).thenReturn(new BigDecimal("1000.00"));
+        when(systemStatsMapper.sumRevenue(any(), any())).thenReturn(new BigDecimal("50.00"));
+    }
+
+    @Test
+    void eventsIncrementCountersWithoutQueries() {
+        service.reconcile();
+        paidOrder(1L, new BigDecimal("12.50"), LocalDateTime.now());
+
+        service.onUserRegistered(new UserRegisteredEvent(1L));
+        service.onOrderCreated(new OrderCreatedEvent(1L, LocalDateTime.now()));
+        service.onOrderStatusChanged(new OrderStatusChangedEvent(1L, 0, 1));
+        service.onOrderStatusChanged(new OrderStatusChangedEvent(1L, 1, 2));
+
+        SystemStatsVO stats = service.getStats();
+        assertEquals(101L, stats.getTotalUsers());
+        assertEquals(91L, stats.getActiveUsers());
+        assertEquals(6L, stats.getNewUsersToday());
+        assertEquals(201L, stats.getTotalOrders());
+        // 新订单+1，发货离开待处理-1
+        assertEquals(20L, stats.getPendingOrders());
+        assertEquals(new BigDecimal("1012.50"), stats.getTotalRevenue());
+        assertEquals(new BigDecimal("62.50"), stats.getRevenueToday());
+        verify(systemStatsMapper, never()).upsertDailyStats(any());
+    }
+
+    @Test
+    void paymentOnEarlierDayOnlyCountsTowardsTotal() {
+        service.reconcile();
+        paidOrder(1L, new BigDecimal("8.00"), LocalDateTime.now().minusDays(1));
+
+        service.onOrderStatusChanged(new OrderStatusChangedEvent(1L, 0, 1));
+
+        SystemStatsVO stats = service.getStats();
+        assertEquals(new BigDecimal("1008.00"), stats.getTotalRevenue());
+        assertEquals(new BigDecimal("50.00"), stats.getRevenueToday());
+    }
+
+    @Test
+    void dateRollResetsDailyCountersAtMidnight() {
+        service.reconcile();
+        ReflectionTestUtils.setField(service, "statDate", LocalDate.now().minusDays(1));
+
+        service.onUserRegistered(new UserRegisteredEvent(1L));
+
+        SystemStatsVO stats = service.getStats();
+        assertEquals(1L, stats.getNewUsersToday());
+        assertEquals(BigDecimal.ZERO, stats.getRevenueToday());
+        // 累计类指标不受跨天影响
+        assertEquals(101L, stats.getTotalUsers());
+        assertEquals(new BigDecimal("1000.00"), stats.getTotalRevenue());
+    }
+
+    @Test
+    void reconcileOverwritesDriftedCounters() {
+        service.reconcile();
+        ReflectionTestUtils.setField(service, "totalOrders", 999L);
+        ReflectionTestUtils.setField(service, "pendingOrders", -3L);
+
+        service.reconcile();
+
+        SystemStatsVO stats = service.getStats();
+        assertEquals(200L, stats.getTotalOrders());
+        assertEquals(20L, stats.getPendingOrders());
+        assertEquals(40L, stats.getTotalProducts());
+        assertEquals(30L, stats.getActiveProducts());
+    }
+
+    @Test
+    void eventsDuringReconcileReadsAreNotLost() {
+        service.reconcile();
+        paidOrder(1L, new BigDecimal("5.00"), LocalDateTime.now());
+        // 查询返回后、覆盖计数器前到达的事件（数据库值中没有）
+        when(systemStatsMapper.countTotalUsers()).thenAnswer(invocation -> {
+            service.onUserRegistered(new UserRegisteredEvent(2L));
+            return 100L;
+        });
+        when(systemStatsMapper.countTotalOrders()).thenAnswer(invocation -> {
+            service.onOrderCreated(new OrderCreatedEvent(2L, LocalDateTime.now()));
+            return 200L;
+        });
+        when(systemStatsMapper.sumTotalRevenue()).thenAnswer(invocation -> {
+            service.onOrderStatusChanged(new OrderStatusChangedEvent(1L, 0, 1));
+            return new BigDecimal("1000.00");
+        });
+
+        service.reconcile();
+
+        SystemStatsVO stats = service.getStats();
+        assertEquals(101L, stats.getTotalUsers());
+        assertEquals(201L, stats.getTotalOrders());
+        assertEquals(new BigDecimal("1005.00"), stats.getTotalRevenue());
+        // 事件早于后续各项查询，已计入其数据库值，不重复补回
+        assertEquals(90L, stats.getActiveUsers());
+        assertEquals(5L, stats.getNewUsersToday());
+        assertEquals(20L, stats.getPendingOrders());
+        assertEquals(new BigDecimal("50.00"), stats.getRevenueToday());
+    }
+
+    @Test
+    void eventsBeforeFirstReconcileAreCoveredByIt() {
+        service.onUserRegistered(new UserRegisteredEvent(1L));
+
+        SystemStatsVO stats = service.getStats();
+
+        // 首次对账前的事件已在数据库值中，不重复计入
+        assertEquals(100L, stats.getTotalUsers());
+    }
+
+    private void paidOrder(Long id, BigDecimal amount, LocalDateTime paymentTime) {
+        Order order = new Order();
+        order.setId(id);
+        order.setTotalAmount(amount);
+        order.setPaymentTime(paymentTime);
+        when(orderMapper.selectById(id)).thenReturn(order);
+    }
+}
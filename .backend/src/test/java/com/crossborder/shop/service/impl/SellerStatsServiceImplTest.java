@@ -0,0 +1,258 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.entity.Order;
+import com.crossborder.shop.entity.OrderItem;
+import com.crossborder.shop.entity.SellerDailyStats;
+import com.crossborder.shop.mapper.OrderItemMapper;
+import com.crossborder.shop.mapper.OrderMapper;
+import com.crossborder.shop.mapper.SellerStatsMapper;
+import com.crossborder.shop.vo.SellerStatsVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 卖家统计服务测试
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class SellerStatsServiceImplTest {
+
+    private static final long SELLER_ID = 7L;
+
+    private final SellerStatsMapper sellerStatsMapper = mock(SellerStatsMapper.class);
+    private final OrderMapper orderMapper = mock(OrderMapper.class);
+    private final OrderItemMapper orderItemMapper = mock(OrderItemMapper.class);
+
+    private final Map<Long, Order> orders = new HashMap<>();
+
+    private SellerStatsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SellerStatsServiceImpl(sellerStatsMapper, orderMapper, orderItemMapper);
+        when(orderMapper.selectByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(orders::containsKey).map(orders::get).toList();
+        });
+    }
+
+    @Test
+    void eventsAreBucketedByTheirOwnTimestamp() {
+        Order order = order(1L, "100.00");
+        order.setCreateTime(LocalDateTime.of(2026, 3, 1, 23, 59));
+        order.setPaymentTime(LocalDateTime.of(2026, 3, 2, 0, 1));
+        order.setShipTime(LocalDateTime.of(2026, 3, 3, 9, 0));
+        order.setCompleteTime(LocalDateTime.of(2026, 3, 8, 9, 0));
+        when(orderItemMapper.selectByOrderIds(anyCollection())).thenReturn(List.of(item(1L, 2), item(1L, 3)));
+
+        service.recordOrderCreated(1L);
+        service.recordStatusChanged(1L, 0, 1);
+        service.recordStatusChanged(1L, 1, 2);
+        service.recordStatusChanged(1L, 2, 3);
+        service.flush();
+
+        Map<LocalDate, SellerDailyStats> rows = flushedRows();
+        assertEquals(4, rows.size());
+        assertEquals(1, rows.get(LocalDate.of(2026, 3, 1)).getOrderCount());
+        SellerDailyStats paid = rows.get(LocalDate.of(2026, 3, 2));
+        assertEquals(1, paid.getPaidOrderCount());
+        assertEquals(new BigDecimal("100.00"), paid.getRevenue());
+        assertEquals(5, paid.getUnits());
+        assertEquals(1, rows.get(LocalDate.of(2026, 3, 3)).getShippedOrderCount());
+        assertEquals(1, rows.get(LocalDate.of(2026, 3, 8)).getCompletedOrderCount());
+    }
+
+    @Test
+    void ignoredTransitionsAreNotBuffered() {
+        // 只有待支付 -> 待发货计为支付；未知状态不计
+        service.recordStatusChanged(1L, 1, 1);
+        service.recordStatusChanged(1L, 0, 9);
+        service.recordStatusChanged(1L, 0, null);
+        service.flush();
+
+        verify(orderMapper, never()).selectByIds(anyCollection());
+        verify(sellerStatsMapper, never()).batchIncrementDaily(anyList());
+    }
+
+    @Test
+    void bulkCancellationIsOneReadAndOneUpsert() {
+        LocalDateTime now = LocalDateTime.of(2026, 3, 5, 10, 0);
+        for (long id = 1; id <= 300; id++) {
+            Order order = order(id, "10.00");
+            order.setCreateTime(now.minusMinutes(30));
+            order.setCancelTime(now);
+            service.recordStatusChanged(id, 0, 4);
+        }
+
+        service.flush();
+
+        verify(orderMapper, times(1)).selectByIds(anyCollection());
+        verify(orderItemMapper, never()).selectByOrderIds(anyCollection());
+        Map<LocalDate, SellerDailyStats> rows = flushedRows();
+        assertEquals(1, rows.size());
+        assertEquals(300, rows.get(now.toLocalDate()).getCancelledOrderCount());
+    }
+
+    @Test
+    void failedWriteIsRetriedOnNextFlush() {
+        Order order = order(1L, "10.00");
+        order.setCreateTime(LocalDateTime.of(2026, 3, 5, 10, 0));
+        doThrow(new IllegalStateException("db down")).doReturn(1)
+                .when(sellerStatsMapper).batchIncrementDaily(anyList());
+
+        service.recordOrderCreated(1L);
+        service.flush();
+        service.flush();
+
+        ArgumentCaptor<List<SellerDailyStats>> captor = rowsCaptor();
+        verify(sellerStatsMapper, times(2)).batchIncrementDaily(captor.capture());
+        assertEquals(1, captor.getAllValues().get(1).get(0).getOrderCount());
+
+        // 写入成功后不再重复累加
+        service.flush();
+        verify(sellerStatsMapper, times(2)).batchIncrementDaily(anyList());
+    }
+
+    @Test
+    void pendingIsCreatedMinusShippedMinusCancelled() {
+        LocalDate today = LocalDate.now();
+        SellerDailyStats total = new SellerDailyStats();
+        total.setOrderCount(10);
+        total.setShippedOrderCount(4);
+        total.setCancelledOrderCount(3);
+        total.setCompletedOrderCount(2);
+        total.setRevenue(new BigDecimal("500.00"));
+        total.setUnits(12);
+        SellerDailyStats todayRow = new SellerDailyStats();
+        todayRow.setStatDate(today);
+        todayRow.setRevenue(new BigDecimal("30.00"));
+        SellerDailyStats monthRow = new SellerDailyStats();
+        monthRow.setStatDate(today.withDayOfMonth(1));
+        monthRow.setRevenue(new BigDecimal("20.00"));
+        when(sellerStatsMapper.selectSummaryRows(SELLER_ID, today.withDayOfMonth(1)))
+                .thenReturn(List.of(total, todayRow, monthRow));
+
+        SellerStatsVO stats = service.getStats(SELLER_ID);
+
+        assertEquals(10L, stats.getTotalOrders());
+        assertEquals(3L, stats.getPendingOrders());
+        assertEquals(2L, stats.getCompletedOrders());
+        assertEquals(new BigDecimal("500.00"), stats.getTotalRevenue());
+        assertEquals(new BigDecimal("50.00"), stats.getRevenueThisMonth());
+        assertEquals(today.getDayOfMonth() == 1 ? new BigDecimal("50.00") : new BigDecimal("30.00"),
+                stats.getRevenueToday());
+        assertEquals(12L, stats.getTotalSales());
+    }
+
+    @Test
+    void orderLifecyclesLeaveOnlyOpenOrdersPending() {
+        LocalDateTime time = LocalDateTime.of(2026, 3, 5, 10, 0);
+        // 1：下单后支付未发货；2：支付后发货；3：未支付取消；4：只下单
+        for (long id = 1; id <= 4; id++) {
+            Order order = order(id, "10.00");
+            order.setCreateTime(time);
+            order.setPaymentTime(time);
+            order.setShipTime(time);
+            order.setCancelTime(time);
+            service.recordOrderCreated(id);
+        }
+        when(orderItemMapper.selectByOrderIds(anyCollection())).thenReturn(List.of());
+        service.recordStatusChanged(1L, 0, 1);
+        service.recordStatusChanged(2L, 0, 1);
+        service.recordStatusChanged(2L, 1, 2);
+        service.recordStatusChanged(3L, 0, 4);
+        service.flush();
+
+        SellerDailyStats row = flushedRows().get(time.toLocalDate());
+        assertEquals(4, row.getOrderCount());
+        assertEquals(2, SellerStatsServiceImpl.pendingOrders(row));
+    }
+
+    @Test
+    void backfillFlushesBufferThenRebuildsRange() {
+        Order order = order(1L, "10.00");
+        order.setCreateTime(LocalDateTime.of(2026, 3, 5, 10, 0));
+        service.recordOrderCreated(1L);
+        LocalDate from = LocalDate.of(2026, 3, 4);
+        LocalDate to = LocalDate.of(2026, 3, 5);
+
+        service.backfill(from, to);
+
+        InOrder inOrder = inOrder(sellerStatsMapper);
+        inOrder.verify(sellerStatsMapper).batchIncrementDaily(anyList());
+        inOrder.verify(sellerStatsMapper).deleteDaily(from, to);
+        inOrder.verify(sellerStatsMapper).insertDailyFromOrders(from.atStartOfDay(), LocalDate.of(2026, 3, 6).atStartOfDay());
+    }
+
+    @Test
+    void backfillSkipsEmptyRangeAndExistingTable() {
+        service.backfill(LocalDate.of(2026, 3, 5), LocalDate.of(2026, 3, 4));
+        verify(sellerStatsMapper, never()).deleteDaily(any(), any());
+
+        when(sellerStatsMapper.existsDaily()).thenReturn(true);
+        service.backfillIfEmpty();
+        verify(sellerStatsMapper, never()).selectEarliestOrderDate();
+
+        when(sellerStatsMapper.existsDaily()).thenReturn(false);
+        when(sellerStatsMapper.selectEarliestOrderDate()).thenReturn(LocalDate.of(2026, 1, 1));
+        service.backfillIfEmpty();
+        verify(sellerStatsMapper).deleteDaily(LocalDate.of(2026, 1, 1), LocalDate.now());
+    }
+
+    private Map<LocalDate, SellerDailyStats> flushedRows() {
+        ArgumentCaptor<List<SellerDailyStats>> captor = rowsCaptor();
+        verify(sellerStatsMapper).batchIncrementDaily(captor.capture());
+        Map<LocalDate, SellerDailyStats> rows = new HashMap<>();
+        for (SellerDailyStats row : new ArrayList<>(captor.getValue())) {
+            assertEquals(SELLER_ID, row.getSellerId());
+            assertNull(rows.put(row.getStatDate(), row));
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<SellerDailyStats>> rowsCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private Order order(Long id, String totalAmount) {
+        Order order = new Order();
+        order.setId(id);
+        order.setSellerId(SELLER_ID);
+        order.setTotalAmount(new BigDecimal(totalAmount));
+        orders.put(id, order);
+        return order;
+    }
+
+    private static OrderItem item(Long orderId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setOrderId(orderId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,82 @@
+package com.crossborder.shop.service.impl;
+
+import com.crossborder.shop.common.ResultCode;
+import com.crossborder.shop.entity.TokenRevocation;
+import com.crossborder.shop.exception.BusinessException;
+import com.crossborder.shop.mapper.TokenRevocationMapper;
+import com.crossborder.shop.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Token吊销服务测试：吊销列表加载成功前拒绝鉴权
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class TokenRevocationServiceImplTest {
+
+    private final TokenRevocationMapper tokenRevocationMapper = mock(TokenRevocationMapper.class);
+
+    private TokenRevocationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationServiceImpl(tokenRevocationMapper, mock(JwtUtil.class));
+    }
+
+    @Test
+    void revokedTokenIsRejectedRightAfterStartup() {
+        when(tokenRevocationMapper.selectActiveSince(any())).thenReturn(List.of(revocation("jti-1")));
+
+        service.init();
+
+        assertTrue(service.isRevoked(token("jti-1")));
+        assertFalse(service.isRevoked(token("jti-2")));
+    }
+
+    @Test
+    void failsClosedUntilFirstLoadSucceeds() {
+        when(tokenRevocationMapper.selectActiveSince(any()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of(revocation("jti-1")));
+
+        service.init();
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.isRevoked(token("jti-2")));
+        assertEquals(ResultCode.SERVICE_UNAVAILABLE.getCode(), e.getCode());
+
+        service.refresh();
+
+        assertTrue(service.isRevoked(token("jti-1")));
+        assertFalse(service.isRevoked(token("jti-2")));
+    }
+
+    private static TokenRevocation revocation(String tokenId) {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setTokenId(tokenId);
+        revocation.setUserId(1L);
+        revocation.setRevokeTime(LocalDateTime.now());
+        revocation.setExpireTime(LocalDateTime.now().plusHours(1));
+        revocation.setCreateTime(LocalDateTime.now());
+        return revocation;
+    }
+
+    private static JwtUtil.VerifiedToken token(String tokenId) {
+        JwtUtil.VerifiedToken token = mock(JwtUtil.VerifiedToken.class);
+        when(token.getTokenId()).thenReturn(tokenId);
+        when(token.getUserId()).thenReturn(1L);
+        return token;
+    }
+}
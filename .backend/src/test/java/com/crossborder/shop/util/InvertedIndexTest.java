@@ -0,0 +1,77 @@
+package com.crossborder.shop.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 倒排索引测试
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class InvertedIndexTest {
+
+    @Test
+    void repeatedUpdatesKeepIdfPositive() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, List.of("phone", "case"));
+        index.put(2, List.of("phone", "phone", "charger"));
+        index.put(3, List.of("cable"));
+        index.put(4, List.of("adapter"));
+        // 反复更新同一文档，已删除的旧编号仍留在倒排表中（未达到压缩阈值）
+        for (int i = 0; i < 100; i++) {
+            index.put(1, List.of("phone", "case"));
+        }
+
+        List<InvertedIndex.Hit> hits = index.search(Set.of("phone"), null);
+
+        assertEquals(2, hits.size());
+        assertTrue(hits.stream().allMatch(hit -> hit.getScore() > 0));
+        // 词频更高的文档排在前面
+        assertEquals(2, hits.get(0).getId());
+    }
+
+    @Test
+    void removedDocumentsNoLongerCountTowardsDocumentFrequency() {
+        InvertedIndex fresh = new InvertedIndex();
+        fresh.put(1, List.of("phone"));
+        fresh.put(2, List.of("cable"));
+
+        InvertedIndex churned = new InvertedIndex();
+        churned.put(1, List.of("phone"));
+        churned.put(2, List.of("cable"));
+        for (long id = 100; id < 200; id++) {
+            churned.put(id, List.of("phone"));
+            churned.remove(id);
+        }
+
+        double expected = fresh.search(Set.of("phone"), null).get(0).getScore();
+        double actual = churned.search(Set.of("phone"), null).get(0).getScore();
+        assertEquals(expected, actual, 1e-9);
+    }
+
+    @Test
+    void compactionKeepsScores() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 0; id < 3000; id++) {
+            index.put(id, List.of(id % 2 == 0 ? "even" : "odd", "item"));
+        }
+        double before = index.search(Set.of("even"), null).get(0).getScore();
+        // 删除超过压缩阈值的文档后再加回，触发压缩
+        for (long id = 1; id < 3000; id += 2) {
+            index.remove(id);
+        }
+        for (long id = 1; id < 3000; id += 2) {
+            index.put(id, List.of("odd", "item"));
+        }
+
+        assertEquals(3000, index.size());
+        assertEquals(1500, index.search(Set.of("even"), null).size());
+        assertEquals(before, index.search(Set.of("even"), null).get(0).getScore(), 1e-9);
+    }
+}
@@ -0,0 +1,143 @@
+package com.crossborder.shop.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订单号生成器测试
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class OrderNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    void concurrentGenerationIsUnique() throws Exception {
+        OrderNumberGenerator generator = generator(0, 1);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+
+        // 1/8的请求集中在同一个userId后4位上（共2000个，超过每秒1000个序列，需要跨秒），其余随机分布
+        int perThread = 2_000;
+        runConcurrently(THREADS, worker -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < perThread; i++) {
+                long userId = i % 8 == 0 ? 10_000L * random.nextInt(1, 100) + 42 : random.nextLong(1, 1_000_000);
+                String number = generator.generateOrderNumber(userId);
+                assertEquals(21, number.length());
+                assertTrue(numbers.add(number), "重复订单号: " + number);
+            }
+        });
+
+        assertEquals(THREADS * perThread, numbers.size());
+    }
+
+    @Test
+    void workerRangesDoNotOverlap() throws Exception {
+        int workerCount = 3;
+        OrderNumberGenerator[] generators = new OrderNumberGenerator[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            generators[i] = generator(i, workerCount);
+        }
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+
+        // 三个节点同时为同一用户生成，每个节点每秒只有333个序列
+        int perWorker = 500;
+        runConcurrently(workerCount, worker -> {
+            OrderNumberGenerator generator = generators[worker];
+            for (int i = 0; i < perWorker; i++) {
+                String number = generator.generateOrderNumber(7L);
+                int sequence = Integer.parseInt(generator.parseSequence(number));
+                assertTrue(sequence >= worker * 333 && sequence < (worker + 1) * 333,
+                        "节点" + worker + "的序列越界: " + sequence);
+                assertTrue(numbers.add(number), "重复订单号: " + number);
+            }
+        });
+
+        assertEquals(workerCount * perWorker, numbers.size());
+    }
+
+    @Test
+    void clockRollbackKeepsUsingSlotSecond() {
+        OrderNumberGenerator generator = generator(1, 2);
+        long future = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 3600;
+        // 槽位中记录的秒比当前时钟晚，相当于时钟回拨了一小时
+        AtomicLongArray slots = (AtomicLongArray) ReflectionTestUtils.getField(generator, "slots");
+        slots.set(42, (future << 20) | 10);
+
+        String first = generator.generateOrderNumber(42L);
+        String second = generator.generateOrderNumber(10_042L);
+
+        String expected = LocalDateTime.ofInstant(Instant.ofEpochSecond(future), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        assertEquals(expected, generator.parseTimestamp(first));
+        assertEquals("0042", generator.parseUserIdSuffix(first));
+        assertEquals("511", generator.parseSequence(first));
+        assertEquals(expected, generator.parseTimestamp(second));
+        assertEquals("512", generator.parseSequence(second));
+    }
+
+    @Test
+    void invalidWorkerConfigurationIsRejected() {
+        assertThrows(IllegalStateException.class, () -> generator(2, 2));
+        assertThrows(IllegalStateException.class, () -> generator(0, 0));
+        assertThrows(IllegalStateException.class, () -> generator(0, 1001));
+    }
+
+    private static OrderNumberGenerator generator(int workerId, int workerCount) {
+        OrderNumberGenerator generator = new OrderNumberGenerator();
+        ReflectionTestUtils.setField(generator, "workerId", workerId);
+        ReflectionTestUtils.setField(generator, "workerCount", workerCount);
+        generator.init();
+        return generator;
+    }
+
+    private static void runConcurrently(int threads, Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int index = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+
+        void run(int index);
+    }
+}
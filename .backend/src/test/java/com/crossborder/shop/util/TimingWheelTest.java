@@ -0,0 +1,68 @@
+package com.crossborder.shop.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分层时间轮测试
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class TimingWheelTest {
+
+    @Test
+    void entriesFireOnceAndNeverEarly() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 8, 0);
+        Random random = new Random(42);
+        Map<Integer, Long> expireAt = new HashMap<>();
+        List<Integer> fired = new ArrayList<>();
+        long now = 0;
+        for (int key = 0; key < 2_000; key++) {
+            // 跨越三层时间轮
+            long expire = now + random.nextInt(20_000);
+            expireAt.put(key, expire);
+            if (!wheel.add(key, expire)) {
+                fired.add(key);
+            }
+            now += random.nextInt(15);
+            long current = now;
+            wheel.advance(current, k -> {
+                // 不早于到期时间；最多晚一个tick加上两次推进的间隔
+                assertTrue(expireAt.get(k) < current);
+                assertTrue(expireAt.get(k) > current - 25);
+                fired.add(k);
+            });
+        }
+        wheel.advance(now + 30_000, fired::add);
+
+        assertEquals(2_000, fired.size());
+        assertEquals(2_000, fired.stream().distinct().count());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void expiredEntryFoundWhileCascadingFiresImmediately() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 4, 0);
+        assertTrue(wheel.add("late", 10));
+        // 下层时间轮已越过上层槽位中的任务，降级时不能再放回下层
+        ReflectionTestUtils.setField(wheel, "cursor", 11L);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(12, fired::add);
+
+        assertEquals(List.of("late"), fired);
+        assertEquals(0, wheel.size());
+        assertFalse(wheel.add("past", 5));
+    }
+}
@@ -0,0 +1,140 @@
+package com.crossborder.shop.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * W-TinyLFU缓存测试
+ *
+ * @author CrossBorder Shop
+ * @since 2026-02-04
+ */
+class TinyLfuCacheTest {
+
+    @Test
+    void hitsDoNotBlockOnEvictionLock() throws Exception {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(100);
+        cache.get(1, key -> "v1");
+        ReentrantLock evictionLock = (ReentrantLock) ReflectionTestUtils.getField(cache, "evictionLock");
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            evictionLock.lock();
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                evictionLock.unlock();
+            }
+        });
+        holder.start();
+        locked.await();
+        try {
+            // 淘汰锁被占用期间，命中和读缓冲区写满都不应等待
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int i = 0; i < 10_000; i++) {
+                    assertEquals("v1", cache.getIfPresent(1));
+                }
+            });
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        assertEquals(10_000, cache.getHitCount());
+    }
+
+    @Test
+    void frequentKeySurvivesScan() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(100);
+        cache.get(-1, key -> "hot");
+        for (int i = 0; i < 200; i++) {
+            cache.getIfPresent(-1);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.get(i, String::valueOf);
+        }
+
+        assertEquals("hot", cache.getIfPresent(-1));
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    @Test
+    void invalidateDuringLoadIsNotCached() throws Exception {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(100);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> loaded = executor.submit(() -> cache.get(1, key -> {
+                loadStarted.countDown();
+                try {
+                    finishLoad.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "stale";
+            }));
+            loadStarted.await();
+            cache.invalidate(1);
+            finishLoad.countDown();
+
+            assertEquals("stale", loaded.get(5, TimeUnit.SECONDS));
+            assertNull(cache.getIfPresent(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentAccessStaysBounded() throws Exception {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(500);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 50_000; i++) {
+                        int key = random.nextInt(2_000);
+                        assertEquals(key, cache.get(key, k -> k));
+                        if (i % 100 == 0) {
+                            cache.invalidate(random.nextInt(2_000));
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(cache.size() <= 500);
+        assertEquals(cache.size(), cache.keys().size());
+    }
+}
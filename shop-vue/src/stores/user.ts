@@ -4,7 +4,7 @@ import { login as loginApi, logout as logoutApi, getCurrentUser } from '@/servic
 import {
   setToken, setRefreshToken, setUserInfo,
   removeToken, removeRefreshToken, removeUserInfo,
-  getUserInfo,
+  getUserInfo, getRefreshToken,
 } from '@/utils/request'
 import type { User, LoginDTO } from '@/models/user'
 
@@ -39,7 +39,7 @@ export const useUserStore = defineStore('user', () => {
 
   const logout = async () => {
     try {
-      await logoutApi()
+      await logoutApi(getRefreshToken())
     } catch {
       // ignore logout errors
     } finally {
@@ -23,6 +23,12 @@ export interface Cart {
   items: CartItem[]
 }
 
+export interface CartSummary {
+  itemCount: number
+  totalQuantity: number
+  totalPrice: number
+}
+
 export interface CartAddDTO {
   productId: number
   quantity: number
@@ -38,6 +44,12 @@ export interface UpdateCartItemDTO {
   selected?: boolean
 }
 
+export interface CartBatchDTO {
+  adds?: CartAddDTO[]
+  updates?: UpdateCartItemDTO[]
+  removeIds?: number[]
+}
+
 export interface CartCalculateResponse {
   subtotal: number
   shippingFee: number
@@ -1,5 +1,5 @@
 import request from '@/utils/request'
-import type { Cart, CartAddDTO, UpdateCartItemDTO, CartCalculateResponse } from '@/models/cart'
+import type { Cart, CartAddDTO, CartBatchDTO, CartSummary, UpdateCartItemDTO, CartCalculateResponse } from '@/models/cart'
 import type { Result } from '@/models/common'
 
 // Add to cart
@@ -19,6 +19,14 @@ export async function getCart(): Promise<Result<Cart>> {
   })
 }
 
+// Get cart summary (item count, quantity and total) for the cart badge
+export async function getCartSummary(): Promise<Result<CartSummary>> {
+  return request({
+    url: '/cart/summary',
+    method: 'GET',
+  })
+}
+
 // Update cart item (with quantity and selected status)
 export async function updateCartItem(data: UpdateCartItemDTO): Promise<Result<void>> {
   return request({
@@ -36,6 +44,15 @@ export async function deleteCartItem(id: number): Promise<Result<void>> {
   })
 }
 
+// Apply many cart changes (adds, updates, removals) in one request
+export async function batchUpdateCart(data: CartBatchDTO): Promise<Result<void>> {
+  return request({
+    url: '/cart/batch',
+    method: 'POST',
+    data,
+  })
+}
+
 // Clear cart
 export async function clearCart(): Promise<Result<void>> {
   return request({
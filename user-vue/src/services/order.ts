@@ -76,11 +76,13 @@ export async function refundOrder(id: number, data: RefundDTO): Promise<Result<v
 }
 
 // Create order (user-facing)
-export async function createOrder(data: any): Promise<any> {
+// idempotencyKey 在同一次结算的重试中保持不变，后端据此返回原订单而不是重复下单
+export async function createOrder(data: any, idempotencyKey?: string): Promise<any> {
   return request({
     url: '/order/create',
     method: 'POST',
     data,
+    headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : undefined,
   })
 }
 
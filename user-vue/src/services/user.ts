@@ -19,11 +19,13 @@ export async function login(data: LoginDTO): Promise<any> {
   return response
 }
 
-// User logout
-export async function logout(): Promise<Result<void>> {
+// User logout (revokes the current access token and the given refresh token)
+export async function logout(refreshToken?: string | null): Promise<Result<void>> {
   return request({
     url: '/user/logout',
     method: 'POST',
+    // Sent in the body so the token never appears in URLs or access logs
+    data: refreshToken ? { refreshToken } : undefined,
   })
 }
 
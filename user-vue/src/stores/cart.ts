@@ -1,6 +1,6 @@
 import { defineStore } from 'pinia'
 import { ref, computed } from 'vue'
-import { getCart, updateCartItem } from '@/services/cart'
+import { getCart, batchUpdateCart } from '@/services/cart'
 import type { CartItem, Cart } from '@/models/cart'
 
 export const useCartStore = defineStore('cart', () => {
@@ -125,15 +125,15 @@ export const useCartStore = defineStore('cart', () => {
 
   const syncSelectedToBackend = async () => {
     try {
-      for (const item of items.value) {
-        const isSelected = selectedItemIds.value.has(item.productId)
-        if (item.id) {
-          await updateCartItem({
-            id: item.id,
-            quantity: item.quantity,
-            selected: isSelected,
-          })
-        }
+      const updates = items.value
+        .filter(item => item.id)
+        .map(item => ({
+          id: item.id as number,
+          quantity: item.quantity,
+          selected: selectedItemIds.value.has(item.productId),
+        }))
+      if (updates.length > 0) {
+        await batchUpdateCart({ updates })
       }
     } catch (error) {
       console.error('Failed to sync selected items to backend:', error)